@@ -23,6 +23,7 @@ import com.google.gerrit.extensions.api.config.Config;
 import com.google.gerrit.extensions.api.groups.Groups;
 import com.google.gerrit.extensions.api.projects.Projects;
 import com.urswolfer.gerrit.client.rest.accounts.Accounts;
+import com.urswolfer.gerrit.client.rest.http.ConnectionPoolConfig;
 import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
 import com.urswolfer.gerrit.client.rest.http.HttpClientBuilderExtension;
 import com.urswolfer.gerrit.client.rest.http.HttpRequestExecutor;
@@ -32,6 +33,7 @@ import com.urswolfer.gerrit.client.rest.http.accounts.SshKeysParser;
 import com.urswolfer.gerrit.client.rest.http.changes.*;
 import com.urswolfer.gerrit.client.rest.http.changes.parsers.*;
 import com.urswolfer.gerrit.client.rest.http.config.ConfigRestClient;
+import com.urswolfer.gerrit.client.rest.http.config.ServerRestClient;
 import com.urswolfer.gerrit.client.rest.http.config.parsers.ServerConfigParser;
 import com.urswolfer.gerrit.client.rest.http.groups.GroupsParser;
 import com.urswolfer.gerrit.client.rest.http.groups.GroupsRestClient;
@@ -68,6 +70,13 @@ public class GerritApiImpl extends GerritApi.NotImplemented implements GerritRes
         }
     });
 
+    private final Supplier<ServerRestClient> serverRestClient = Suppliers.memoize(new com.google.common.base.Supplier<ServerRestClient>() {
+        @Override
+        public ServerRestClient get() {
+            return new ServerRestClient(gerritRestClient, new ServerConfigParser(gerritRestClient.getGson()));
+        }
+    });
+
     private final Supplier<ChangesRestClient> changesRestClient = Suppliers.memoize(new com.google.common.base.Supplier<ChangesRestClient>() {
         @Override
         public ChangesRestClient get() {
@@ -82,14 +91,15 @@ public class GerritApiImpl extends GerritApi.NotImplemented implements GerritRes
                 new AccountsParser(gerritRestClient.getGson()),
                 new MergeableInfoParser(gerritRestClient.getGson()),
                 new ReviewInfoParser(gerritRestClient.getGson()),
-                new ServerConfigParser(gerritRestClient.getGson()));
+                new ServerConfigParser(gerritRestClient.getGson()),
+                serverRestClient.get());
         }
     });
 
     private final Supplier<ConfigRestClient> configRestClient = Suppliers.memoize(new com.google.common.base.Supplier<ConfigRestClient>() {
         @Override
         public ConfigRestClient get() {
-            return new ConfigRestClient(gerritRestClient,new ServerConfigParser(gerritRestClient.getGson()));
+            return new ConfigRestClient(serverRestClient.get());
         }
     });
 
@@ -118,6 +128,13 @@ public class GerritApiImpl extends GerritApi.NotImplemented implements GerritRes
         this.gerritRestClient = new GerritRestClient(authData, httpRequestExecutor, httpClientBuilderExtensions);
     }
 
+    public GerritApiImpl(GerritAuthData authData,
+                         HttpRequestExecutor httpRequestExecutor,
+                         ConnectionPoolConfig connectionPoolConfig,
+                         HttpClientBuilderExtension... httpClientBuilderExtensions) {
+        this.gerritRestClient = new GerritRestClient(authData, httpRequestExecutor, connectionPoolConfig, httpClientBuilderExtensions);
+    }
+
     @Override
     public Accounts accounts() {
         return accountsRestClient.get();
@@ -152,4 +169,9 @@ public class GerritApiImpl extends GerritApi.NotImplemented implements GerritRes
     public RestClient restClient() {
         return gerritRestClient;
     }
+
+    @Override
+    public void close() {
+        gerritRestClient.close();
+    }
 }
@@ -20,14 +20,23 @@ import com.google.gerrit.extensions.api.GerritApi;
 import com.urswolfer.gerrit.client.rest.accounts.Accounts;
 import com.urswolfer.gerrit.client.rest.tools.Tools;
 
+import java.io.Closeable;
+
 /**
  * @author Urs Wolfer
  */
-public interface GerritRestApi extends GerritApi {
+public interface GerritRestApi extends GerritApi, Closeable {
     Tools tools();
 
     @Override
     Accounts accounts();
 
     RestClient restClient();
+
+    /**
+     * Releases resources held by this instance (e.g. pooled HTTP connections). Only required when it was
+     * created with a {@link com.urswolfer.gerrit.client.rest.http.ConnectionPoolConfig}.
+     */
+    @Override
+    default void close() {}
 }
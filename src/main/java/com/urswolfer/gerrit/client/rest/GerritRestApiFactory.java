@@ -16,6 +16,7 @@
 
 package com.urswolfer.gerrit.client.rest;
 
+import com.urswolfer.gerrit.client.rest.http.ConnectionPoolConfig;
 import com.urswolfer.gerrit.client.rest.http.HttpClientBuilderExtension;
 import com.urswolfer.gerrit.client.rest.http.HttpRequestExecutor;
 
@@ -34,4 +35,21 @@ public class GerritRestApiFactory {
                             HttpClientBuilderExtension... httpClientBuilderExtensions) {
         return new GerritApiImpl(authData, httpRequestExecutor, httpClientBuilderExtensions);
     }
+
+    /**
+     * Creates an instance which re-uses HTTP connections between requests. It must be closed with
+     * {@link GerritRestApi#close()} when it is not needed anymore.
+     */
+    public GerritRestApi create(GerritAuthData authData,
+                            ConnectionPoolConfig connectionPoolConfig,
+                            HttpClientBuilderExtension... httpClientBuilderExtensions) {
+        return create(authData, new HttpRequestExecutor(), connectionPoolConfig, httpClientBuilderExtensions);
+    }
+
+    public GerritRestApi create(GerritAuthData authData,
+                            HttpRequestExecutor httpRequestExecutor,
+                            ConnectionPoolConfig connectionPoolConfig,
+                            HttpClientBuilderExtension... httpClientBuilderExtensions) {
+        return new GerritApiImpl(authData, httpRequestExecutor, connectionPoolConfig, httpClientBuilderExtensions);
+    }
 }
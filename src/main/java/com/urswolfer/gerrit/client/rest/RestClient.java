@@ -24,6 +24,8 @@ import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.function.Consumer;
 
 /**
  * This interface provides basic HTTP access to the REST interface of a Gerrit instance.
@@ -72,6 +74,52 @@ public interface RestClient {
      */
     JsonElement requestJson(String path, String requestBody, HttpVerb verb) throws RestApiException;
 
+    /**
+     * Shortcut for {@code #requestJson} for doing {@code GET} operation with typed result.
+     */
+    default <T> T getRequest(String path, Type typeOfT) throws RestApiException {
+        return requestJson(path, null, HttpVerb.GET, typeOfT);
+    }
+
+    /**
+     * Executes a request and deserializes the JSON response into an object of the given type. Implementations may
+     * deserialize directly from the response stream (without building a {@link JsonElement} tree first).
+     */
+    default <T> T requestJson(String path, String requestBody, HttpVerb verb, Type typeOfT) throws RestApiException {
+        return getGson().fromJson(requestJson(path, requestBody, verb), typeOfT);
+    }
+
+    /**
+     * Shortcut for {@code #requestJsonArray} for doing {@code GET} operation.
+     */
+    default <T> void getRequestArray(String path, Type elementType, Consumer<? super T> consumer)
+        throws RestApiException {
+        requestJsonArray(path, null, HttpVerb.GET, elementType, consumer);
+    }
+
+    /**
+     * Executes a request with a JSON array as response and passes each element to the consumer. Implementations
+     * may pass each element as soon as it is deserialized from the response stream, so that only one element is
+     * held in memory at a time, regardless of the response size. A single JSON object as response is passed as the
+     * only element.
+     */
+    default <T> void requestJsonArray(String path, String requestBody, HttpVerb verb, Type elementType,
+                                      Consumer<? super T> consumer) throws RestApiException {
+        JsonElement jsonElement = requestJson(path, requestBody, verb);
+        if (jsonElement == null || jsonElement.isJsonNull()) {
+            return;
+        }
+        if (jsonElement.isJsonObject()) {
+            T value = getGson().fromJson(jsonElement, elementType);
+            consumer.accept(value);
+            return;
+        }
+        for (JsonElement element : jsonElement.getAsJsonArray()) {
+            T value = getGson().fromJson(element, elementType);
+            consumer.accept(value);
+        }
+    }
+
     /**
      * Executes a request with Accept-header set to "application/json" and returns plain response.
      */
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.gerrit.extensions.common.AccountInfo;
+import com.google.gerrit.extensions.common.AvatarInfo;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * @author Urs Wolfer
+ */
+class AccountInfoTypeAdapter extends ModelTypeAdapter<AccountInfo> {
+    private final TypeAdapter<String> stringAdapter;
+    private final TypeAdapter<Integer> integerAdapter;
+    private final TypeAdapter<Boolean> booleanAdapter;
+    private final TypeAdapter<List<String>> stringListAdapter;
+    private final TypeAdapter<List<AvatarInfo>> avatarsAdapter;
+
+    AccountInfoTypeAdapter(Gson gson, TypeAdapter<AccountInfo> delegate) {
+        super(delegate);
+        stringAdapter = gson.getAdapter(String.class);
+        integerAdapter = gson.getAdapter(Integer.class);
+        booleanAdapter = gson.getAdapter(Boolean.class);
+        stringListAdapter = gson.getAdapter(new TypeToken<List<String>>() {});
+        avatarsAdapter = gson.getAdapter(new TypeToken<List<AvatarInfo>>() {});
+    }
+
+    @Override
+    AccountInfo newInstance() {
+        return new AccountInfo((Integer) null);
+    }
+
+    @Override
+    boolean readField(JsonReader in, String name, AccountInfo accountInfo) throws IOException {
+        switch (name) {
+            case "_account_id":
+                accountInfo._accountId = integerAdapter.read(in);
+                return true;
+            case "name":
+                accountInfo.name = stringAdapter.read(in);
+                return true;
+            case "display_name":
+                accountInfo.displayName = stringAdapter.read(in);
+                return true;
+            case "email":
+                accountInfo.email = stringAdapter.read(in);
+                return true;
+            case "secondary_emails":
+                accountInfo.secondaryEmails = stringListAdapter.read(in);
+                return true;
+            case "username":
+                accountInfo.username = stringAdapter.read(in);
+                return true;
+            case "avatars":
+                accountInfo.avatars = avatarsAdapter.read(in);
+                return true;
+            case "_more_accounts":
+                accountInfo._moreAccounts = booleanAdapter.read(in);
+                return true;
+            case "status":
+                accountInfo.status = stringAdapter.read(in);
+                return true;
+            case "inactive":
+                accountInfo.inactive = booleanAdapter.read(in);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.gerrit.extensions.common.AccountInfo;
+import com.google.gerrit.extensions.common.ApprovalInfo;
+import com.google.gerrit.extensions.common.VotingRangeInfo;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+
+/**
+ * @author Urs Wolfer
+ */
+class ApprovalInfoTypeAdapter extends ModelTypeAdapter<ApprovalInfo> {
+    private final AccountInfoTypeAdapter accountInfoAdapter;
+    private final TypeAdapter<String> stringAdapter;
+    private final TypeAdapter<Integer> integerAdapter;
+    private final TypeAdapter<Boolean> booleanAdapter;
+    private final TypeAdapter<Timestamp> timestampAdapter;
+    private final TypeAdapter<VotingRangeInfo> votingRangeAdapter;
+
+    ApprovalInfoTypeAdapter(Gson gson, TypeAdapter<ApprovalInfo> delegate,
+                            AccountInfoTypeAdapter accountInfoAdapter) {
+        super(delegate);
+        this.accountInfoAdapter = accountInfoAdapter;
+        stringAdapter = gson.getAdapter(String.class);
+        integerAdapter = gson.getAdapter(Integer.class);
+        booleanAdapter = gson.getAdapter(Boolean.class);
+        timestampAdapter = gson.getAdapter(Timestamp.class);
+        votingRangeAdapter = gson.getAdapter(VotingRangeInfo.class);
+    }
+
+    @Override
+    ApprovalInfo newInstance() {
+        return new ApprovalInfo((Integer) null);
+    }
+
+    @Override
+    boolean readField(JsonReader in, String name, ApprovalInfo approvalInfo) throws IOException {
+        switch (name) {
+            case "tag":
+                approvalInfo.tag = stringAdapter.read(in);
+                return true;
+            case "value":
+                approvalInfo.value = integerAdapter.read(in);
+                return true;
+            case "date":
+                approvalInfo.date = timestampAdapter.read(in);
+                return true;
+            case "post_submit":
+                approvalInfo.postSubmit = booleanAdapter.read(in);
+                return true;
+            case "permitted_voting_range":
+                approvalInfo.permittedVotingRange = votingRangeAdapter.read(in);
+                return true;
+            default:
+                return accountInfoAdapter.readField(in, name, (AccountInfo) approvalInfo);
+        }
+    }
+}
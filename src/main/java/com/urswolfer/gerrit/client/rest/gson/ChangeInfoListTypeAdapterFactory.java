@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a single change where a list of changes is expected as a list with one element: Gerrit answers a query
+ * with a single change object instead of an array in some cases (e.g. for the id of a change).
+ *
+ * @author Urs Wolfer
+ */
+class ChangeInfoListTypeAdapterFactory implements TypeAdapterFactory {
+    private static final TypeToken<List<ChangeInfo>> CHANGE_INFO_LIST = new TypeToken<List<ChangeInfo>>() {};
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (!type.equals(CHANGE_INFO_LIST)) {
+            return null;
+        }
+        final TypeAdapter<List<ChangeInfo>> delegate = gson.getDelegateAdapter(this, CHANGE_INFO_LIST);
+        final TypeAdapter<ChangeInfo> changeInfoAdapter = gson.getAdapter(ChangeInfo.class);
+        return (TypeAdapter<T>) new TypeAdapter<List<ChangeInfo>>() {
+            @Override
+            public void write(JsonWriter out, List<ChangeInfo> value) throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public List<ChangeInfo> read(JsonReader in) throws IOException {
+                if (in.peek() == JsonToken.BEGIN_OBJECT) {
+                    return Collections.singletonList(changeInfoAdapter.read(in));
+                }
+                return delegate.read(in);
+            }
+        };
+    }
+}
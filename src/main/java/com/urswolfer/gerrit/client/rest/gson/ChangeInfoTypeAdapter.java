@@ -0,0 +1,265 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.gerrit.extensions.client.ChangeStatus;
+import com.google.gerrit.extensions.client.ReviewerState;
+import com.google.gerrit.extensions.client.SubmitType;
+import com.google.gerrit.extensions.common.AccountInfo;
+import com.google.gerrit.extensions.common.ActionInfo;
+import com.google.gerrit.extensions.common.AttentionSetInfo;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gerrit.extensions.common.ChangeMessageInfo;
+import com.google.gerrit.extensions.common.LabelInfo;
+import com.google.gerrit.extensions.common.PluginDefinedInfo;
+import com.google.gerrit.extensions.common.ProblemInfo;
+import com.google.gerrit.extensions.common.ReviewerUpdateInfo;
+import com.google.gerrit.extensions.common.RevisionInfo;
+import com.google.gerrit.extensions.common.SubmitRequirementInfo;
+import com.google.gerrit.extensions.common.TrackingIdInfo;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Urs Wolfer
+ */
+class ChangeInfoTypeAdapter extends ModelTypeAdapter<ChangeInfo> {
+    private final TypeAdapter<String> stringAdapter;
+    private final TypeAdapter<Integer> integerAdapter;
+    private final TypeAdapter<Integer> intAdapter;
+    private final TypeAdapter<Boolean> booleanAdapter;
+    private final TypeAdapter<Timestamp> timestampAdapter;
+    private final TypeAdapter<ChangeStatus> statusAdapter;
+    private final TypeAdapter<SubmitType> submitTypeAdapter;
+    private final TypeAdapter<AccountInfo> accountInfoAdapter;
+    private final TypeAdapter<Collection<String>> stringsAdapter;
+    private final TypeAdapter<Map<Integer, AttentionSetInfo>> attentionSetAdapter;
+    private final TypeAdapter<Map<String, ActionInfo>> actionsAdapter;
+    private final TypeAdapter<Map<String, LabelInfo>> labelsAdapter;
+    private final TypeAdapter<Map<String, Collection<String>>> permittedLabelsAdapter;
+    private final TypeAdapter<Collection<AccountInfo>> accountsAdapter;
+    private final TypeAdapter<Map<ReviewerState, Collection<AccountInfo>>> reviewersAdapter;
+    private final TypeAdapter<Collection<ReviewerUpdateInfo>> reviewerUpdatesAdapter;
+    private final TypeAdapter<Collection<ChangeMessageInfo>> messagesAdapter;
+    private final TypeAdapter<Map<String, RevisionInfo>> revisionsAdapter;
+    private final TypeAdapter<List<ProblemInfo>> problemsAdapter;
+    private final TypeAdapter<List<PluginDefinedInfo>> pluginsAdapter;
+    private final TypeAdapter<Collection<TrackingIdInfo>> trackingIdsAdapter;
+    private final TypeAdapter<Collection<SubmitRequirementInfo>> requirementsAdapter;
+
+    ChangeInfoTypeAdapter(Gson gson, TypeAdapter<ChangeInfo> delegate) {
+        super(delegate);
+        stringAdapter = gson.getAdapter(String.class);
+        integerAdapter = gson.getAdapter(Integer.class);
+        intAdapter = gson.getAdapter(int.class);
+        booleanAdapter = gson.getAdapter(Boolean.class);
+        timestampAdapter = gson.getAdapter(Timestamp.class);
+        statusAdapter = gson.getAdapter(ChangeStatus.class);
+        submitTypeAdapter = gson.getAdapter(SubmitType.class);
+        accountInfoAdapter = gson.getAdapter(AccountInfo.class);
+        stringsAdapter = gson.getAdapter(new TypeToken<Collection<String>>() {});
+        attentionSetAdapter = gson.getAdapter(new TypeToken<Map<Integer, AttentionSetInfo>>() {});
+        actionsAdapter = gson.getAdapter(new TypeToken<Map<String, ActionInfo>>() {});
+        labelsAdapter = gson.getAdapter(new TypeToken<Map<String, LabelInfo>>() {});
+        permittedLabelsAdapter = gson.getAdapter(new TypeToken<Map<String, Collection<String>>>() {});
+        accountsAdapter = gson.getAdapter(new TypeToken<Collection<AccountInfo>>() {});
+        reviewersAdapter = gson.getAdapter(new TypeToken<Map<ReviewerState, Collection<AccountInfo>>>() {});
+        reviewerUpdatesAdapter = gson.getAdapter(new TypeToken<Collection<ReviewerUpdateInfo>>() {});
+        messagesAdapter = gson.getAdapter(new TypeToken<Collection<ChangeMessageInfo>>() {});
+        revisionsAdapter = gson.getAdapter(new TypeToken<Map<String, RevisionInfo>>() {});
+        problemsAdapter = gson.getAdapter(new TypeToken<List<ProblemInfo>>() {});
+        pluginsAdapter = gson.getAdapter(new TypeToken<List<PluginDefinedInfo>>() {});
+        trackingIdsAdapter = gson.getAdapter(new TypeToken<Collection<TrackingIdInfo>>() {});
+        requirementsAdapter = gson.getAdapter(new TypeToken<Collection<SubmitRequirementInfo>>() {});
+    }
+
+    @Override
+    ChangeInfo newInstance() {
+        return new ChangeInfo();
+    }
+
+    @Override
+    boolean readField(JsonReader in, String name, ChangeInfo changeInfo) throws IOException {
+        switch (name) {
+            case "id":
+                changeInfo.id = stringAdapter.read(in);
+                return true;
+            case "project":
+                changeInfo.project = stringAdapter.read(in);
+                return true;
+            case "branch":
+                changeInfo.branch = stringAdapter.read(in);
+                return true;
+            case "topic":
+                changeInfo.topic = stringAdapter.read(in);
+                return true;
+            case "attention_set":
+                changeInfo.attentionSet = attentionSetAdapter.read(in);
+                return true;
+            case "assignee":
+                changeInfo.assignee = accountInfoAdapter.read(in);
+                return true;
+            case "hashtags":
+                changeInfo.hashtags = stringsAdapter.read(in);
+                return true;
+            case "change_id":
+                changeInfo.changeId = stringAdapter.read(in);
+                return true;
+            case "subject":
+                changeInfo.subject = stringAdapter.read(in);
+                return true;
+            case "status":
+                changeInfo.status = statusAdapter.read(in);
+                return true;
+            case "created":
+                changeInfo.created = timestampAdapter.read(in);
+                return true;
+            case "updated":
+                changeInfo.updated = timestampAdapter.read(in);
+                return true;
+            case "submitted":
+                changeInfo.submitted = timestampAdapter.read(in);
+                return true;
+            case "submitter":
+                changeInfo.submitter = accountInfoAdapter.read(in);
+                return true;
+            case "starred":
+                changeInfo.starred = booleanAdapter.read(in);
+                return true;
+            case "stars":
+                changeInfo.stars = stringsAdapter.read(in);
+                return true;
+            case "reviewed":
+                changeInfo.reviewed = booleanAdapter.read(in);
+                return true;
+            case "submit_type":
+                changeInfo.submitType = submitTypeAdapter.read(in);
+                return true;
+            case "mergeable":
+                changeInfo.mergeable = booleanAdapter.read(in);
+                return true;
+            case "submittable":
+                changeInfo.submittable = booleanAdapter.read(in);
+                return true;
+            case "insertions":
+                changeInfo.insertions = integerAdapter.read(in);
+                return true;
+            case "deletions":
+                changeInfo.deletions = integerAdapter.read(in);
+                return true;
+            case "total_comment_count":
+                changeInfo.totalCommentCount = integerAdapter.read(in);
+                return true;
+            case "unresolved_comment_count":
+                changeInfo.unresolvedCommentCount = integerAdapter.read(in);
+                return true;
+            case "is_private":
+                changeInfo.isPrivate = booleanAdapter.read(in);
+                return true;
+            case "work_in_progress":
+                changeInfo.workInProgress = booleanAdapter.read(in);
+                return true;
+            case "has_review_started":
+                changeInfo.hasReviewStarted = booleanAdapter.read(in);
+                return true;
+            case "revert_of":
+                changeInfo.revertOf = integerAdapter.read(in);
+                return true;
+            case "submission_id":
+                changeInfo.submissionId = stringAdapter.read(in);
+                return true;
+            case "cherry_pick_of_change":
+                changeInfo.cherryPickOfChange = integerAdapter.read(in);
+                return true;
+            case "cherry_pick_of_patch_set":
+                changeInfo.cherryPickOfPatchSet = integerAdapter.read(in);
+                return true;
+            case "contains_git_conflicts":
+                changeInfo.containsGitConflicts = booleanAdapter.read(in);
+                return true;
+            case "_number": {
+                // like the reflective adapter: null keeps the default of primitive fields
+                Integer number = intAdapter.read(in);
+                if (number != null) {
+                    changeInfo._number = number;
+                }
+                return true;
+            }
+            case "owner":
+                changeInfo.owner = accountInfoAdapter.read(in);
+                return true;
+            case "actions":
+                changeInfo.actions = actionsAdapter.read(in);
+                return true;
+            case "labels":
+                changeInfo.labels = labelsAdapter.read(in);
+                return true;
+            case "permitted_labels":
+                changeInfo.permittedLabels = permittedLabelsAdapter.read(in);
+                return true;
+            case "removable_reviewers":
+                changeInfo.removableReviewers = accountsAdapter.read(in);
+                return true;
+            case "reviewers":
+                changeInfo.reviewers = reviewersAdapter.read(in);
+                return true;
+            case "pending_reviewers":
+                changeInfo.pendingReviewers = reviewersAdapter.read(in);
+                return true;
+            case "reviewer_updates":
+                changeInfo.reviewerUpdates = reviewerUpdatesAdapter.read(in);
+                return true;
+            case "messages":
+                changeInfo.messages = messagesAdapter.read(in);
+                return true;
+            case "current_revision":
+                changeInfo.currentRevision = stringAdapter.read(in);
+                return true;
+            case "revisions":
+                changeInfo.revisions = revisionsAdapter.read(in);
+                return true;
+            case "_more_changes":
+                changeInfo._moreChanges = booleanAdapter.read(in);
+                return true;
+            case "_sortkey":
+                changeInfo._sortkey = stringAdapter.read(in);
+                return true;
+            case "problems":
+                changeInfo.problems = problemsAdapter.read(in);
+                return true;
+            case "plugins":
+                changeInfo.plugins = pluginsAdapter.read(in);
+                return true;
+            case "tracking_ids":
+                changeInfo.trackingIds = trackingIdsAdapter.read(in);
+                return true;
+            case "requirements":
+                changeInfo.requirements = requirementsAdapter.read(in);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
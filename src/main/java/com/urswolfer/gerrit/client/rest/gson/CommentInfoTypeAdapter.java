@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.gerrit.extensions.client.Comment;
+import com.google.gerrit.extensions.client.Side;
+import com.google.gerrit.extensions.common.AccountInfo;
+import com.google.gerrit.extensions.common.CommentInfo;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+
+/**
+ * @author Urs Wolfer
+ */
+class CommentInfoTypeAdapter extends ModelTypeAdapter<CommentInfo> {
+    private final TypeAdapter<AccountInfo> accountInfoAdapter;
+    private final TypeAdapter<String> stringAdapter;
+    private final TypeAdapter<Integer> integerAdapter;
+    private final TypeAdapter<Boolean> booleanAdapter;
+    private final TypeAdapter<Timestamp> timestampAdapter;
+    private final TypeAdapter<Side> sideAdapter;
+    private final TypeAdapter<Comment.Range> rangeAdapter;
+
+    CommentInfoTypeAdapter(Gson gson, TypeAdapter<CommentInfo> delegate) {
+        super(delegate);
+        accountInfoAdapter = gson.getAdapter(AccountInfo.class);
+        stringAdapter = gson.getAdapter(String.class);
+        integerAdapter = gson.getAdapter(Integer.class);
+        booleanAdapter = gson.getAdapter(Boolean.class);
+        timestampAdapter = gson.getAdapter(Timestamp.class);
+        sideAdapter = gson.getAdapter(Side.class);
+        rangeAdapter = gson.getAdapter(Comment.Range.class);
+    }
+
+    @Override
+    CommentInfo newInstance() {
+        return new CommentInfo();
+    }
+
+    @Override
+    boolean readField(JsonReader in, String name, CommentInfo commentInfo) throws IOException {
+        switch (name) {
+            case "author":
+                commentInfo.author = accountInfoAdapter.read(in);
+                return true;
+            case "tag":
+                commentInfo.tag = stringAdapter.read(in);
+                return true;
+            case "change_message_id":
+                commentInfo.changeMessageId = stringAdapter.read(in);
+                return true;
+            case "patch_set":
+                commentInfo.patchSet = integerAdapter.read(in);
+                return true;
+            case "id":
+                commentInfo.id = stringAdapter.read(in);
+                return true;
+            case "path":
+                commentInfo.path = stringAdapter.read(in);
+                return true;
+            case "side":
+                commentInfo.side = sideAdapter.read(in);
+                return true;
+            case "parent":
+                commentInfo.parent = integerAdapter.read(in);
+                return true;
+            case "line":
+                commentInfo.line = integerAdapter.read(in);
+                return true;
+            case "range":
+                commentInfo.range = rangeAdapter.read(in);
+                return true;
+            case "in_reply_to":
+                commentInfo.inReplyTo = stringAdapter.read(in);
+                return true;
+            case "updated":
+                commentInfo.updated = timestampAdapter.read(in);
+                return true;
+            case "message":
+                commentInfo.message = stringAdapter.read(in);
+                return true;
+            case "unresolved":
+                commentInfo.unresolved = booleanAdapter.read(in);
+                return true;
+            case "commit_id":
+                commentInfo.commitId = stringAdapter.read(in);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
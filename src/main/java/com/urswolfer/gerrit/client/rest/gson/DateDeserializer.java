@@ -19,10 +19,8 @@ package com.urswolfer.gerrit.client.rest.gson;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonParseException;
 
 import java.lang.reflect.Type;
-import java.text.ParseException;
 import java.util.Date;
 
 /**
@@ -31,11 +29,6 @@ import java.util.Date;
 public class DateDeserializer extends DateFormatter implements JsonDeserializer<Date> {
     @Override
     public Date deserialize(JsonElement jsonElement, Type type, JsonDeserializationContext jsonDeserializationContext) {
-        String date = jsonElement.getAsString();
-        try {
-            return DATE_FORMAT.get().parse(date);
-        } catch (ParseException e) {
-            throw new JsonParseException(e);
-        }
+        return new Date(parse(jsonElement.getAsString()).getTime());
     }
 }
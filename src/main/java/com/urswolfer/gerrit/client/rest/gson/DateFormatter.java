@@ -16,22 +16,164 @@
 
 package com.urswolfer.gerrit.client.rest.gson;
 
+import com.google.gson.JsonParseException;
+
+import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.TimeZone;
 
 /**
  * Used for Gson (de-)serialization because Gerrit uses UTC as base for dates.
  *
- * I would prefer to use the default Gson parser, but I have found no way to tell Gson that dates are in UTC.
+ * Gerrit always uses the layout "yyyy-MM-dd HH:mm:ss.SSSSSSSSS" (nanoseconds are optional), so dates are parsed and
+ * formatted by position instead of with {@link java.text.SimpleDateFormat}: this keeps the full precision and avoids
+ * the overhead of patterns, calendars and exceptions for every date of a response.
  *
  * @author Urs Wolfer
  */
 public abstract class DateFormatter {
-    private static final String DATE_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    private static final int DATE_LENGTH = "yyyy-MM-dd HH:mm:ss".length();
+    private static final int MAX_LENGTH = DATE_LENGTH + ".SSSSSSSSS".length();
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final int[] DAYS_PER_MONTH = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000};
 
+    /**
+     * @deprecated use {@link #parse(String)} and {@link #format(Date)}, which keep the fraction of seconds
+     */
+    @Deprecated
     protected static final ThreadLocal<SimpleDateFormat> DATE_FORMAT = ThreadLocal.withInitial(() -> {
-        SimpleDateFormat dateFormat = new SimpleDateFormat(DATE_PATTERN);
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
         dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
         return dateFormat;
     });
+
+    /**
+     * @throws JsonParseException if the date does not have the layout used by Gerrit
+     */
+    public static Timestamp parse(String date) {
+        int length = date.length();
+        if (length < DATE_LENGTH || length > MAX_LENGTH || length == DATE_LENGTH + 1
+            || date.charAt(4) != '-' || date.charAt(7) != '-' || date.charAt(10) != ' '
+            || date.charAt(13) != ':' || date.charAt(16) != ':'
+            || (length > DATE_LENGTH && date.charAt(DATE_LENGTH) != '.')) {
+            throw invalidDate(date);
+        }
+        int year = parseDigits(date, 0, 4);
+        int month = parseDigits(date, 5, 7);
+        int day = parseDigits(date, 8, 10);
+        int hour = parseDigits(date, 11, 13);
+        int minute = parseDigits(date, 14, 16);
+        int second = parseDigits(date, 17, 19);
+        int nanos = 0;
+        if (length > DATE_LENGTH) {
+            int fraction = parseDigits(date, DATE_LENGTH + 1, length);
+            nanos = fraction < 0 ? -1 : fraction * POWERS_OF_TEN[MAX_LENGTH - length];
+        }
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysOfMonth(year, month)
+            || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || nanos < 0) {
+            throw invalidDate(date);
+        }
+
+        long epochSeconds = epochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+        Timestamp timestamp = new Timestamp(epochSeconds * 1000);
+        timestamp.setNanos(nanos);
+        return timestamp;
+    }
+
+    /**
+     * @return the date in the layout used by Gerrit; the fraction of seconds is only added when it is not zero
+     */
+    public static String format(Date date) {
+        long millis = date.getTime();
+        long epochSeconds = Math.floorDiv(millis, 1000);
+        int nanos = date instanceof Timestamp
+            ? ((Timestamp) date).getNanos()
+            : (int) Math.floorMod(millis, 1000) * 1000000;
+        long epochDay = Math.floorDiv(epochSeconds, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(epochSeconds, SECONDS_PER_DAY);
+
+        char[] chars = new char[nanos == 0 ? DATE_LENGTH : MAX_LENGTH];
+        writeDate(chars, epochDay);
+        chars[10] = ' ';
+        writeDigits(chars, 11, 13, secondOfDay / 3600);
+        chars[13] = ':';
+        writeDigits(chars, 14, 16, secondOfDay / 60 % 60);
+        chars[16] = ':';
+        writeDigits(chars, 17, 19, secondOfDay % 60);
+        if (nanos != 0) {
+            chars[DATE_LENGTH] = '.';
+            writeDigits(chars, DATE_LENGTH + 1, MAX_LENGTH, nanos);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return the value of the digits, or -1 if there is another character
+     */
+    private static int parseDigits(String string, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = string.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static void writeDigits(char[] chars, int start, int end, int value) {
+        for (int i = end - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    private static int daysOfMonth(int year, int month) {
+        return month == 2 && !isLeapYear(year) ? 28 : DAYS_PER_MONTH[month - 1];
+    }
+
+    /**
+     * Days since 1970-01-01 of a date in the proleptic Gregorian calendar (algorithm "days_from_civil" by Howard
+     * Hinnant).
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Writes "yyyy-MM-dd" of the day since 1970-01-01 (inverse of {@link #epochDay(int, int, int)}).
+     */
+    private static void writeDate(char[] chars, long epochDay) {
+        long days = epochDay + 719468;
+        long era = Math.floorDiv(days, 146097);
+        int dayOfEra = (int) (days - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        writeDigits(chars, 0, 4, (int) year);
+        chars[4] = '-';
+        writeDigits(chars, 5, 7, month);
+        chars[7] = '-';
+        writeDigits(chars, 8, 10, day);
+    }
+
+    private static JsonParseException invalidDate(String date) {
+        return new JsonParseException("Invalid date: " + date);
+    }
 }
@@ -30,7 +30,6 @@ import java.util.Date;
 public class DateSerializer extends DateFormatter implements JsonSerializer<Date> {
     @Override
     public JsonElement serialize(Date date, Type type, JsonSerializationContext jsonSerializationContext) {
-        String result = DATE_FORMAT.get().format(date);
-        return new JsonPrimitive(result);
+        return new JsonPrimitive(format(date));
     }
 }
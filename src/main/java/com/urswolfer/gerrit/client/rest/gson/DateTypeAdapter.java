@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.common.base.Function;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Streaming (de-)serialization of dates (see {@link DateFormatter}); unlike {@link DateDeserializer} and
+ * {@link DateSerializer}, no intermediate JSON tree is created. {@link Timestamp}s keep their nanoseconds.
+ *
+ * @author Urs Wolfer
+ */
+final class DateTypeAdapter<T extends Date> extends TypeAdapter<T> {
+    static final DateTypeAdapter<Date> DATE = new DateTypeAdapter<Date>(timestamp -> new Date(timestamp.getTime()));
+    static final DateTypeAdapter<Timestamp> TIMESTAMP = new DateTypeAdapter<Timestamp>(timestamp -> timestamp);
+
+    private final Function<Timestamp, T> fromTimestamp;
+
+    private DateTypeAdapter(Function<Timestamp, T> fromTimestamp) {
+        this.fromTimestamp = fromTimestamp;
+    }
+
+    @Override
+    public void write(JsonWriter out, T date) throws IOException {
+        if (date == null) {
+            out.nullValue();
+        } else {
+            out.value(DateFormatter.format(date));
+        }
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return fromTimestamp.apply(DateFormatter.parse(in.nextString()));
+    }
+}
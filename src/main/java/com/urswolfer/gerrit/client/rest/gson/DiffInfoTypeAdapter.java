@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.gerrit.extensions.common.ChangeType;
+import com.google.gerrit.extensions.common.DiffInfo;
+import com.google.gerrit.extensions.common.DiffWebLinkInfo;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * @author Urs Wolfer
+ */
+class DiffInfoTypeAdapter extends ModelTypeAdapter<DiffInfo> {
+    private final TypeAdapter<DiffInfo.FileMeta> fileMetaAdapter;
+    private final TypeAdapter<DiffInfo.IntraLineStatus> intraLineStatusAdapter;
+    private final TypeAdapter<ChangeType> changeTypeAdapter;
+    private final TypeAdapter<List<String>> stringListAdapter;
+    private final TypeAdapter<List<DiffInfo.ContentEntry>> contentAdapter;
+    private final TypeAdapter<List<DiffWebLinkInfo>> webLinksAdapter;
+    private final TypeAdapter<Boolean> booleanAdapter;
+
+    DiffInfoTypeAdapter(Gson gson, TypeAdapter<DiffInfo> delegate) {
+        super(delegate);
+        fileMetaAdapter = gson.getAdapter(DiffInfo.FileMeta.class);
+        intraLineStatusAdapter = gson.getAdapter(DiffInfo.IntraLineStatus.class);
+        changeTypeAdapter = gson.getAdapter(ChangeType.class);
+        stringListAdapter = gson.getAdapter(new TypeToken<List<String>>() {});
+        contentAdapter = gson.getAdapter(new TypeToken<List<DiffInfo.ContentEntry>>() {});
+        webLinksAdapter = gson.getAdapter(new TypeToken<List<DiffWebLinkInfo>>() {});
+        booleanAdapter = gson.getAdapter(Boolean.class);
+    }
+
+    @Override
+    DiffInfo newInstance() {
+        return new DiffInfo();
+    }
+
+    @Override
+    boolean readField(JsonReader in, String name, DiffInfo diffInfo) throws IOException {
+        switch (name) {
+            case "meta_a":
+                diffInfo.metaA = fileMetaAdapter.read(in);
+                return true;
+            case "meta_b":
+                diffInfo.metaB = fileMetaAdapter.read(in);
+                return true;
+            case "intraline_status":
+                diffInfo.intralineStatus = intraLineStatusAdapter.read(in);
+                return true;
+            case "change_type":
+                diffInfo.changeType = changeTypeAdapter.read(in);
+                return true;
+            case "diff_header":
+                diffInfo.diffHeader = stringListAdapter.read(in);
+                return true;
+            case "content":
+                diffInfo.content = contentAdapter.read(in);
+                return true;
+            case "web_links":
+                diffInfo.webLinks = webLinksAdapter.read(in);
+                return true;
+            case "binary":
+                diffInfo.binary = booleanAdapter.read(in);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
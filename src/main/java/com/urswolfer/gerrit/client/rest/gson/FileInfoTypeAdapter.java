@@ -0,0 +1,87 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.gerrit.extensions.common.FileInfo;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * @author Urs Wolfer
+ */
+class FileInfoTypeAdapter extends ModelTypeAdapter<FileInfo> {
+    private final TypeAdapter<Character> characterAdapter;
+    private final TypeAdapter<Boolean> booleanAdapter;
+    private final TypeAdapter<String> stringAdapter;
+    private final TypeAdapter<Integer> integerAdapter;
+    private final TypeAdapter<Long> longAdapter;
+
+    FileInfoTypeAdapter(Gson gson, TypeAdapter<FileInfo> delegate) {
+        super(delegate);
+        characterAdapter = gson.getAdapter(Character.class);
+        booleanAdapter = gson.getAdapter(Boolean.class);
+        stringAdapter = gson.getAdapter(String.class);
+        integerAdapter = gson.getAdapter(Integer.class);
+        longAdapter = gson.getAdapter(long.class);
+    }
+
+    @Override
+    FileInfo newInstance() {
+        return new FileInfo();
+    }
+
+    @Override
+    boolean readField(JsonReader in, String name, FileInfo fileInfo) throws IOException {
+        switch (name) {
+            case "status":
+                fileInfo.status = characterAdapter.read(in);
+                return true;
+            case "binary":
+                fileInfo.binary = booleanAdapter.read(in);
+                return true;
+            case "old_path":
+                fileInfo.oldPath = stringAdapter.read(in);
+                return true;
+            case "lines_inserted":
+                fileInfo.linesInserted = integerAdapter.read(in);
+                return true;
+            case "lines_deleted":
+                fileInfo.linesDeleted = integerAdapter.read(in);
+                return true;
+            case "size_delta": {
+                // like the reflective adapter: null keeps the default of primitive fields
+                Long sizeDelta = longAdapter.read(in);
+                if (sizeDelta != null) {
+                    fileInfo.sizeDelta = sizeDelta;
+                }
+                return true;
+            }
+            case "size": {
+                Long size = longAdapter.read(in);
+                if (size != null) {
+                    fileInfo.size = size;
+                }
+                return true;
+            }
+            default:
+                return false;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
 
 import java.lang.reflect.Type;
+import java.sql.Timestamp;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -42,8 +43,10 @@ public class GsonFactory {
 
     public static GsonBuilder getBuilder(){
         GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(Date.class, new DateDeserializer());
-        builder.registerTypeAdapter(Date.class, new DateSerializer());
+        builder.registerTypeAdapter(Date.class, DateTypeAdapter.DATE);
+        builder.registerTypeAdapter(Timestamp.class, DateTypeAdapter.TIMESTAMP);
+        builder.registerTypeAdapterFactory(new ModelTypeAdapterFactory());
+        builder.registerTypeAdapterFactory(new ChangeInfoListTypeAdapterFactory());
         builder.setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES);
         return builder;
     }
@@ -53,15 +56,16 @@ public class GsonFactory {
     }
 
     public static class ImmutableMapStringListAdaptor implements JsonDeserializer<ImmutableMap<String, ImmutableList<String>>> {
+        private static final Type LIST_TYPE = new TypeToken<List<String>>() {}.getType();
+
         public ImmutableMap<String, ImmutableList<String>> deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
             throws JsonParseException {
             Map<String, JsonElement> object = json.getAsJsonObject().asMap();
             return object.entrySet().stream()
                 .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey,
                     entry -> {
-                        Type listType = new TypeToken<List<String>>() {}.getType();
                         JsonArray jsonArray = entry.getValue().getAsJsonArray();
-                        List<String> list = new Gson().fromJson(jsonArray, listType);
+                        List<String> list = context.deserialize(jsonArray, LIST_TYPE);
                         return ImmutableList.copyOf(list);
                     }
                 ));
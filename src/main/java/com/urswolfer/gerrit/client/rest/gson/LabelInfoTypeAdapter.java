@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.gerrit.extensions.common.AccountInfo;
+import com.google.gerrit.extensions.common.ApprovalInfo;
+import com.google.gerrit.extensions.common.LabelInfo;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Urs Wolfer
+ */
+class LabelInfoTypeAdapter extends ModelTypeAdapter<LabelInfo> {
+    private final TypeAdapter<AccountInfo> accountInfoAdapter;
+    private final TypeAdapter<List<ApprovalInfo>> approvalsAdapter;
+    private final TypeAdapter<Map<String, String>> valuesAdapter;
+    private final TypeAdapter<Short> shortAdapter;
+    private final TypeAdapter<Boolean> booleanAdapter;
+
+    LabelInfoTypeAdapter(Gson gson, TypeAdapter<LabelInfo> delegate) {
+        super(delegate);
+        accountInfoAdapter = gson.getAdapter(AccountInfo.class);
+        approvalsAdapter = gson.getAdapter(new TypeToken<List<ApprovalInfo>>() {});
+        valuesAdapter = gson.getAdapter(new TypeToken<Map<String, String>>() {});
+        shortAdapter = gson.getAdapter(Short.class);
+        booleanAdapter = gson.getAdapter(Boolean.class);
+    }
+
+    @Override
+    LabelInfo newInstance() {
+        return new LabelInfo();
+    }
+
+    @Override
+    boolean readField(JsonReader in, String name, LabelInfo labelInfo) throws IOException {
+        switch (name) {
+            case "approved":
+                labelInfo.approved = accountInfoAdapter.read(in);
+                return true;
+            case "rejected":
+                labelInfo.rejected = accountInfoAdapter.read(in);
+                return true;
+            case "recommended":
+                labelInfo.recommended = accountInfoAdapter.read(in);
+                return true;
+            case "disliked":
+                labelInfo.disliked = accountInfoAdapter.read(in);
+                return true;
+            case "all":
+                labelInfo.all = approvalsAdapter.read(in);
+                return true;
+            case "values":
+                labelInfo.values = valuesAdapter.read(in);
+                return true;
+            case "value":
+                labelInfo.value = shortAdapter.read(in);
+                return true;
+            case "default_value":
+                labelInfo.defaultValue = shortAdapter.read(in);
+                return true;
+            case "optional":
+                labelInfo.optional = booleanAdapter.read(in);
+                return true;
+            case "blocking":
+                labelInfo.blocking = booleanAdapter.read(in);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
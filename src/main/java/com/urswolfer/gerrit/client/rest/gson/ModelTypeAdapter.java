@@ -0,0 +1,117 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base of the hand-written adapters for frequently parsed model classes (see {@link ModelTypeAdapterFactory}).
+ * Reading matches fields by their JSON name without reflection; unknown fields are skipped. Writing is done by the
+ * reflective adapter.
+ *
+ * The adapter of a model class can be obtained with {@code gson.getAdapter(type)}; it is only public for the partial
+ * reads (see {@link #projected(Set)} and {@link #read(JsonReader, Set, TypeAdapter, Map)}).
+ *
+ * @author Urs Wolfer
+ */
+public abstract class ModelTypeAdapter<T> extends TypeAdapter<T> {
+    private final TypeAdapter<T> delegate;
+
+    ModelTypeAdapter(TypeAdapter<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(JsonWriter out, T value) throws IOException {
+        delegate.write(out, value);
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        T value = newInstance();
+        in.beginObject();
+        while (in.hasNext()) {
+            if (!readField(in, in.nextName(), value)) {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return value;
+    }
+
+    /**
+     * Reads like {@link #read(JsonReader)}, but the values of the deferred fields are only read as trees (without
+     * parsing them into the model) and put into the map.
+     */
+    public T read(JsonReader in, Set<String> deferredNames, TypeAdapter<JsonElement> jsonElementAdapter,
+                  Map<String, JsonElement> deferred) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        T value = newInstance();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (deferredNames.contains(name)) {
+                deferred.put(name, jsonElementAdapter.read(in));
+            } else if (!readField(in, name, value)) {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return value;
+    }
+
+    /**
+     * @return an adapter which only reads the fields with the given JSON names; the values of all other fields are
+     *         skipped without being parsed
+     */
+    public ModelTypeAdapter<T> projected(final Set<String> names) {
+        final ModelTypeAdapter<T> adapter = this;
+        return new ModelTypeAdapter<T>(delegate) {
+            @Override
+            T newInstance() {
+                return adapter.newInstance();
+            }
+
+            @Override
+            boolean readField(JsonReader in, String name, T value) throws IOException {
+                return names.contains(name) && adapter.readField(in, name, value);
+            }
+        };
+    }
+
+    abstract T newInstance();
+
+    /**
+     * @return false when the field is unknown (its value was not consumed)
+     */
+    abstract boolean readField(JsonReader in, String name, T value) throws IOException;
+}
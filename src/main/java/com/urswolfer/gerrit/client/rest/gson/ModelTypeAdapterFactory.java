@@ -0,0 +1,78 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.gerrit.extensions.common.AccountInfo;
+import com.google.gerrit.extensions.common.ApprovalInfo;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gerrit.extensions.common.CommentInfo;
+import com.google.gerrit.extensions.common.DiffInfo;
+import com.google.gerrit.extensions.common.FileInfo;
+import com.google.gerrit.extensions.common.LabelInfo;
+import com.google.gerrit.extensions.common.RevisionInfo;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Provides hand-written adapters for the model classes which are parsed most often (changes with their revisions,
+ * labels and accounts, comments, files and diffs). They read the JSON names of the fields (as translated by
+ * {@link com.google.gson.FieldNamingPolicy#LOWER_CASE_WITH_UNDERSCORES}) without reflection and produce the same
+ * objects as the reflective adapters. Subclasses (e.g. {@link com.google.gerrit.extensions.common.RobotCommentInfo})
+ * are still handled by the reflective adapters.
+ *
+ * @author Urs Wolfer
+ */
+class ModelTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == ChangeInfo.class) {
+            return (TypeAdapter<T>) new ChangeInfoTypeAdapter(gson, gson.getDelegateAdapter(this, TypeToken.get(ChangeInfo.class)));
+        }
+        if (rawType == RevisionInfo.class) {
+            return (TypeAdapter<T>) new RevisionInfoTypeAdapter(gson, gson.getDelegateAdapter(this, TypeToken.get(RevisionInfo.class)));
+        }
+        if (rawType == AccountInfo.class) {
+            return (TypeAdapter<T>) createAccountInfoAdapter(gson);
+        }
+        if (rawType == ApprovalInfo.class) {
+            return (TypeAdapter<T>) new ApprovalInfoTypeAdapter(gson,
+                gson.getDelegateAdapter(this, TypeToken.get(ApprovalInfo.class)), createAccountInfoAdapter(gson));
+        }
+        if (rawType == LabelInfo.class) {
+            return (TypeAdapter<T>) new LabelInfoTypeAdapter(gson, gson.getDelegateAdapter(this, TypeToken.get(LabelInfo.class)));
+        }
+        if (rawType == CommentInfo.class) {
+            return (TypeAdapter<T>) new CommentInfoTypeAdapter(gson, gson.getDelegateAdapter(this, TypeToken.get(CommentInfo.class)));
+        }
+        if (rawType == FileInfo.class) {
+            return (TypeAdapter<T>) new FileInfoTypeAdapter(gson, gson.getDelegateAdapter(this, TypeToken.get(FileInfo.class)));
+        }
+        if (rawType == DiffInfo.class) {
+            return (TypeAdapter<T>) new DiffInfoTypeAdapter(gson, gson.getDelegateAdapter(this, TypeToken.get(DiffInfo.class)));
+        }
+        return null;
+    }
+
+    private AccountInfoTypeAdapter createAccountInfoAdapter(Gson gson) {
+        return new AccountInfoTypeAdapter(gson, gson.getDelegateAdapter(this, TypeToken.get(AccountInfo.class)));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.gerrit.extensions.client.ChangeKind;
+import com.google.gerrit.extensions.common.AccountInfo;
+import com.google.gerrit.extensions.common.ActionInfo;
+import com.google.gerrit.extensions.common.CommitInfo;
+import com.google.gerrit.extensions.common.FetchInfo;
+import com.google.gerrit.extensions.common.FileInfo;
+import com.google.gerrit.extensions.common.PushCertificateInfo;
+import com.google.gerrit.extensions.common.RevisionInfo;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Map;
+
+/**
+ * @author Urs Wolfer
+ */
+class RevisionInfoTypeAdapter extends ModelTypeAdapter<RevisionInfo> {
+    private final TypeAdapter<ChangeKind> changeKindAdapter;
+    private final TypeAdapter<Integer> intAdapter;
+    private final TypeAdapter<Timestamp> timestampAdapter;
+    private final TypeAdapter<AccountInfo> accountInfoAdapter;
+    private final TypeAdapter<String> stringAdapter;
+    private final TypeAdapter<Map<String, FetchInfo>> fetchAdapter;
+    private final TypeAdapter<CommitInfo> commitAdapter;
+    private final TypeAdapter<Map<String, FileInfo>> filesAdapter;
+    private final TypeAdapter<Map<String, ActionInfo>> actionsAdapter;
+    private final TypeAdapter<PushCertificateInfo> pushCertificateAdapter;
+
+    RevisionInfoTypeAdapter(Gson gson, TypeAdapter<RevisionInfo> delegate) {
+        super(delegate);
+        changeKindAdapter = gson.getAdapter(ChangeKind.class);
+        intAdapter = gson.getAdapter(int.class);
+        timestampAdapter = gson.getAdapter(Timestamp.class);
+        accountInfoAdapter = gson.getAdapter(AccountInfo.class);
+        stringAdapter = gson.getAdapter(String.class);
+        fetchAdapter = gson.getAdapter(new TypeToken<Map<String, FetchInfo>>() {});
+        commitAdapter = gson.getAdapter(CommitInfo.class);
+        filesAdapter = gson.getAdapter(new TypeToken<Map<String, FileInfo>>() {});
+        actionsAdapter = gson.getAdapter(new TypeToken<Map<String, ActionInfo>>() {});
+        pushCertificateAdapter = gson.getAdapter(PushCertificateInfo.class);
+    }
+
+    @Override
+    RevisionInfo newInstance() {
+        return new RevisionInfo();
+    }
+
+    @Override
+    boolean readField(JsonReader in, String name, RevisionInfo revisionInfo) throws IOException {
+        switch (name) {
+            case "kind":
+                revisionInfo.kind = changeKindAdapter.read(in);
+                return true;
+            case "_number": {
+                // like the reflective adapter: null keeps the default of primitive fields
+                Integer number = intAdapter.read(in);
+                if (number != null) {
+                    revisionInfo._number = number;
+                }
+                return true;
+            }
+            case "created":
+                revisionInfo.created = timestampAdapter.read(in);
+                return true;
+            case "uploader":
+                revisionInfo.uploader = accountInfoAdapter.read(in);
+                return true;
+            case "ref":
+                revisionInfo.ref = stringAdapter.read(in);
+                return true;
+            case "fetch":
+                revisionInfo.fetch = fetchAdapter.read(in);
+                return true;
+            case "commit":
+                revisionInfo.commit = commitAdapter.read(in);
+                return true;
+            case "files":
+                revisionInfo.files = filesAdapter.read(in);
+                return true;
+            case "actions":
+                revisionInfo.actions = actionsAdapter.read(in);
+                return true;
+            case "commit_with_footers":
+                revisionInfo.commitWithFooters = stringAdapter.read(in);
+                return true;
+            case "push_certificate":
+                revisionInfo.pushCertificate = pushCertificateAdapter.read(in);
+                return true;
+            case "description":
+                revisionInfo.description = stringAdapter.read(in);
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.google.gerrit.extensions.restapi.BinaryResult;
+import com.urswolfer.gerrit.client.rest.http.util.BinaryResultUtils;
+import org.apache.http.HttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Persistent cache for file content and patches of revisions which are addressed by their full commit SHA (these
+ * never change). Every response is stored in its own file in the cache directory; the file name is the hash of the
+ * cache key, so the index can be rebuilt from a directory listing alone. Hits are served from a memory-mapped file.
+ *
+ * The total size is bounded; least recently used files are deleted (the modification time of a file is updated on
+ * hits, at most once per minute, so the order survives restarts). Several processes can share a directory: files
+ * are written to a temporary file first and then atomically renamed, and files written by other processes are used
+ * and added to the index on their first hit. The index and the size bound are kept per process though: each process
+ * only evicts the files it knows, so a shared directory can exceed the bound until the files of other processes are
+ * hit or a process restarts.
+ *
+ * @author Urs Wolfer
+ */
+class BlobCache {
+    private static final Pattern CACHEABLE_RESOURCE = Pattern.compile(
+        "/changes/[^/?]+/revisions/(?:[0-9a-fA-F]{40}|[0-9a-fA-F]{64})/" +
+            "(?:files/[^/?]+/content|patch)(?:\\?.*)?");
+    private static final int FORMAT_VERSION = 1;
+    private static final String BLOB_SUFFIX = ".blob";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long STALE_TEMP_FILE_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long TOUCH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * Creates the directory if needed and reads the existing entries.
+     */
+    BlobCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        loadIndex();
+    }
+
+    static boolean isCacheable(String path) {
+        return CACHEABLE_RESOURCE.matcher(path).matches();
+    }
+
+    Optional<BinaryResult> get(String key) throws IOException {
+        String fileName = fileName(key);
+        long now = System.currentTimeMillis();
+        boolean known;
+        boolean touch = false;
+        synchronized (this) {
+            Entry entry = index.get(fileName); // get (not containsKey) to mark it as recently used
+            known = entry != null;
+            if (known && entry.touchedMillis < now - TOUCH_INTERVAL_MILLIS) {
+                entry.touchedMillis = now;
+                touch = true;
+            }
+        }
+        Path file = directory.resolve(fileName);
+        try {
+            Optional<BinaryResult> result = read(file, key);
+            if (!result.isPresent()) {
+                remove(fileName);
+            } else if (!known) {
+                // written by another process sharing the directory
+                add(fileName, Files.size(file), now);
+            } else if (touch) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+            }
+            return result;
+        } catch (NoSuchFileException e) {
+            // not cached or evicted by another process sharing the directory
+            remove(fileName);
+            return Optional.absent();
+        }
+    }
+
+    /**
+     * Writes the response content to the cache.
+     *
+     * @return the cached content (the response content was consumed)
+     */
+    BinaryResult put(String key, HttpResponse response) throws IOException {
+        BinaryResult responseResult = BinaryResultUtils.createBinaryResult(response);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try {
+            responseResult.writeTo(content);
+        } finally {
+            responseResult.close();
+        }
+        byte[] header = header(key, responseResult);
+
+        String fileName = fileName(key);
+        Path file = directory.resolve(fileName);
+        Path tempFile = Files.createTempFile(directory, fileName, TEMP_SUFFIX);
+        try {
+            OutputStream outputStream = Files.newOutputStream(tempFile);
+            try {
+                new DataOutputStream(outputStream).writeInt(header.length);
+                outputStream.write(header);
+                content.writeTo(outputStream);
+            } finally {
+                outputStream.close();
+            }
+            move(tempFile, file);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        add(fileName, 4 + header.length + content.size(), System.currentTimeMillis());
+
+        // served from memory: the file might already be replaced or evicted by another process
+        BinaryResult result = new ByteBufferBinaryResult(ByteBuffer.wrap(content.toByteArray()));
+        result.setContentType(responseResult.getContentType());
+        if (responseResult.isBase64()) {
+            result.base64();
+        }
+        return result;
+    }
+
+    private void loadIndex() throws IOException {
+        List<Path> files = new ArrayList<Path>();
+        final Map<Path, BasicFileAttributes> attributes = new LinkedHashMap<Path, BasicFileAttributes>();
+        DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory);
+        try {
+            for (Path file : directoryStream) {
+                BasicFileAttributes fileAttributes = Files.readAttributes(file, BasicFileAttributes.class);
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(BLOB_SUFFIX)) {
+                    files.add(file);
+                    attributes.put(file, fileAttributes);
+                } else if (fileName.endsWith(TEMP_SUFFIX)
+                    && fileAttributes.lastModifiedTime().toMillis() < System.currentTimeMillis() - STALE_TEMP_FILE_MILLIS) {
+                    // left over by a process which did not finish writing
+                    Files.deleteIfExists(file);
+                }
+            }
+        } finally {
+            directoryStream.close();
+        }
+        Collections.sort(files,
+            (file1, file2) -> attributes.get(file1).lastModifiedTime().compareTo(attributes.get(file2).lastModifiedTime()));
+        for (Path file : files) {
+            add(file.getFileName().toString(), attributes.get(file).size(),
+                attributes.get(file).lastModifiedTime().toMillis());
+        }
+    }
+
+    private synchronized void add(String fileName, long size, long touchedMillis) {
+        Entry previousEntry = index.put(fileName, new Entry(size, touchedMillis));
+        totalBytes += size - (previousEntry != null ? previousEntry.size : 0);
+        Iterator<Map.Entry<String, Entry>> iterator = index.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.getValue().size;
+            delete(directory.resolve(eldest.getKey()));
+        }
+    }
+
+    private synchronized void remove(String fileName) {
+        Entry entry = index.remove(fileName);
+        if (entry != null) {
+            totalBytes -= entry.size;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // still mapped (on some platforms) or already deleted; it is not in the index anymore anyway
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String fileName(String key) {
+        return Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString() + BLOB_SUFFIX;
+    }
+
+    private static byte[] header(String key, BinaryResult binaryResult) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream dataOutputStream = new DataOutputStream(header);
+        dataOutputStream.writeInt(FORMAT_VERSION);
+        dataOutputStream.writeUTF(key);
+        dataOutputStream.writeUTF(Strings.nullToEmpty(binaryResult.getContentType()));
+        dataOutputStream.writeBoolean(binaryResult.isBase64());
+        dataOutputStream.flush();
+        return header.toByteArray();
+    }
+
+    /**
+     * @return absent if the file belongs to another key (hash collision) or has an unknown format
+     */
+    private static Optional<BinaryResult> read(Path file, String key) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer headerLength = ByteBuffer.allocate(4);
+            readFully(channel, headerLength, 0);
+            if (headerLength.getInt(0) <= 0 || headerLength.getInt(0) > channel.size() - 4) {
+                return Optional.absent();
+            }
+            ByteBuffer header = ByteBuffer.allocate(headerLength.getInt(0));
+            readFully(channel, header, 4);
+            DataInputStream headerStream = new DataInputStream(new ByteArrayInputStream(header.array()));
+            if (headerStream.readInt() != FORMAT_VERSION || !headerStream.readUTF().equals(key)) {
+                return Optional.absent();
+            }
+            String contentType = headerStream.readUTF();
+            boolean base64 = headerStream.readBoolean();
+
+            long contentStart = 4 + header.capacity();
+            MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, contentStart,
+                channel.size() - contentStart);
+            BinaryResult binaryResult = new ByteBufferBinaryResult(content);
+            binaryResult.setContentType(Strings.emptyToNull(contentType));
+            if (base64) {
+                binaryResult.base64();
+            }
+            return Optional.of(binaryResult);
+        } finally {
+            // the mapping stays valid after the channel is closed
+            channel.close();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated cache file.");
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long size;
+        private long touchedMillis;
+
+        private Entry(long size, long touchedMillis) {
+            this.size = size;
+            this.touchedMillis = touchedMillis;
+        }
+    }
+
+    private static final class ByteBufferBinaryResult extends BinaryResult {
+        private final ByteBuffer content;
+
+        private ByteBufferBinaryResult(ByteBuffer content) {
+            this.content = content;
+            setContentLength(content.remaining());
+        }
+
+        @Override
+        public void writeTo(OutputStream os) throws IOException {
+            ByteBuffer buffer = content.duplicate();
+            WritableByteChannel channel = Channels.newChannel(os);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit for concurrent requests to the Gerrit server (see
+ * {@link GerritRestClient#setConcurrencyLimiter(ConcurrencyLimiter)}), similar to TCP congestion control (AIMD):
+ * the limit grows additively (by about one per "round" of requests at the limit) while requests succeed with normal
+ * latency, and is cut multiplicatively when the server is overloaded (429, 503), when the median latency of recent
+ * requests rises well above its long-term average, or when many requests fail (no response or server error).
+ * Latency and error cuts happen at most once per round, so that a single slow phase does not drain the limit.
+ *
+ * Using the median makes the limiter robust against mixed traffic: a few slow requests (e.g. large queries) between
+ * many fast ones do not count as overload.
+ *
+ * Requests beyond the limit wait in first-come first-served order, at most for the configured maximum wait time.
+ * Latency is measured until the response headers are received; the slot is held until the response body is
+ * consumed or closed.
+ *
+ * @author Urs Wolfer
+ */
+public class ConcurrencyLimiter {
+    private static final double OVERLOAD_BACKOFF_RATIO = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+    // number of recent latencies of which the median is compared with the long-term average
+    private static final int LATENCY_WINDOW = 32;
+    private static final double BASELINE_SMOOTHING = 0.01;
+    private static final double ERROR_RATE_SMOOTHING = 0.02;
+
+    private int minLimit = 1;
+    private int maxLimit = 100;
+    private double latencyTolerance = 2.0;
+    private double maxErrorRate = 0.1;
+    private long maxWaitNanos = TimeUnit.SECONDS.toNanos(60);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Condition> waiters = new ArrayDeque<Condition>();
+    private double limit = 10;
+    private int inFlight;
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyIndex;
+    private int latencyCount;
+    private double baselineLatencyNanos = -1;
+    private double errorRate;
+    private long releasesSinceDecrease;
+
+    /**
+     * @param initialLimit number of concurrent requests allowed at start (default: 10)
+     */
+    public ConcurrencyLimiter withInitialLimit(int initialLimit) {
+        Preconditions.checkArgument(initialLimit > 0, "initialLimit must be positive");
+        this.limit = initialLimit;
+        return this;
+    }
+
+    /**
+     * @param minLimit the limit is never cut below this value (default: 1)
+     * @param maxLimit the limit never grows above this value (default: 100)
+     */
+    public ConcurrencyLimiter withLimitRange(int minLimit, int maxLimit) {
+        Preconditions.checkArgument(minLimit > 0 && minLimit <= maxLimit, "invalid limit range");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    /**
+     * @param latencyTolerance a median latency of recent requests above this factor times its long-term average is
+     *                         considered a sign of overload (default: 2.0)
+     */
+    public ConcurrencyLimiter withLatencyTolerance(double latencyTolerance) {
+        Preconditions.checkArgument(latencyTolerance > 1, "latencyTolerance must be greater than 1");
+        this.latencyTolerance = latencyTolerance;
+        return this;
+    }
+
+    /**
+     * @param maxErrorRate a (smoothed) rate of failed requests above this value is considered a sign of overload
+     *                     (default: 0.1)
+     */
+    public ConcurrencyLimiter withMaxErrorRate(double maxErrorRate) {
+        Preconditions.checkArgument(maxErrorRate > 0 && maxErrorRate < 1, "maxErrorRate must be between 0 and 1");
+        this.maxErrorRate = maxErrorRate;
+        return this;
+    }
+
+    /**
+     * @param maxWait maximum time a request waits for a free slot before it fails (default: 60s)
+     */
+    public ConcurrencyLimiter withMaxWait(long maxWait, TimeUnit timeUnit) {
+        this.maxWaitNanos = timeUnit.toNanos(maxWait);
+        return this;
+    }
+
+    /**
+     * @return current limit of concurrent requests
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of requests currently in flight
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits (in arrival order) until a request may be sent.
+     *
+     * @return false when no slot became free within the maximum wait time
+     */
+    boolean acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (waiters.isEmpty() && inFlight < currentLimit()) {
+                inFlight++;
+                return true;
+            }
+            Condition condition = lock.newCondition();
+            waiters.addLast(condition);
+            try {
+                long remainingNanos = maxWaitNanos;
+                while (waiters.peekFirst() != condition || inFlight >= currentLimit()) {
+                    if (remainingNanos <= 0) {
+                        return false;
+                    }
+                    remainingNanos = condition.awaitNanos(remainingNanos);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                waiters.remove(condition);
+                signalNextWaiter();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the slot of a completed request and adapts the limit.
+     *
+     * @param latencyNanos time until the response was received
+     * @param overloaded whether the server signaled overload (e.g. 429, 503)
+     */
+    void release(long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            inFlight--;
+            releasesSinceDecrease++;
+            if (overloaded) {
+                decreaseLimit(OVERLOAD_BACKOFF_RATIO);
+            } else {
+                errorRate -= errorRate * ERROR_RATE_SMOOTHING;
+                if (isLatencyIncreased(latencyNanos)) {
+                    decreaseLimitOncePerRound();
+                } else if (inFlight + 1 >= currentLimit()) {
+                    // only grow when the limit is actually used
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+            signalNextWaiter();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the slot of a request which failed (without a response or with a server error) and adapts the limit.
+     */
+    void releaseFailed() {
+        lock.lock();
+        try {
+            inFlight--;
+            releasesSinceDecrease++;
+            errorRate += (1 - errorRate) * ERROR_RATE_SMOOTHING;
+            if (errorRate > maxErrorRate) {
+                decreaseLimitOncePerRound();
+            }
+            signalNextWaiter();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the slot of a request which was not sent; the limit is not changed.
+     */
+    void releaseUnused() {
+        lock.lock();
+        try {
+            inFlight--;
+            signalNextWaiter();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decreaseLimit(double ratio) {
+        limit = Math.max(minLimit, limit * ratio);
+        releasesSinceDecrease = 0;
+    }
+
+    private void decreaseLimitOncePerRound() {
+        if (releasesSinceDecrease >= currentLimit()) {
+            decreaseLimit(BACKOFF_RATIO);
+        }
+    }
+
+    /**
+     * Adds the latency to the window of recent latencies and compares their median with its long-term average.
+     */
+    private boolean isLatencyIncreased(long latencyNanos) {
+        latencies[latencyIndex] = latencyNanos;
+        latencyIndex = (latencyIndex + 1) % LATENCY_WINDOW;
+        if (latencyCount < LATENCY_WINDOW) {
+            latencyCount++;
+        }
+        if (latencyCount < LATENCY_WINDOW) {
+            return false;
+        }
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        long median = sorted[LATENCY_WINDOW / 2];
+        if (baselineLatencyNanos < 0) {
+            baselineLatencyNanos = median;
+            return false;
+        }
+        boolean increased = median > baselineLatencyNanos * latencyTolerance;
+        baselineLatencyNanos += (median - baselineLatencyNanos) * BASELINE_SMOOTHING;
+        return increased;
+    }
+
+    private int currentLimit() {
+        return Math.max(minLimit, (int) limit);
+    }
+
+    private void signalNextWaiter() {
+        Condition next = waiters.peekFirst();
+        if (next != null && inFlight < currentLimit()) {
+            next.signal();
+        }
+    }
+
+    /**
+     * Thrown when no slot became free within the maximum wait time.
+     */
+    static final class SlotTimeoutException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        SlotTimeoutException() {
+            super("Too many concurrent requests; timed out waiting for a free slot.");
+        }
+    }
+}
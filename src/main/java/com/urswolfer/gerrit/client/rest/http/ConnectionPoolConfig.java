@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for the long-lived HTTP client which {@link GerritRestClient} uses when it is created with a
+ * connection pool. All requests share one client and TCP / TLS connections are re-used between requests.
+ *
+ * The client owns resources (open connections, eviction thread), so it must be closed when it is not needed
+ * anymore (see {@link com.urswolfer.gerrit.client.rest.GerritRestApi#close()}).
+ *
+ * @author Urs Wolfer
+ */
+public class ConnectionPoolConfig {
+    private int maxTotal = 20;
+    private int maxPerRoute = 10;
+    private long maxIdleTimeMs = TimeUnit.SECONDS.toMillis(30);
+    private long keepAliveMs = TimeUnit.SECONDS.toMillis(30);
+    private long timeToLiveMs = -1;
+
+    /**
+     * Maximum number of open connections (over all routes).
+     */
+    public ConnectionPoolConfig withMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+        return this;
+    }
+
+    /**
+     * Maximum number of open connections per route (i.e. per Gerrit host).
+     */
+    public ConnectionPoolConfig withMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+        return this;
+    }
+
+    /**
+     * Connections which were idle for longer than this time get closed by a background thread.
+     */
+    public ConnectionPoolConfig withMaxIdleTime(long maxIdleTime, TimeUnit timeUnit) {
+        this.maxIdleTimeMs = timeUnit.toMillis(maxIdleTime);
+        return this;
+    }
+
+    /**
+     * How long a connection is kept alive when the server does not send a "Keep-Alive" header. When the server
+     * sends a shorter timeout, the server value is used.
+     */
+    public ConnectionPoolConfig withKeepAlive(long keepAlive, TimeUnit timeUnit) {
+        this.keepAliveMs = timeUnit.toMillis(keepAlive);
+        return this;
+    }
+
+    /**
+     * Total life time of a connection; a negative value means no limit.
+     */
+    public ConnectionPoolConfig withTimeToLive(long timeToLive, TimeUnit timeUnit) {
+        this.timeToLiveMs = timeToLive < 0 ? -1 : timeUnit.toMillis(timeToLive);
+        return this;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public long getMaxIdleTimeMs() {
+        return maxIdleTimeMs;
+    }
+
+    public long getKeepAliveMs() {
+        return keepAliveMs;
+    }
+
+    public long getTimeToLiveMs() {
+        return timeToLiveMs;
+    }
+}
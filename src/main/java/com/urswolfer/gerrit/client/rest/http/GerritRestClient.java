@@ -18,25 +18,39 @@ package com.urswolfer.gerrit.client.rest.http;
 
 import static com.urswolfer.gerrit.client.rest.http.PreemptiveAuthHttpRequestInterceptor.PREEMPTIVE_AUTH;
 import static org.apache.http.HttpStatus.SC_FORBIDDEN;
+import static org.apache.http.HttpStatus.SC_NOT_MODIFIED;
 import static org.apache.http.HttpStatus.SC_OK;
+import static org.apache.http.HttpStatus.SC_UNAUTHORIZED;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
+import com.google.common.base.Strings;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gerrit.extensions.restapi.BinaryResult;
 import com.google.gerrit.extensions.restapi.RestApiException;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.urswolfer.gerrit.client.rest.GerritAuthData;
 import com.urswolfer.gerrit.client.rest.RestClient;
 import com.urswolfer.gerrit.client.rest.gson.GsonFactory;
+import com.urswolfer.gerrit.client.rest.http.util.BinaryResultUtils;
 import org.apache.http.Consts;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
@@ -53,29 +67,52 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.HttpClientUtils;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.EofSensorInputStream;
+import org.apache.http.conn.EofSensorWatcher;
 import org.apache.http.cookie.Cookie;
 import org.apache.http.entity.ContentType;
+import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.client.LaxRedirectStrategy;
+import org.apache.http.impl.execchain.RequestAbortedException;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -83,13 +120,14 @@ import java.util.regex.Pattern;
 /**
  * @author Urs Wolfer
  */
-public class GerritRestClient implements RestClient {
+public class GerritRestClient implements RestClient, Closeable {
 
     private static final String JSON_MIME_TYPE = ContentType.APPLICATION_JSON.getMimeType();
     private static final Pattern GERRIT_AUTH_PATTERN = Pattern.compile(".*?xGerritAuth=\"(.+?)\"");
     private static final int CONNECTION_TIMEOUT_MS = 300000;
     private static final Gson GSON = GsonFactory.create();
     private static final RequestConfig REQUEST_CONFIG = RequestConfig.custom().setNormalizeUri(false).build();
+    private static final int DEFAULT_BACKGROUND_THREADS = 10;
 
     private final GerritAuthData authData;
     private final HttpRequestExecutor httpRequestExecutor;
@@ -98,8 +136,37 @@ public class GerritRestClient implements RestClient {
     private final BasicCookieStore cookieStore;
     private final LoginCache loginCache;
 
+    // only present when connections are pooled; otherwise a new client is built for every request
+    private final Optional<CloseableHttpClient> pooledHttpClient;
+    // credentials provider of the pooled client as returned by HttpClientBuilderExtension#extendCredentialProvider
+    private CredentialsProvider pooledCredentialsProvider;
+    private final ThreadPoolExecutor backgroundExecutor;
+    private final ThreadLocal<Boolean> backgroundThread = ThreadLocal.withInitial(() -> false);
+    private volatile Optional<ResponseCache> responseCache = Optional.absent();
+    private volatile Optional<RevisionCache> revisionCache = Optional.absent();
+    private volatile Optional<BlobCache> blobCache = Optional.absent();
+    private volatile Optional<SingleFlight> singleFlight = Optional.absent();
+    private volatile Optional<RetryPolicy> retryPolicy = Optional.absent();
+    private volatile Optional<ConcurrencyLimiter> concurrencyLimiter = Optional.absent();
+    private volatile Optional<RateLimiter> rateLimiter = Optional.absent();
+    private volatile boolean rateLimiterFailFast;
+    private volatile Optional<HedgingPolicy> hedgingPolicy = Optional.absent();
+    private final AtomicLong retryCount = new AtomicLong();
+
+    public GerritRestClient(GerritAuthData authData,
+                            HttpRequestExecutor httpRequestExecutor,
+                            HttpClientBuilderExtension... httpClientBuilderExtensions) {
+        this(authData, httpRequestExecutor, null, httpClientBuilderExtensions);
+    }
+
+    /**
+     * @param connectionPoolConfig when not null, one long-lived HTTP client with a connection pool is built
+     *                             (and {@code httpClientBuilderExtensions} are applied) once; it is released
+     *                             with {@link #close()}.
+     */
     public GerritRestClient(GerritAuthData authData,
                             HttpRequestExecutor httpRequestExecutor,
+                            ConnectionPoolConfig connectionPoolConfig,
                             HttpClientBuilderExtension... httpClientBuilderExtensions) {
         this.authData = authData;
         this.httpRequestExecutor = httpRequestExecutor;
@@ -107,6 +174,119 @@ public class GerritRestClient implements RestClient {
 
         cookieStore = new BasicCookieStore();
         loginCache = new LoginCache(authData, cookieStore);
+
+        if (connectionPoolConfig != null) {
+            pooledHttpClient = Optional.of(createPooledHttpClient(connectionPoolConfig));
+        } else {
+            pooledHttpClient = Optional.absent();
+        }
+        // more threads than connections per route would only wait for a free connection
+        backgroundExecutor = createBackgroundExecutor(
+            connectionPoolConfig != null ? connectionPoolConfig.getMaxPerRoute() : DEFAULT_BACKGROUND_THREADS);
+    }
+
+    /**
+     * @see LoginCache#setSessionValidity
+     */
+    public void setSessionValidity(long duration, TimeUnit timeUnit) {
+        loginCache.setSessionValidity(duration, timeUnit);
+    }
+
+    /**
+     * Enables a cache for conditional GET requests. JSON responses with an "ETag" or "Last-Modified" header are
+     * cached (separately per user) and revalidated with "If-None-Match" / "If-Modified-Since" on later requests;
+     * when the server answers "304 Not Modified", the cached response is used instead of downloading it again.
+     *
+     * @param maxEntries maximum number of cached responses (least recently used ones are evicted); 0 disables the
+     *                   cache (default)
+     */
+    public void setResponseCacheSize(int maxEntries) {
+        responseCache = maxEntries > 0 ? Optional.of(new ResponseCache(maxEntries)) : Optional.<ResponseCache>absent();
+    }
+
+    /**
+     * Enables a cache for resources which never change once a patch set exists (file list, file content, diff,
+     * commit and patch of a revision). It is only used when the revision is addressed by its full commit SHA.
+     *
+     * @param maxBytes maximum total size of cached responses (least recently used ones are evicted); 0 disables the
+     *                 cache (default)
+     */
+    public void setRevisionCacheSize(long maxBytes) {
+        revisionCache = maxBytes > 0 ? Optional.of(new RevisionCache(maxBytes)) : Optional.<RevisionCache>absent();
+    }
+
+    /**
+     * Hit / miss statistics of the revision cache (see {@link #setRevisionCacheSize(long)}); empty statistics when
+     * the cache is disabled.
+     */
+    public CacheStats getRevisionCacheStats() {
+        Optional<RevisionCache> cache = revisionCache;
+        return cache.isPresent() ? cache.get().stats() : new CacheStats(0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Enables a persistent cache for file content and patches of revisions which are addressed by their full commit
+     * SHA (see {@link #requestBinary(String)}). The cache directory can be shared by several processes.
+     *
+     * @param directory cache directory (created if needed); existing entries are re-used
+     * @param maxBytes maximum total size of cached files (least recently used ones are deleted)
+     */
+    public void setBlobCache(Path directory, long maxBytes) throws IOException {
+        blobCache = Optional.of(new BlobCache(directory, maxBytes));
+    }
+
+    /**
+     * Enables coalescing of identical concurrent GET requests (same path and user): while such a request is in
+     * flight, further identical requests wait for its response instead of sending their own. Disabled by default.
+     */
+    public void setRequestCoalescing(boolean enabled) {
+        singleFlight = enabled ? Optional.of(new SingleFlight()) : Optional.<SingleFlight>absent();
+    }
+
+    /**
+     * Enables retrying of requests which failed with a transient error (see {@link RetryPolicy}). By default,
+     * requests are not retried.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = Optional.fromNullable(retryPolicy);
+    }
+
+    /**
+     * @return total number of retried requests (see {@link #setRetryPolicy(RetryPolicy)})
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * Enables an adaptive limit for concurrent requests to the server (see {@link ConcurrencyLimiter}). By default,
+     * the number of concurrent requests is not limited by this client.
+     */
+    public void setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = Optional.fromNullable(concurrencyLimiter);
+    }
+
+    /**
+     * Paces requests sent to the server (including retries; responses from caches are not limited).
+     *
+     * @param failFast when true, requests which are not allowed immediately fail with an {@link IOException} instead
+     *                 of waiting (e.g. for asynchronous callers which reschedule themselves)
+     * @see TokenBucketRateLimiter
+     */
+    public void setRateLimiter(RateLimiter rateLimiter, boolean failFast) {
+        this.rateLimiterFailFast = failFast;
+        this.rateLimiter = Optional.fromNullable(rateLimiter);
+    }
+
+    /**
+     * Enables hedging of GET requests (see {@link HedgingPolicy}): a slow request is duplicated and the first
+     * response is used. Only possible with a connection pool (see {@link ConnectionPoolConfig}). The threads of the
+     * policy are released by {@link #close()}.
+     */
+    public void setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        Preconditions.checkState(hedgingPolicy == null || pooledHttpClient.isPresent(),
+            "Hedging requires a connection pool.");
+        this.hedgingPolicy = Optional.fromNullable(hedgingPolicy);
     }
 
     @Override
@@ -147,6 +327,152 @@ public class GerritRestClient implements RestClient {
     @Override
     public JsonElement requestJson(String path, String requestBody, HttpVerb verb) throws RestApiException {
         try {
+            if (isSharedRequest(verb)) {
+                JsonElement ret = getRequestShared(path);
+                // the shared tree must not be modified by the caller
+                return ret != null ? ret.deepCopy() : null;
+            }
+            return requestJsonTree(path, requestBody, verb);
+        } catch (IOException e) {
+            throw RestApiException.wrap("Request failed.", e);
+        }
+    }
+
+    private JsonElement requestJsonTree(String path, String requestBody, HttpVerb verb) throws IOException, RestApiException {
+        HttpResponse response = requestRest(path, requestBody, verb);
+
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return null;
+        }
+
+        checkContentType(entity);
+
+        JsonElement ret = parseResponse(entity.getContent());
+        if (ret.isJsonNull()) {
+            throw RestApiException.wrap("Unexpectedly empty response.", null);
+        }
+        return ret;
+    }
+
+    /**
+     * GET requests go through the response cache and / or are coalesced with identical concurrent requests when
+     * enabled; their response tree is shared then.
+     */
+    private boolean isSharedRequest(HttpVerb verb) {
+        return verb == HttpVerb.GET && (responseCache.isPresent() || singleFlight.isPresent());
+    }
+
+    /**
+     * The returned tree may be shared with the response cache or other callers.
+     */
+    private JsonElement getRequestShared(String path) throws IOException, RestApiException {
+        Optional<SingleFlight> coalescing = singleFlight;
+        if (!coalescing.isPresent()) {
+            return getRequestMaybeCached(path);
+        }
+        return coalescing.get().execute(getCacheKey(path), () -> getRequestMaybeCached(path));
+    }
+
+    private JsonElement getRequestMaybeCached(String path) throws IOException, RestApiException {
+        Optional<ResponseCache> cache = responseCache;
+        if (cache.isPresent()) {
+            return getRequestCached(cache.get(), path);
+        }
+        return requestJsonTree(path, null, HttpVerb.GET);
+    }
+
+    /**
+     * Like {@link #getRequestShared(String)}, but the response is only parsed into a tree when it is actually
+     * cached or shared with coalesced callers; otherwise it is streamed into the target type.
+     */
+    private <T> T getRequestShared(String path, Type typeOfT, Gson gson) throws IOException, RestApiException {
+        Optional<SingleFlight> coalescing = singleFlight;
+        if (!coalescing.isPresent()) {
+            return getRequestMaybeCached(path, typeOfT, gson, Optional.<SingleFlight.Flight>absent());
+        }
+        return coalescing.get().execute(getCacheKey(path),
+            flight -> getRequestMaybeCached(path, typeOfT, gson, Optional.of(flight)),
+            jsonElement -> jsonElement != null ? gson.<T>fromJson(jsonElement, typeOfT) : null);
+    }
+
+    private <T> T getRequestMaybeCached(String path, Type typeOfT, Gson gson, Optional<SingleFlight.Flight> flight)
+        throws IOException, RestApiException {
+        Optional<ResponseCache> cache = responseCache;
+        String cacheKey = getCacheKey(path);
+        Optional<ResponseCache.Entry> cachedEntry = cache.isPresent()
+            ? cache.get().get(cacheKey) : Optional.<ResponseCache.Entry>absent();
+        HttpResponse response = requestConditional(path, cachedEntry);
+
+        if (cachedEntry.isPresent() && response.getStatusLine().getStatusCode() == SC_NOT_MODIFIED) {
+            EntityUtils.consumeQuietly(response.getEntity());
+            JsonElement jsonElement = cachedEntry.get().getJsonElement();
+            if (flight.isPresent()) {
+                flight.get().share(jsonElement);
+            }
+            return gson.fromJson(jsonElement, typeOfT);
+        }
+
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            if (flight.isPresent()) {
+                flight.get().share(null);
+            }
+            return null;
+        }
+
+        checkContentType(entity);
+
+        boolean cacheable = cache.isPresent() && ResponseCache.isCacheable(response);
+        boolean shared = flight.isPresent() && flight.get().close();
+        if (!cacheable && !shared) {
+            if (cache.isPresent()) {
+                cache.get().invalidate(cacheKey);
+            }
+            T ret = parseResponse(entity.getContent(), typeOfT, gson);
+            if (ret == null) {
+                throw RestApiException.wrap("Unexpectedly empty response.", null);
+            }
+            return ret;
+        }
+
+        JsonElement jsonElement = parseResponse(entity.getContent());
+        if (jsonElement.isJsonNull()) {
+            throw RestApiException.wrap("Unexpectedly empty response.", null);
+        }
+        if (cache.isPresent()) {
+            cache.get().put(cacheKey, response, jsonElement);
+        }
+        if (shared) {
+            flight.get().share(jsonElement);
+        }
+        return gson.fromJson(jsonElement, typeOfT);
+    }
+
+    @Override
+    public <T> T getRequest(String path, Type typeOfT) throws RestApiException {
+        return requestJson(path, null, HttpVerb.GET, typeOfT);
+    }
+
+    @Override
+    public <T> T requestJson(String path, String requestBody, HttpVerb verb, Type typeOfT) throws RestApiException {
+        return requestJson(path, requestBody, verb, typeOfT, GSON);
+    }
+
+    /**
+     * Like {@link #getRequest(String, Type)}, but parses the response with the given {@link Gson} (e.g. one created
+     * by a {@link com.urswolfer.gerrit.client.rest.http.changes.ChangeInfoProjection}).
+     */
+    public <T> T getRequest(String path, Type typeOfT, Gson gson) throws RestApiException {
+        return requestJson(path, null, HttpVerb.GET, typeOfT, gson);
+    }
+
+    private <T> T requestJson(String path, String requestBody, HttpVerb verb, Type typeOfT, Gson gson)
+        throws RestApiException {
+        try {
+            if (isSharedRequest(verb)) {
+                return getRequestShared(path, typeOfT, gson);
+            }
             HttpResponse response = requestRest(path, requestBody, verb);
 
             HttpEntity entity = response.getEntity();
@@ -156,8 +482,8 @@ public class GerritRestClient implements RestClient {
 
             checkContentType(entity);
 
-            JsonElement ret = parseResponse(entity.getContent());
-            if (ret.isJsonNull()) {
+            T ret = parseResponse(entity.getContent(), typeOfT, gson);
+            if (ret == null) {
                 throw RestApiException.wrap("Unexpectedly empty response.", null);
             }
             return ret;
@@ -166,6 +492,126 @@ public class GerritRestClient implements RestClient {
         }
     }
 
+    /**
+     * Conditional GET: the response tree is taken from the cache when the server answers "304 Not Modified".
+     * The returned tree may be shared with the cache.
+     */
+    private JsonElement getRequestCached(ResponseCache cache, String path) throws IOException, RestApiException {
+        String cacheKey = getCacheKey(path);
+        Optional<ResponseCache.Entry> cachedEntry = cache.get(cacheKey);
+        HttpResponse response = requestConditional(path, cachedEntry);
+
+        if (cachedEntry.isPresent() && response.getStatusLine().getStatusCode() == SC_NOT_MODIFIED) {
+            EntityUtils.consumeQuietly(response.getEntity());
+            return cachedEntry.get().getJsonElement();
+        }
+
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return null;
+        }
+
+        checkContentType(entity);
+
+        JsonElement ret = parseResponse(entity.getContent());
+        if (ret.isJsonNull()) {
+            throw RestApiException.wrap("Unexpectedly empty response.", null);
+        }
+        cache.put(cacheKey, response, ret);
+        return ret;
+    }
+
+    private HttpResponse requestConditional(String path, Optional<ResponseCache.Entry> cachedEntry)
+        throws IOException, HttpStatusException {
+        List<Header> headers = Lists.<Header>newArrayList(new BasicHeader("Accept", JSON_MIME_TYPE));
+        if (cachedEntry.isPresent()) {
+            headers.addAll(cachedEntry.get().getConditionalHeaders());
+        }
+        return request(path, null, HttpVerb.GET, false, headers.toArray(new Header[headers.size()]));
+    }
+
+    @Override
+    public <T> void getRequestArray(String path, Type elementType, Consumer<? super T> consumer)
+        throws RestApiException {
+        requestJsonArray(path, null, HttpVerb.GET, elementType, consumer);
+    }
+
+    /**
+     * Like {@link #getRequestArray(String, Type, Consumer)}, but parses the elements with the given {@link Gson}
+     * (e.g. the one of a {@link com.urswolfer.gerrit.client.rest.http.changes.ChangeInfoProjection}).
+     */
+    public <T> void getRequestArray(String path, Type elementType, Gson gson, Consumer<? super T> consumer)
+        throws RestApiException {
+        requestJsonArray(path, null, HttpVerb.GET, elementType, gson, consumer);
+    }
+
+    @Override
+    public <T> void requestJsonArray(String path, String requestBody, HttpVerb verb, Type elementType,
+                                     Consumer<? super T> consumer) throws RestApiException {
+        requestJsonArray(path, requestBody, verb, elementType, GSON, consumer);
+    }
+
+    private <T> void requestJsonArray(String path, String requestBody, HttpVerb verb, Type elementType, Gson gson,
+                                      Consumer<? super T> consumer) throws RestApiException {
+        try {
+            HttpResponse response = requestRest(path, requestBody, verb);
+
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                throw RestApiException.wrap("Unexpectedly empty response.", null);
+            }
+
+            checkContentType(entity);
+
+            parseResponseArray(entity.getContent(), elementType, gson, consumer);
+        } catch (IOException e) {
+            throw RestApiException.wrap("Request failed.", e);
+        }
+    }
+
+    /**
+     * Executes the (blocking) call on a background thread of this client, so that the caller can overlap a few
+     * requests. When the call fails, the returned future is completed exceptionally with the original exception
+     * (e.g. {@link RestApiException}).
+     *
+     * This is not non-blocking I/O: every call holds one background thread until its response is read, so the
+     * number of concurrent calls is bounded by the threads: the connections per route when a connection pool is
+     * used, 10 otherwise. Further calls are queued.
+     *
+     * When called on a thread of the executor (e.g. from a callback of a returned future or from a call which itself
+     * uses this method), the call is executed immediately on that thread: waiting for calls queued behind the
+     * current one could otherwise block all threads forever.
+     */
+    public <T> CompletableFuture<T> executeInBackground(Callable<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<T>();
+        if (backgroundThread.get()) {
+            complete(future, call);
+        } else {
+            backgroundExecutor.execute(() -> {
+                if (!future.isCancelled()) {
+                    complete(future, call);
+                }
+            });
+        }
+        return future;
+    }
+
+    /**
+     * @return whether the current thread is a background thread of this client, so that
+     * {@link #executeInBackground(Callable)} runs calls immediately on it
+     */
+    public boolean isBackgroundThread() {
+        return backgroundThread.get();
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, Callable<T> call) {
+        try {
+            future.complete(call.call());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+    }
+
     @Override
     public HttpResponse requestRest(String path,
                                     String requestBody,
@@ -189,14 +635,55 @@ public class GerritRestClient implements RestClient {
         return request(path, requestBody, verb, false, headers);
     }
 
+    /**
+     * Executes a GET request for binary content (file content, patches, ...). Served from the blob cache when
+     * enabled (see {@link #setBlobCache(Path, long)}) and the content is cacheable.
+     */
+    public BinaryResult requestBinary(String path) throws IOException, HttpStatusException {
+        Optional<BlobCache> cache = blobCache;
+        if (!cache.isPresent() || !BlobCache.isCacheable(path)) {
+            return BinaryResultUtils.createBinaryResult(request(path, null, HttpVerb.GET));
+        }
+        String cacheKey = getCacheKey(path);
+        Optional<BinaryResult> cachedResult = cache.get().get(cacheKey);
+        if (cachedResult.isPresent()) {
+            return cachedResult.get();
+        }
+        return cache.get().put(cacheKey, request(path, null, HttpVerb.GET));
+    }
+
     private HttpResponse request(String path,
                                  String requestBody,
                                  HttpVerb verb,
                                  boolean isRetry,
                                  Header... headers) throws IOException, HttpStatusException {
+        Optional<RevisionCache> cache = revisionCache;
+        if (verb == HttpVerb.GET && cache.isPresent() && RevisionCache.isImmutable(path)) {
+            String cacheKey = getCacheKey(path);
+            Optional<HttpResponse> cachedResponse = cache.get().get(cacheKey);
+            if (cachedResponse.isPresent()) {
+                return cachedResponse.get();
+            }
+            HttpResponse response = executeRequest(path, requestBody, verb, isRetry, headers);
+            if (response.getStatusLine().getStatusCode() == SC_OK) {
+                response = cache.get().put(cacheKey, response);
+            }
+            return response;
+        }
+        return executeRequest(path, requestBody, verb, isRetry, headers);
+    }
+
+    private HttpResponse executeRequest(String path,
+                                        String requestBody,
+                                        HttpVerb verb,
+                                        boolean isRetry,
+                                        Header... headers) throws IOException, HttpStatusException {
         HttpContext httpContext = new BasicHttpContext();
-        HttpClientBuilder client = getHttpClient(httpContext);
+        // with a pooled client there is no per-request builder; #execute uses the shared client instead
+        HttpClientBuilder client = pooledHttpClient.isPresent() ? null : getHttpClient(httpContext);
+        prepareHttpContext(httpContext);
 
+        long loginGeneration = loginCache.getLoginGeneration();
         Optional<String> gerritAuthOptional = updateGerritAuthWhenRequired(httpContext, client);
 
         String uri = authData.getHost();
@@ -243,11 +730,12 @@ public class GerritRestClient implements RestClient {
         }
 
         method.setConfig(REQUEST_CONFIG);
-        HttpResponse response = httpRequestExecutor.execute(client, method, httpContext);
+        HttpResponse response = executeWithRetries(client, method, httpContext, path, verb);
 
-        if (!isRetry && response.getStatusLine().getStatusCode() == SC_FORBIDDEN && loginCache.getGerritAuthOptional().isPresent()) {
-            // handle expired sessions: try again with a fresh login
-            loginCache.invalidate();
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (!isRetry && (statusCode == SC_FORBIDDEN || statusCode == SC_UNAUTHORIZED) && loginCache.getGerritAuthOptional().isPresent()) {
+            // handle expired sessions: try again with a fresh login (unless another thread did already log in again)
+            loginCache.invalidate(loginGeneration);
             EntityUtils.consumeQuietly(response.getEntity());
             response = requestRest(path, requestBody, verb, true);
         }
@@ -257,6 +745,53 @@ public class GerritRestClient implements RestClient {
         return response;
     }
 
+    private HttpResponse executeWithRetries(HttpClientBuilder client,
+                                            HttpRequestBase method,
+                                            HttpContext httpContext,
+                                            String path,
+                                            HttpVerb verb) throws IOException {
+        Optional<RetryPolicy> policy = retryPolicy;
+        for (int attempt = 1; ; attempt++) {
+            acquireRateLimit(path, verb);
+            Optional<Long> delayMillis;
+            try {
+                HttpResponse response = execute(client, method, httpContext);
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (!policy.isPresent() || !policy.get().isRetryable(statusCode)
+                    || !policy.get().canRetry(verb, path, attempt, policy.get().isUnprocessed(statusCode))) {
+                    return response;
+                }
+                Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+                delayMillis = policy.get().getDelayMillis(attempt, retryAfter != null ? retryAfter.getValue() : null);
+                if (!delayMillis.isPresent()) {
+                    return response;
+                }
+                EntityUtils.consumeQuietly(response.getEntity());
+            } catch (IOException e) {
+                if (!policy.isPresent() || !policy.get().isRetryable(e)
+                    || !policy.get().canRetry(verb, path, attempt, policy.get().isUnprocessed(e))) {
+                    throw e;
+                }
+                delayMillis = policy.get().getDelayMillis(attempt, null);
+            }
+            retryCount.incrementAndGet();
+            try {
+                TimeUnit.MILLISECONDS.sleep(delayMillis.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry request.");
+            }
+            method.reset();
+        }
+    }
+
+    /**
+     * Key for cached responses; they are kept separately per user so that auth contexts never mix.
+     */
+    private String getCacheKey(String path) {
+        return ResponseCache.key(authData.getHost(), Strings.nullToEmpty(authData.getLogin()), path);
+    }
+
     private void setRequestBody(String requestBody, HttpRequestBase method) {
         if (requestBody != null) {
             setRequestBody(requestBody, method, ContentType.APPLICATION_JSON);
@@ -270,6 +805,7 @@ public class GerritRestClient implements RestClient {
     }
 
     private Optional<String> updateGerritAuthWhenRequired(HttpContext httpContext, HttpClientBuilder client) throws IOException, HttpStatusException {
+        long loginGeneration = loginCache.getLoginGeneration();
         if (!loginCache.getHostSupportsGerritAuth()) {
             // We do not need a cookie here since we are sending credentials as HTTP basic / digest header again.
             // In fact cookies could hurt: googlesource.com Gerrit instances block requests which send a magic cookie
@@ -294,18 +830,28 @@ public class GerritRestClient implements RestClient {
 
         Optional<Cookie> gerritAccountCookie = findGerritAccountCookie();
         if (!gerritAccountCookie.isPresent()
-            || gerritAccountCookie.get().isExpired(new Date())
-            || !isSessionValid(client, httpContext)) {
-            return updateGerritAuth(httpContext, client);
+            || gerritAccountCookie.get().isExpired(new Date())) {
+            return updateGerritAuth(httpContext, client, loginGeneration);
+        }
+        // only validate the session from time to time; an expired session results in a 401 / 403 which is
+        // handled in #request by logging in again
+        if (!loginCache.isSessionKnownValid(gerritAccountCookie.get())) {
+            if (!isSessionValid(client, httpContext)) {
+                return updateGerritAuth(httpContext, client, loginGeneration);
+            }
+            loginCache.markSessionValid();
         }
         return loginCache.getGerritAuthOptional();
     }
 
-    private Optional<String> updateGerritAuth(HttpContext httpContext, HttpClientBuilder client) throws IOException, HttpStatusException {
-        Optional<String> gerritAuthOptional = tryGerritHttpAuth(client, httpContext)
-            .or(tryGerritHttpFormAuth(client, httpContext));
-        loginCache.setGerritAuthOptional(gerritAuthOptional);
-        return gerritAuthOptional;
+    /**
+     * Logs in; when multiple threads need to log in at the same time, only one of them does it.
+     */
+    private Optional<String> updateGerritAuth(final HttpContext httpContext,
+                                              final HttpClientBuilder client,
+                                              long loginGeneration) throws IOException, HttpStatusException {
+        return loginCache.login(loginGeneration,
+            () -> tryGerritHttpAuth(client, httpContext).or(tryGerritHttpFormAuth(client, httpContext)));
     }
 
     /**
@@ -322,7 +868,7 @@ public class GerritRestClient implements RestClient {
             new BasicNameValuePair("password", authData.getPassword())
         );
         method.setEntity(new UrlEncodedFormEntity(parameters, Consts.UTF_8));
-        HttpResponse loginResponse = httpRequestExecutor.execute(client, method, httpContext);
+        HttpResponse loginResponse = execute(client, method, httpContext);
         return extractGerritAuth(loginResponse, httpContext);
     }
 
@@ -347,22 +893,28 @@ public class GerritRestClient implements RestClient {
      */
     private Optional<String> tryGerritHttpAuth(HttpClientBuilder client, HttpContext httpContext) throws IOException, HttpStatusException {
         String loginUrl = authData.getHost() + "/login/";
-        HttpResponse loginResponse = httpRequestExecutor.execute(client, new HttpGet(loginUrl), httpContext);
+        HttpResponse loginResponse = execute(client, new HttpGet(loginUrl), httpContext);
         return extractGerritAuth(loginResponse, httpContext);
     }
 
     private Optional<String> extractGerritAuth(HttpResponse loginResponse, HttpContext httpContext) throws IOException, HttpStatusException {
-        checkStatusCodeServerError(loginResponse);
-        if (!loginCache.isGitHubOAuthRequested(httpContext) && loginResponse.getStatusLine().getStatusCode() != HttpStatus.SC_UNAUTHORIZED) {
-            return getXsrfCookie().or(getXsrfFromHtmlBody(loginResponse));
+        try {
+            checkStatusCodeServerError(loginResponse);
+            if (!loginCache.isGitHubOAuthRequested(httpContext) && loginResponse.getStatusLine().getStatusCode() != HttpStatus.SC_UNAUTHORIZED) {
+                return getXsrfCookie().or(getXsrfFromHtmlBody(loginResponse));
+            }
+            return Optional.absent();
+        } finally {
+            // release the connection (back to the pool)
+            EntityUtils.consumeQuietly(loginResponse.getEntity());
         }
-        return Optional.absent();
     }
 
     private boolean isSessionValid(HttpClientBuilder client, HttpContext httpContext) throws IOException {
         String accountsSelfUrl = authData.getHost() + "/accounts/self";
         // HEAD could be used instead when we only support Gerrit >=2.12; https://gerrit-review.googlesource.com/c/80962
-        HttpResponse response = httpRequestExecutor.execute(client, new HttpGet(accountsSelfUrl), httpContext);
+        HttpResponse response = execute(client, new HttpGet(accountsSelfUrl), httpContext);
+        EntityUtils.consumeQuietly(response.getEntity());
         return response.getStatusLine().getStatusCode() == SC_OK;
     }
 
@@ -407,21 +959,158 @@ public class GerritRestClient implements RestClient {
         });
     }
 
-    private HttpClientBuilder getHttpClient(HttpContext httpContext) {
-        HttpClientBuilder client = HttpClients.custom();
+    private HttpResponse execute(final HttpClientBuilder client, final HttpRequestBase method, HttpContext httpContext) throws IOException {
+        Optional<HedgingPolicy> hedging = hedgingPolicy;
+        if (!hedging.isPresent() || !(method instanceof HttpGet) || !pooledHttpClient.isPresent()) {
+            return executeLimited(client, method, httpContext);
+        }
+        final Map<HttpRequestBase, HttpContext> httpContexts = Maps.newConcurrentMap();
+        httpContexts.put(method, httpContext);
+        return hedging.get().execute(method,
+            () -> {
+                HttpGet duplicate = new HttpGet(method.getURI());
+                duplicate.setHeaders(method.getAllHeaders());
+                duplicate.setConfig(method.getConfig());
+                HttpContext duplicateHttpContext = new BasicHttpContext();
+                prepareHttpContext(duplicateHttpContext);
+                httpContexts.put(duplicate, duplicateHttpContext);
+                return duplicate;
+            },
+            request -> executeLimited(client, request, httpContexts.get(request)));
+    }
 
-        client.useSystemProperties(); // see also: com.intellij.util.net.ssl.CertificateManager
+    /**
+     * The slot of the concurrency limiter is held until the response entity is consumed or closed (like the
+     * connection of a pooled client), so that the limit also covers the time spent transferring the response.
+     */
+    private HttpResponse executeLimited(HttpClientBuilder client, HttpRequestBase method, HttpContext httpContext) throws IOException {
+        final Optional<ConcurrencyLimiter> limiter = concurrencyLimiter;
+        if (!limiter.isPresent()) {
+            return executeUnlimited(client, method, httpContext);
+        }
+        acquire(limiter.get());
+        if (method.isAborted()) {
+            // e.g. the losing request of a hedged pair which waited for a slot
+            limiter.get().releaseUnused();
+            throw new RequestAbortedException("Request aborted");
+        }
+        long startNanos = System.nanoTime();
+        HttpResponse response;
+        try {
+            response = executeUnlimited(client, method, httpContext);
+        } catch (IOException | RuntimeException e) {
+            limiter.get().releaseFailed();
+            throw e;
+        }
+        final long latencyNanos = System.nanoTime() - startNanos;
+        final int statusCode = response.getStatusLine().getStatusCode();
+        Runnable release = () -> {
+            if (statusCode == HttpStatus.SC_INTERNAL_SERVER_ERROR || statusCode == HttpStatus.SC_BAD_GATEWAY
+                || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT) {
+                limiter.get().releaseFailed();
+            } else {
+                limiter.get().release(latencyNanos,
+                    statusCode == HttpStatus.SC_TOO_MANY_REQUESTS || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE);
+            }
+        };
+        HttpEntity entity = response.getEntity();
+        if (entity == null || !entity.isStreaming()) {
+            release.run();
+        } else {
+            response.setEntity(new ReleasingHttpEntity(entity, release));
+        }
+        return response;
+    }
 
-        // we need to get redirected result after login (which is done with POST) for extracting xGerritAuth
-        client.setRedirectStrategy(new LaxRedirectStrategy());
+    private void acquireRateLimit(String path, HttpVerb verb) throws IOException {
+        Optional<RateLimiter> limiter = rateLimiter;
+        if (!limiter.isPresent()) {
+            return;
+        }
+        if (rateLimiterFailFast) {
+            if (!limiter.get().tryAcquire(path, verb)) {
+                throw new IOException("Rate limit exceeded for request: " + path);
+            }
+            return;
+        }
+        try {
+            limiter.get().acquire(path, verb);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for rate limit.");
+        }
+    }
+
+    private static void acquire(ConcurrencyLimiter limiter) throws IOException {
+        try {
+            if (!limiter.acquire()) {
+                throw new ConcurrencyLimiter.SlotTimeoutException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a free request slot.");
+        }
+    }
+
+    private HttpResponse executeUnlimited(HttpClientBuilder client, HttpRequestBase method, HttpContext httpContext) throws IOException {
+        if (pooledHttpClient.isPresent()) {
+            return httpRequestExecutor.execute(pooledHttpClient.get(), method, httpContext);
+        }
+        return httpRequestExecutor.execute(client, method, httpContext);
+    }
+
+    /**
+     * Releases the pooled HTTP client (if any) and the threads used for background and hedged requests. Requests
+     * are not possible anymore afterwards when a connection pool is used.
+     */
+    @Override
+    public void close() {
+        backgroundExecutor.shutdown();
+        if (hedgingPolicy.isPresent()) {
+            hedgingPolicy.get().close();
+        }
+        if (pooledHttpClient.isPresent()) {
+            HttpClientUtils.closeQuietly(pooledHttpClient.get());
+        }
+    }
 
+    private ThreadPoolExecutor createBackgroundExecutor(int threads) {
+        ThreadFactory threadFactory = runnable -> new Thread(() -> {
+            backgroundThread.set(true);
+            runnable.run();
+        });
+        // threads are only started when background requests are used and stop again when they are idle
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder().setNameFormat("gerrit-rest-client-%d").setDaemon(true)
+                .setThreadFactory(threadFactory).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private void prepareHttpContext(HttpContext httpContext) {
         httpContext.setAttribute(HttpClientContext.COOKIE_STORE, cookieStore);
 
-        RequestConfig.Builder requestConfig = RequestConfig.custom()
-                .setConnectTimeout(CONNECTION_TIMEOUT_MS) // how long it takes to connect to remote host
-                .setSocketTimeout(CONNECTION_TIMEOUT_MS) // how long it takes to retrieve data from remote host
-                .setConnectionRequestTimeout(CONNECTION_TIMEOUT_MS);
-        client.setDefaultRequestConfig(requestConfig.build());
+        if (authData.isLoginAndPasswordAvailable()) {
+            BasicScheme basicAuth = new BasicScheme();
+            httpContext.setAttribute(PREEMPTIVE_AUTH, basicAuth);
+        }
+
+        if (pooledHttpClient.isPresent()) {
+            // credentials are set per request (and not per client) so that the "only once" handling works
+            // and changed GerritAuthData settings are picked up; credentials of extensions (e.g. for a proxy) are
+            // taken from the extended provider of the pooled client
+            CredentialsProvider credentialsProvider = getCredentialsProvider(pooledCredentialsProvider);
+            if (authData.isLoginAndPasswordAvailable()) {
+                credentialsProvider.setCredentials(AuthScope.ANY,
+                    new UsernamePasswordCredentials(authData.getLogin(), authData.getPassword()));
+            }
+            httpContext.setAttribute(HttpClientContext.CREDS_PROVIDER, credentialsProvider);
+        }
+    }
+
+    private HttpClientBuilder getHttpClient(HttpContext httpContext) {
+        HttpClientBuilder client = createHttpClientBuilder();
 
         CredentialsProvider credentialsProvider = getCredentialsProvider();
         client.setDefaultCredentialsProvider(credentialsProvider);
@@ -430,8 +1119,6 @@ public class GerritRestClient implements RestClient {
             credentialsProvider.setCredentials(AuthScope.ANY,
                     new UsernamePasswordCredentials(authData.getLogin(), authData.getPassword()));
 
-            BasicScheme basicAuth = new BasicScheme();
-            httpContext.setAttribute(PREEMPTIVE_AUTH, basicAuth);
             client.addInterceptorFirst(new PreemptiveAuthHttpRequestInterceptor(authData));
         }
 
@@ -445,10 +1132,64 @@ public class GerritRestClient implements RestClient {
         return client;
     }
 
+    private CloseableHttpClient createPooledHttpClient(final ConnectionPoolConfig connectionPoolConfig) {
+        HttpClientBuilder client = createHttpClientBuilder();
+
+        // HttpClientBuilder sets up a PoolingHttpClientConnectionManager itself. This way, SSL settings done by
+        // HttpClientBuilderExtension (or system properties) are still respected.
+        client.setMaxConnTotal(connectionPoolConfig.getMaxTotal());
+        client.setMaxConnPerRoute(connectionPoolConfig.getMaxPerRoute());
+        client.setConnectionTimeToLive(connectionPoolConfig.getTimeToLiveMs(), TimeUnit.MILLISECONDS);
+        client.evictExpiredConnections();
+        client.evictIdleConnections(connectionPoolConfig.getMaxIdleTimeMs(), TimeUnit.MILLISECONDS);
+        client.setKeepAliveStrategy(new ConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                if (serverKeepAlive > 0) {
+                    return Math.min(serverKeepAlive, connectionPoolConfig.getKeepAliveMs());
+                }
+                return connectionPoolConfig.getKeepAliveMs();
+            }
+        });
+
+        // credentials are provided per request (see #prepareHttpContext); the interceptor only sends them when
+        // GerritAuthData provides a login
+        CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+        client.setDefaultCredentialsProvider(credentialsProvider);
+        client.addInterceptorFirst(new PreemptiveAuthHttpRequestInterceptor(authData));
+        client.addInterceptorLast(new UserAgentHttpRequestInterceptor());
+
+        for (HttpClientBuilderExtension httpClientBuilderExtension : httpClientBuilderExtensions) {
+            client = httpClientBuilderExtension.extend(client, authData);
+            credentialsProvider = httpClientBuilderExtension.extendCredentialProvider(client, credentialsProvider, authData);
+        }
+        pooledCredentialsProvider = credentialsProvider;
+
+        return client.build();
+    }
+
+    private HttpClientBuilder createHttpClientBuilder() {
+        HttpClientBuilder client = HttpClients.custom();
+
+        client.useSystemProperties(); // see also: com.intellij.util.net.ssl.CertificateManager
+
+        // we need to get redirected result after login (which is done with POST) for extracting xGerritAuth
+        client.setRedirectStrategy(new LaxRedirectStrategy());
+
+        RequestConfig.Builder requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECTION_TIMEOUT_MS) // how long it takes to connect to remote host
+                .setSocketTimeout(CONNECTION_TIMEOUT_MS) // how long it takes to retrieve data from remote host
+                .setConnectionRequestTimeout(CONNECTION_TIMEOUT_MS);
+        client.setDefaultRequestConfig(requestConfig.build());
+
+        return client;
+    }
+
     /**
      * With this impl, it only returns the same credentials once. Otherwise it's possible that a loop will occur.
      * When server returns status code 401, the HTTP client provides the same credentials forever.
-     * Since we create a new HTTP client for every request, we can handle it this way.
+     * Since we create a new credentials provider for every request, we can handle it this way.
      */
     private BasicCredentialsProvider getCredentialsProvider() {
         return new BasicCredentialsProvider() {
@@ -465,6 +1206,26 @@ public class GerritRestClient implements RestClient {
         };
     }
 
+    /**
+     * Like {@link #getCredentialsProvider()}, but credentials of the extended provider take precedence (as they do
+     * when extensions add them to a per-request client).
+     */
+    private BasicCredentialsProvider getCredentialsProvider(final CredentialsProvider extendedProvider) {
+        return new BasicCredentialsProvider() {
+            private Set<AuthScope> authAlreadyTried = Sets.newHashSet();
+
+            @Override
+            public Credentials getCredentials(AuthScope authscope) {
+                if (authAlreadyTried.contains(authscope)) {
+                    return null;
+                }
+                authAlreadyTried.add(authscope);
+                Credentials credentials = extendedProvider.getCredentials(authscope);
+                return credentials != null ? credentials : super.getCredentials(authscope);
+            }
+        };
+    }
+
     private JsonElement parseResponse(InputStream response) throws IOException {
         Reader reader = new InputStreamReader(response, Consts.UTF_8);
         try {
@@ -476,6 +1237,51 @@ public class GerritRestClient implements RestClient {
         }
     }
 
+    private <T> T parseResponse(InputStream response, Type typeOfT, Gson gson) throws IOException {
+        Reader reader = new InputStreamReader(response, Consts.UTF_8);
+        try {
+            return gson.fromJson(createJsonReader(reader), typeOfT);
+        } catch (JsonSyntaxException | JsonIOException e) {
+            throw new IOException(String.format("Couldn't parse response: %n%s", CharStreams.toString(reader)), e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private <T> void parseResponseArray(InputStream response, Type elementType, Gson gson,
+                                        Consumer<? super T> consumer) throws IOException {
+        Reader reader = new InputStreamReader(response, Consts.UTF_8);
+        try {
+            JsonReader jsonReader = createJsonReader(reader);
+            if (jsonReader.peek() == JsonToken.BEGIN_OBJECT) {
+                // same fallback as ChangeInfosParser: a single object is handled like an array with one element
+                T element = gson.fromJson(jsonReader, elementType);
+                consumer.accept(element);
+                return;
+            }
+            if (jsonReader.peek() != JsonToken.BEGIN_ARRAY) {
+                throw new IOException(String.format("Expected JSON array but got %s.", jsonReader.peek()));
+            }
+            jsonReader.beginArray();
+            while (jsonReader.hasNext()) {
+                T element = gson.fromJson(jsonReader, elementType);
+                consumer.accept(element);
+            }
+            jsonReader.endArray();
+        } catch (JsonSyntaxException | JsonIOException e) {
+            throw new IOException("Couldn't parse response.", e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static JsonReader createJsonReader(Reader reader) {
+        JsonReader jsonReader = new JsonReader(reader);
+        // lenient mode skips the ")]}'" prefix Gerrit adds to all JSON responses (XSSI protection)
+        jsonReader.setStrictness(Strictness.LENIENT);
+        return jsonReader;
+    }
+
     /**
      * @throws HttpStatusException on any error (client 4xx and server 5xx).
      */
@@ -525,4 +1331,55 @@ public class GerritRestClient implements RestClient {
                 contentType.getValue(), EntityUtils.toString(entity).trim()), null);
         }
     }
+
+    /**
+     * Runs the release action once, when the content stream is closed or fully read, or the content is written out.
+     */
+    private static final class ReleasingHttpEntity extends HttpEntityWrapper {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final Runnable release;
+
+        private ReleasingHttpEntity(HttpEntity entity, Runnable release) {
+            super(entity);
+            this.release = release;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new EofSensorInputStream(super.getContent(), new EofSensorWatcher() {
+                @Override
+                public boolean eofDetected(InputStream wrapped) {
+                    release();
+                    return true;
+                }
+
+                @Override
+                public boolean streamClosed(InputStream wrapped) {
+                    release();
+                    return true;
+                }
+
+                @Override
+                public boolean streamAbort(InputStream wrapped) {
+                    release();
+                    return true;
+                }
+            });
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            try {
+                super.writeTo(outStream);
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                release.run();
+            }
+        }
+    }
 }
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.HttpClientUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedging of GET requests (see {@link GerritRestClient#setHedgingPolicy(HedgingPolicy)}) to cut tail latency: when
+ * a request did not get a response within a delay (a percentile of recently observed latencies), a duplicate is
+ * sent. The first response wins and the other request is aborted.
+ *
+ * A budget limits the additional load: only a fraction of requests may be hedged. Attempts still count against the
+ * connection pool and the concurrency limiter of the client; they run on a bounded set of threads, which is released
+ * by {@link #close()} (called by {@link GerritRestClient#close()}).
+ *
+ * @author Urs Wolfer
+ */
+public class HedgingPolicy implements Closeable {
+    private static final int LATENCY_SAMPLES = 512;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final int PERCENTILE_UPDATE_INTERVAL = 32;
+    private static final double MAX_BUDGET_CREDIT = 10;
+
+    private double percentile = 95;
+    private long minDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+    private double budgetRatio = 0.05;
+
+    private final long[] latencySamples = new long[LATENCY_SAMPLES];
+    private int latencySampleCount;
+    private int nextLatencySample;
+    private long hedgeDelayNanos = -1;
+    private double budgetCredit;
+
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+
+    // threads are only started when needed; when all are busy, requests are sent without hedging
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(0, 64, 60, TimeUnit.SECONDS,
+        new SynchronousQueue<Runnable>(),
+        new ThreadFactoryBuilder().setNameFormat("gerrit-rest-client-hedge-%d").setDaemon(true).build());
+
+    interface Attempt {
+        HttpResponse execute(HttpRequestBase request) throws IOException;
+    }
+
+    /**
+     * @param percentile a duplicate request is sent when there is no response after this percentile of recent
+     *                   latencies (default: 95)
+     */
+    public HedgingPolicy withDelayPercentile(double percentile) {
+        Preconditions.checkArgument(percentile > 0 && percentile < 100, "percentile must be between 0 and 100");
+        this.percentile = percentile;
+        return this;
+    }
+
+    /**
+     * @param minDelay duplicate requests are never sent earlier (default: 10ms)
+     */
+    public HedgingPolicy withMinDelay(long minDelay, TimeUnit timeUnit) {
+        this.minDelayNanos = timeUnit.toNanos(minDelay);
+        return this;
+    }
+
+    /**
+     * @param budgetRatio maximum ratio of requests which are hedged (default: 0.05)
+     */
+    public HedgingPolicy withBudget(double budgetRatio) {
+        Preconditions.checkArgument(budgetRatio >= 0 && budgetRatio <= 1, "budgetRatio must be between 0 and 1");
+        this.budgetRatio = budgetRatio;
+        return this;
+    }
+
+    /**
+     * @param maxThreads maximum number of concurrent attempts (original and duplicate requests); further requests
+     *                   are sent without hedging (default: 64)
+     */
+    public HedgingPolicy withMaxThreads(int maxThreads) {
+        Preconditions.checkArgument(maxThreads > 0, "maxThreads must be positive");
+        executor.setMaximumPoolSize(maxThreads);
+        return this;
+    }
+
+    /**
+     * @return number of duplicate requests sent
+     */
+    public long getHedgesSent() {
+        return hedgesSent.get();
+    }
+
+    /**
+     * @return number of duplicate requests whose response was used
+     */
+    public long getHedgesWon() {
+        return hedgesWon.get();
+    }
+
+    /**
+     * Executes the request; a duplicate (created by the supplier) is sent when the response takes too long.
+     */
+    HttpResponse execute(HttpRequestBase request, Supplier<HttpRequestBase> duplicate, Attempt attempt) throws IOException {
+        Optional<Long> delayNanos = addRequestAndGetDelay();
+        if (!delayNanos.isPresent()) {
+            return executeAndRecord(request, attempt);
+        }
+
+        Results results = new Results();
+        if (!submit(request, attempt, results)) {
+            return executeAndRecord(request, attempt);
+        }
+        HttpRequestBase hedgeRequest = null;
+        try {
+            Result result = results.poll(delayNanos.get(), TimeUnit.NANOSECONDS);
+            if (result != null) {
+                return result.get();
+            }
+            if (!tryUseBudget()) {
+                return results.take().get();
+            }
+            hedgeRequest = duplicate.get();
+            if (!submit(hedgeRequest, attempt, results)) {
+                return results.take().get();
+            }
+            hedgesSent.incrementAndGet();
+            result = results.take();
+            if (result.exception != null) {
+                // the other request might still succeed
+                Result otherResult = results.take();
+                result = otherResult.exception == null ? otherResult : result;
+            }
+            if (result.request == hedgeRequest && result.exception == null) {
+                hedgesWon.incrementAndGet();
+            }
+            abortLoser(result.request == request ? hedgeRequest : request, results);
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            request.abort();
+            if (hedgeRequest != null) {
+                hedgeRequest.abort();
+            }
+            results.close();
+            throw new InterruptedIOException("Interrupted while waiting for response.");
+        }
+    }
+
+    private HttpResponse executeAndRecord(HttpRequestBase request, Attempt attempt) throws IOException {
+        long startNanos = System.nanoTime();
+        HttpResponse response = attempt.execute(request);
+        recordLatency(System.nanoTime() - startNanos);
+        return response;
+    }
+
+    /**
+     * @return false when all threads are busy (or the policy was closed)
+     */
+    private boolean submit(final HttpRequestBase request, final Attempt attempt, final Results results) {
+        try {
+            executor.execute(() -> {
+                try {
+                    results.add(new Result(request, executeAndRecord(request, attempt), null));
+                } catch (IOException | RuntimeException e) {
+                    results.add(new Result(request, null, e));
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stops the threads once running attempts are completed; afterwards, requests are sent without hedging.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Aborts the request which did not win; its response is closed if it was already received. A loser still waiting
+     * for a slot of the concurrency limiter gives up the slot once it gets it.
+     */
+    private static void abortLoser(HttpRequestBase loser, Results results) {
+        loser.abort();
+        results.close();
+    }
+
+    private synchronized Optional<Long> addRequestAndGetDelay() {
+        budgetCredit = Math.min(MAX_BUDGET_CREDIT, budgetCredit + budgetRatio);
+        if (hedgeDelayNanos < 0) {
+            return Optional.absent();
+        }
+        return Optional.of(Math.max(minDelayNanos, hedgeDelayNanos));
+    }
+
+    private synchronized boolean tryUseBudget() {
+        if (budgetCredit < 1) {
+            return false;
+        }
+        budgetCredit -= 1;
+        return true;
+    }
+
+    private synchronized void recordLatency(long latencyNanos) {
+        latencySamples[nextLatencySample] = latencyNanos;
+        nextLatencySample = (nextLatencySample + 1) % LATENCY_SAMPLES;
+        latencySampleCount = Math.min(LATENCY_SAMPLES, latencySampleCount + 1);
+        if (latencySampleCount >= MIN_LATENCY_SAMPLES
+            && (hedgeDelayNanos < 0 || nextLatencySample % PERCENTILE_UPDATE_INTERVAL == 0)) {
+            long[] sortedSamples = Arrays.copyOf(latencySamples, latencySampleCount);
+            Arrays.sort(sortedSamples);
+            int index = (int) Math.ceil(percentile / 100 * sortedSamples.length) - 1;
+            hedgeDelayNanos = sortedSamples[Math.max(0, index)];
+        }
+    }
+
+    /**
+     * Results of the attempts in order of completion. Once closed, responses of further attempts are discarded.
+     */
+    private static final class Results {
+        private final BlockingQueue<Result> queue = new LinkedBlockingQueue<Result>();
+        private boolean closed;
+
+        private synchronized void add(Result result) {
+            if (closed) {
+                result.discard();
+            } else {
+                queue.add(result);
+            }
+        }
+
+        private Result poll(long timeout, TimeUnit timeUnit) throws InterruptedException {
+            return queue.poll(timeout, timeUnit);
+        }
+
+        private Result take() throws InterruptedException {
+            return queue.take();
+        }
+
+        private synchronized void close() {
+            closed = true;
+            Result result;
+            while ((result = queue.poll()) != null) {
+                result.discard();
+            }
+        }
+    }
+
+    private static final class Result {
+        private final HttpRequestBase request;
+        private final HttpResponse response;
+        private final Exception exception;
+
+        private Result(HttpRequestBase request, HttpResponse response, Exception exception) {
+            this.request = request;
+            this.response = response;
+            this.exception = exception;
+        }
+
+        private void discard() {
+            if (response != null) {
+                HttpClientUtils.closeQuietly(response);
+            }
+        }
+
+        private HttpResponse get() throws IOException {
+            if (exception instanceof IOException) {
+                throw (IOException) exception;
+            }
+            if (exception != null) {
+                throw (RuntimeException) exception;
+            }
+            return response;
+        }
+    }
+}
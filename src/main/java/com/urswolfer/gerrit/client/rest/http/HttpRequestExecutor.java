@@ -17,6 +17,7 @@
 package com.urswolfer.gerrit.client.rest.http;
 
 import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpRequestBase;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.protocol.HttpContext;
@@ -33,4 +34,12 @@ public class HttpRequestExecutor {
     public HttpResponse execute(HttpClientBuilder client, HttpRequestBase method, HttpContext context) throws IOException {
         return client.build().execute(method, context);
     }
+
+    /**
+     * Used instead of {@link #execute(HttpClientBuilder, HttpRequestBase, HttpContext)} when the HTTP client is
+     * long-lived and shared between requests (see {@link ConnectionPoolConfig}).
+     */
+    public HttpResponse execute(HttpClient client, HttpRequestBase method, HttpContext context) throws IOException {
+        return client.execute(method, context);
+    }
 }
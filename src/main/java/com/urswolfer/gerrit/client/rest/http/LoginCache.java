@@ -16,53 +16,149 @@
 
 package com.urswolfer.gerrit.client.rest.http;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
+import com.google.common.base.Ticker;
 import com.urswolfer.gerrit.client.rest.GerritAuthData;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.cookie.Cookie;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.protocol.HttpCoreContext;
 
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
+ * Caches login information (Gerrit-Auth session) for a {@link GerritRestClient}.
+ *
+ * This class is safe for concurrent use: the login state is an immutable snapshot which is published through an
+ * {@link AtomicReference}, so reading it never blocks. Only (re-)login is serialized (see {@link #login}), so that
+ * concurrent callers do not all log in at the same time.
+ *
  * @author Urs Wolfer
  */
 public class LoginCache {
+    private static final long DEFAULT_SESSION_VALIDITY_NANOS = TimeUnit.MINUTES.toNanos(5);
+
     private final BasicCookieStore cookieStore;
     private final GerritAuthData authData;
-    private boolean githubOAuthDetected;
+    private final Ticker ticker;
+    private final Object loginLock = new Object();
+    private final AtomicReference<State> state = new AtomicReference<State>(State.INITIAL);
 
-    private Optional<String> gerritAuthOptional = Optional.absent();
-    // remember when host does not support gerrit-auth login method so we don't have to try again
-    private boolean hostSupportsGerritAuth = true;
-    private String lastConnection;
+    private volatile boolean githubOAuthDetected;
+    private volatile long sessionValidityNanos = DEFAULT_SESSION_VALIDITY_NANOS;
 
     public LoginCache(GerritAuthData authData, BasicCookieStore cookieStore) {
+        this(authData, cookieStore, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    LoginCache(GerritAuthData authData, BasicCookieStore cookieStore, Ticker ticker) {
         this.authData = authData;
         this.cookieStore = cookieStore;
+        this.ticker = ticker;
     }
 
     public void setGerritAuthOptional(Optional<String> gerritAuthOptional) {
-        this.gerritAuthOptional = gerritAuthOptional;
-        this.hostSupportsGerritAuth = gerritAuthOptional.isPresent();
+        State current;
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, current.withLoginResult(gerritAuthOptional, sessionValidUntil())));
+    }
+
+    /**
+     * Performs the login unless another thread completed a login since {@code loginGeneration} was read (see
+     * {@link #getLoginGeneration()}); in that case its result is returned. Only one thread logs in at a time;
+     * concurrent callers wait for its result instead of starting their own login.
+     */
+    public Optional<String> login(long loginGeneration, Login login) throws IOException, HttpStatusException {
+        synchronized (loginLock) {
+            State current = currentState();
+            if (current.generation != loginGeneration && current.loginDone) {
+                return current.gerritAuthOptional;
+            }
+            Optional<String> gerritAuthOptional = login.login();
+            setGerritAuthOptional(gerritAuthOptional);
+            return gerritAuthOptional;
+        }
+    }
+
+    /**
+     * The generation changes on every login and invalidation. It allows detecting whether another thread changed
+     * the login state in the meantime.
+     */
+    public long getLoginGeneration() {
+        return currentState().generation;
+    }
+
+    /**
+     * How long a session is trusted after it got validated (or after login) before it is validated again with an
+     * additional request. An expired session is detected anyway by the failing request (which triggers a new
+     * login), so this only limits how long a stale session might cause one failing request. Zero disables caching.
+     */
+    public void setSessionValidity(long duration, TimeUnit timeUnit) {
+        sessionValidityNanos = timeUnit.toNanos(duration);
+        State current;
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, current.withSessionValidUntil(Optional.<Long>absent())));
+    }
+
+    /**
+     * @return true when the session with this cookie is still known to be valid, i.e. it does not need to be
+     * validated with an additional request.
+     */
+    public boolean isSessionKnownValid(Cookie gerritAccountCookie) {
+        Optional<Long> sessionValidUntil = currentState().sessionValidUntilNanos;
+        if (!sessionValidUntil.isPresent() || gerritAccountCookie.isExpired(new Date())) {
+            return false;
+        }
+        return ticker.read() - sessionValidUntil.get() < 0;
+    }
+
+    public void markSessionValid() {
+        State current;
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, current.withSessionValidUntil(sessionValidUntil())));
     }
 
     public Optional<String> getGerritAuthOptional() {
-        invalidateLoginDataOnNewSettings();
-        return gerritAuthOptional;
+        return currentState().gerritAuthOptional;
     }
 
     public boolean getHostSupportsGerritAuth() {
-        invalidateLoginDataOnNewSettings();
-        return hostSupportsGerritAuth;
+        return currentState().hostSupportsGerritAuth;
     }
 
     public void invalidate() {
-        lastConnection = null;
-        gerritAuthOptional = Optional.absent();
-        hostSupportsGerritAuth = true;
+        State current;
+        do {
+            current = state.get();
+        } while (!state.compareAndSet(current, current.invalidated(current.lastConnection)));
         cookieStore.clear();
     }
 
+    /**
+     * Invalidates the login state only when it was not changed since {@code loginGeneration} was read. This way,
+     * a fresh login of another thread is not thrown away because of a request which used an older session.
+     *
+     * @return true when invalidated
+     */
+    public boolean invalidate(long loginGeneration) {
+        State current = state.get();
+        if (current.generation != loginGeneration
+            || !state.compareAndSet(current, current.invalidated(current.lastConnection))) {
+            return false;
+        }
+        cookieStore.clear();
+        return true;
+    }
+
     public boolean isGithubOAuthDetected() {
         return githubOAuthDetected;
     }
@@ -72,16 +168,79 @@ public class LoginCache {
         return githubOAuthDetected || (githubOAuthDetected = (lastRequest != null && lastRequest.getURI().getPath().contains("github-plugin")));
     }
 
+    private Optional<Long> sessionValidUntil() {
+        long validity = sessionValidityNanos;
+        if (validity <= 0) {
+            return Optional.absent();
+        }
+        return Optional.of(ticker.read() + validity);
+    }
+
     /**
      * GerritAuthData can change at runtime (when getters are implemented dynamically so they return e.g. application
      * settings. So let's check if we can re-use cached login data. Resetting them on any config change.
-     * Any getter-call in this class must call this method first.
+     * Any getter-call in this class must use this method for reading the state.
      */
-    private void invalidateLoginDataOnNewSettings() {
+    private State currentState() {
         String authDataString = "" + authData.getHost() + authData.getLogin() + authData.getPassword();
-        if (!authDataString.equals(lastConnection)) {
-            invalidate();
-            lastConnection = authDataString;
+        while (true) {
+            State current = state.get();
+            if (authDataString.equals(current.lastConnection)) {
+                return current;
+            }
+            State invalidated = current.invalidated(authDataString);
+            if (state.compareAndSet(current, invalidated)) {
+                cookieStore.clear();
+                return invalidated;
+            }
+        }
+    }
+
+    /**
+     * Performs the actual login.
+     */
+    public interface Login {
+        Optional<String> login() throws IOException, HttpStatusException;
+    }
+
+    /**
+     * Immutable snapshot of the login state.
+     */
+    private static final class State {
+        static final State INITIAL = new State(null, Optional.<String>absent(), true, false, Optional.<Long>absent(), 0);
+
+        final String lastConnection;
+        final Optional<String> gerritAuthOptional;
+        // remember when host does not support gerrit-auth login method so we don't have to try again
+        final boolean hostSupportsGerritAuth;
+        final boolean loginDone;
+        // a successfully validated session (or fresh login) is trusted until then (in Ticker time)
+        final Optional<Long> sessionValidUntilNanos;
+        final long generation;
+
+        State(String lastConnection, Optional<String> gerritAuthOptional, boolean hostSupportsGerritAuth,
+              boolean loginDone, Optional<Long> sessionValidUntilNanos, long generation) {
+            this.lastConnection = lastConnection;
+            this.gerritAuthOptional = gerritAuthOptional;
+            this.hostSupportsGerritAuth = hostSupportsGerritAuth;
+            this.loginDone = loginDone;
+            this.sessionValidUntilNanos = sessionValidUntilNanos;
+            this.generation = generation;
+        }
+
+        State withLoginResult(Optional<String> gerritAuthOptional, Optional<Long> sessionValidUntilNanos) {
+            // we just logged in, no need to check the session again right away
+            return new State(lastConnection, gerritAuthOptional, gerritAuthOptional.isPresent(), true,
+                gerritAuthOptional.isPresent() ? sessionValidUntilNanos : Optional.<Long>absent(), generation + 1);
+        }
+
+        State withSessionValidUntil(Optional<Long> sessionValidUntilNanos) {
+            return new State(lastConnection, gerritAuthOptional, hostSupportsGerritAuth, loginDone,
+                sessionValidUntilNanos, generation);
+        }
+
+        State invalidated(String lastConnection) {
+            return new State(lastConnection, Optional.<String>absent(), true, false, Optional.<Long>absent(), generation + 1);
         }
     }
 }
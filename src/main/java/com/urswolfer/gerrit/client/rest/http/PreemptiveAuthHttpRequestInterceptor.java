@@ -38,11 +38,16 @@ class PreemptiveAuthHttpRequestInterceptor implements HttpRequestInterceptor {
             return;
         }
 
+        // a pooled (shared) client has this interceptor always installed; only act when a login is available
+        AuthScheme authScheme = (AuthScheme) context.getAttribute(PREEMPTIVE_AUTH);
+        if (authScheme == null) {
+            return;
+        }
+
         AuthState authState = (AuthState) context.getAttribute(HttpClientContext.TARGET_AUTH_STATE);
 
         // if no auth scheme available yet, try to initialize it preemptively
         if (authState.getAuthScheme() == null) {
-            AuthScheme authScheme = (AuthScheme) context.getAttribute(PREEMPTIVE_AUTH);
             UsernamePasswordCredentials creds = new UsernamePasswordCredentials(authData.getLogin(), authData.getPassword());
             authState.update(authScheme, creds);
         }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.urswolfer.gerrit.client.rest.RestClient.HttpVerb;
+
+/**
+ * Paces the requests of {@link GerritRestClient} (see {@link GerritRestClient#setRateLimiter(RateLimiter, boolean)}).
+ * Implementations must be thread-safe.
+ *
+ * @author Urs Wolfer
+ * @see TokenBucketRateLimiter
+ */
+public interface RateLimiter {
+    /**
+     * Blocks until the request may be sent.
+     */
+    void acquire(String path, HttpVerb verb) throws InterruptedException;
+
+    /**
+     * Non-blocking variant of {@link #acquire(String, HttpVerb)}.
+     *
+     * @return whether the request may be sent now (permits are only taken if so)
+     */
+    boolean tryAcquire(String path, HttpVerb verb);
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.JsonElement;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.message.BasicHeader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Size-bounded cache of JSON responses for conditional GET requests. Responses with an "ETag" or "Last-Modified"
+ * header are kept together with these validators; later requests to the same URL send "If-None-Match" /
+ * "If-Modified-Since" and the cached response is used when the server answers "304 Not Modified".
+ *
+ * Cached trees are never handed out to callers directly; they must be copied or bound to a new object.
+ *
+ * @author Urs Wolfer
+ */
+class ResponseCache {
+    private final Cache<String, Entry> cache;
+
+    ResponseCache(int maxEntries) {
+        cache = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+    }
+
+    /**
+     * @param user entries are separated per user so that responses are never shared between auth contexts
+     */
+    static String key(String host, String user, String path) {
+        return host + '\n' + user + '\n' + path;
+    }
+
+    Optional<Entry> get(String key) {
+        return Optional.fromNullable(cache.getIfPresent(key));
+    }
+
+    /**
+     * @return whether the response has validators, i.e. is stored by {@link #put(String, HttpResponse, JsonElement)}
+     */
+    static boolean isCacheable(HttpResponse response) {
+        return response.containsHeader(HttpHeaders.ETAG) || response.containsHeader(HttpHeaders.LAST_MODIFIED);
+    }
+
+    void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * Stores the response when it has validators; otherwise a previous entry for the key is removed.
+     */
+    void put(String key, HttpResponse response, JsonElement jsonElement) {
+        if (!isCacheable(response)) {
+            cache.invalidate(key);
+            return;
+        }
+        Header eTag = response.getFirstHeader(HttpHeaders.ETAG);
+        Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+        cache.put(key, new Entry(
+            eTag != null ? eTag.getValue() : null,
+            lastModified != null ? lastModified.getValue() : null,
+            jsonElement));
+    }
+
+    static final class Entry {
+        private final String eTag;
+        private final String lastModified;
+        private final JsonElement jsonElement;
+
+        private Entry(String eTag, String lastModified, JsonElement jsonElement) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.jsonElement = jsonElement;
+        }
+
+        JsonElement getJsonElement() {
+            return jsonElement;
+        }
+
+        List<Header> getConditionalHeaders() {
+            List<Header> headers = new ArrayList<Header>(2);
+            if (eTag != null) {
+                headers.add(new BasicHeader(HttpHeaders.IF_NONE_MATCH, eTag));
+            }
+            if (lastModified != null) {
+                headers.add(new BasicHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified));
+            }
+            return headers;
+        }
+    }
+}
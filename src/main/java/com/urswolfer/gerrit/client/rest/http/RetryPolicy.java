@@ -0,0 +1,236 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.urswolfer.gerrit.client.rest.RestClient.HttpVerb;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Defines when failed requests are retried (see {@link GerritRestClient#setRetryPolicy(RetryPolicy)}): on I/O errors
+ * (e.g. connection reset) and on transient HTTP status codes (by default 429, 502, 503 and 504).
+ *
+ * Requests which the server did not process are always safe to retry: the connection could not be established, or
+ * the server rejected the request (by default with 429 or 503, see {@link #withUnprocessedStatusCodes(Integer...)}).
+ * Other failures are only retried for idempotent requests unless {@link #withNonIdempotentRequests(boolean)} is
+ * enabled: GET requests, and PUT and DELETE requests to paths which are known to be idempotent (see
+ * {@link #withIdempotentRequests(HttpVerb, String)}). Other PUT and DELETE requests are not retried, because Gerrit
+ * answers a replayed creation (e.g. {@code PUT /projects/{name}}) with "409 Conflict" and a replayed deletion with
+ * "404 Not Found"; a POST request may have been applied when a gateway answers 502 or 504.
+ *
+ * The wait time between attempts grows exponentially (with random jitter so that many clients do not retry at the
+ * same time); a "Retry-After" header of the server is respected.
+ *
+ * @author Urs Wolfer
+ */
+public class RetryPolicy {
+    private static final Set<HttpVerb> IDEMPOTENT_VERBS = EnumSet.of(HttpVerb.GET);
+    // PUT requests which set a property to the same value when replayed
+    private static final List<String> IDEMPOTENT_PUT_PATHS = ImmutableList.of(
+        "/changes/[^/]+/(topic|message|edit:message)",
+        "/changes/[^/]+/edit/.+",
+        "/changes/[^/]+/revisions/[^/]+/reviewed/.+",
+        "/projects/[^/]+/(description|parent|HEAD|config)",
+        "/groups/[^/]+/(description|options|owner)",
+        "/accounts/[^/]+/(name|status|displayname|preferences|preferences\\.diff|preferences\\.edit)",
+        "/accounts/[^/]+/starred\\.changes/[^/]+");
+
+    private int maxAttempts = 3;
+    private long initialBackoffMillis = 200;
+    private long maxBackoffMillis = TimeUnit.SECONDS.toMillis(10);
+    private boolean nonIdempotentRequests;
+    private Set<Integer> retryableStatusCodes = ImmutableSet.of(429, 502, 503, 504);
+    private Set<Integer> unprocessedStatusCodes = ImmutableSet.of(429, 503);
+    private final ListMultimap<HttpVerb, Pattern> idempotentPaths = ArrayListMultimap.create();
+
+    public RetryPolicy() {
+        for (String path : IDEMPOTENT_PUT_PATHS) {
+            withIdempotentRequests(HttpVerb.PUT, path);
+        }
+    }
+
+    /**
+     * @param maxAttempts maximum number of attempts, including the first one (default: 3)
+     */
+    public RetryPolicy withMaxAttempts(int maxAttempts) {
+        Preconditions.checkArgument(maxAttempts > 0, "maxAttempts must be positive");
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * @param initialBackoff wait time before the first retry; doubled for every further retry (default: 200ms)
+     */
+    public RetryPolicy withInitialBackoff(long initialBackoff, TimeUnit timeUnit) {
+        Preconditions.checkArgument(initialBackoff >= 0, "initialBackoff must not be negative");
+        this.initialBackoffMillis = timeUnit.toMillis(initialBackoff);
+        return this;
+    }
+
+    /**
+     * @param maxBackoff maximum wait time between attempts; the request is not retried when the server asks to
+     *                   wait longer with "Retry-After" (default: 10s)
+     */
+    public RetryPolicy withMaxBackoff(long maxBackoff, TimeUnit timeUnit) {
+        Preconditions.checkArgument(maxBackoff >= 0, "maxBackoff must not be negative");
+        this.maxBackoffMillis = timeUnit.toMillis(maxBackoff);
+        return this;
+    }
+
+    /**
+     * @param nonIdempotentRequests whether POST requests are retried too; they might be applied twice then
+     *                              (default: false)
+     */
+    public RetryPolicy withNonIdempotentRequests(boolean nonIdempotentRequests) {
+        this.nonIdempotentRequests = nonIdempotentRequests;
+        return this;
+    }
+
+    /**
+     * Allows retrying further PUT or DELETE requests, e.g. deletions where a "404 Not Found" on replay is fine.
+     *
+     * @param verb PUT or DELETE (PUT also covers PUT_TEXT_PLAIN)
+     * @param pathPattern regular expression for the whole path, without query (e.g. "/changes/[^/]+/topic")
+     */
+    public RetryPolicy withIdempotentRequests(HttpVerb verb, String pathPattern) {
+        Preconditions.checkArgument(verb == HttpVerb.PUT || verb == HttpVerb.DELETE, "verb must be PUT or DELETE");
+        idempotentPaths.put(verb, Pattern.compile(pathPattern));
+        return this;
+    }
+
+    /**
+     * @param statusCodes HTTP status codes which are retried (default: 429, 502, 503, 504)
+     */
+    public RetryPolicy withRetryableStatusCodes(Integer... statusCodes) {
+        this.retryableStatusCodes = ImmutableSet.copyOf(statusCodes);
+        return this;
+    }
+
+    /**
+     * @param statusCodes retryable HTTP status codes with which the server rejects a request without processing it
+     *                    (e.g. when overloaded); such requests are retried even when they are not idempotent
+     *                    (default: 429, 503)
+     */
+    public RetryPolicy withUnprocessedStatusCodes(Integer... statusCodes) {
+        this.unprocessedStatusCodes = ImmutableSet.copyOf(statusCodes);
+        return this;
+    }
+
+    /**
+     * @param attempt number of the failed attempt (starting with 1)
+     */
+    boolean canRetry(HttpVerb verb, String path, int attempt) {
+        return canRetry(verb, path, attempt, false);
+    }
+
+    /**
+     * @param attempt number of the failed attempt (starting with 1)
+     * @param unprocessed whether the failure shows that the server did not process the request (see
+     *                    {@link #isUnprocessed(int)} and {@link #isUnprocessed(IOException)})
+     */
+    boolean canRetry(HttpVerb verb, String path, int attempt, boolean unprocessed) {
+        return attempt < maxAttempts && (unprocessed || nonIdempotentRequests || isIdempotent(verb, path));
+    }
+
+    private boolean isIdempotent(HttpVerb verb, String path) {
+        if (IDEMPOTENT_VERBS.contains(verb)) {
+            return true;
+        }
+        String pathWithoutQuery = path.split("\\?", 2)[0];
+        for (Pattern pattern : idempotentPaths.get(verb == HttpVerb.PUT_TEXT_PLAIN ? HttpVerb.PUT : verb)) {
+            if (pattern.matcher(pathWithoutQuery).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isRetryable(int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+
+    boolean isUnprocessed(int statusCode) {
+        return unprocessedStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * @return whether the request was not sent because no connection could be established
+     */
+    boolean isUnprocessed(IOException e) {
+        return e instanceof ConnectException || e instanceof ConnectTimeoutException;
+    }
+
+    boolean isRetryable(IOException e) {
+        // these do not go away by trying again
+        if (e instanceof UnknownHostException || e instanceof SSLException) {
+            return false;
+        }
+        // interrupted or gave up waiting on the client side (e.g. for a free slot of the concurrency limiter);
+        // only socket timeouts are worth another attempt
+        if (e instanceof InterruptedIOException) {
+            return e instanceof SocketTimeoutException || e instanceof ConnectTimeoutException;
+        }
+        return !(e instanceof ConcurrencyLimiter.SlotTimeoutException);
+    }
+
+    /**
+     * @param attempt number of the failed attempt (starting with 1)
+     * @param retryAfter value of the "Retry-After" header (seconds or HTTP date), if any
+     * @return wait time before the next attempt; absent when the server asks to wait longer than the max backoff
+     */
+    Optional<Long> getDelayMillis(int attempt, String retryAfter) {
+        long backoffMillis = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 30));
+        long delayMillis = backoffMillis / 2 + ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+        if (retryAfter != null) {
+            long retryAfterMillis = parseRetryAfterMillis(retryAfter.trim());
+            if (retryAfterMillis > maxBackoffMillis) {
+                return Optional.absent();
+            }
+            delayMillis = Math.max(delayMillis, retryAfterMillis);
+        }
+        return Optional.of(delayMillis);
+    }
+
+    private static long parseRetryAfterMillis(String retryAfter) {
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter));
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(retryAfter);
+            return date != null ? Math.max(0, date.getTime() - System.currentTimeMillis()) : 0;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Cache for responses of resources which never change once a patch set exists: file list, file content, diff,
+ * commit and patch of a revision. Only requests which address the revision by its full commit SHA are cached
+ * (never "current" or a patch set number, which point to different revisions over time).
+ *
+ * Responses are kept as bytes; the cache is bounded by their total size and evicts least recently used entries.
+ *
+ * @author Urs Wolfer
+ */
+class RevisionCache {
+    private static final Pattern IMMUTABLE_REVISION_RESOURCE = Pattern.compile(
+        "/changes/[^/?]+/revisions/(?:[0-9a-fA-F]{40}|[0-9a-fA-F]{64})/" +
+            "(?:files/?(?:\\?(?:parent|base)=[^&]*)?" + // not "?reviewed", which changes
+            "|files/[^/?]+/(?:content|diff)(?:\\?.*)?" +
+            "|commit(?:\\?links)?" +
+            "|patch(?:\\?.*)?)");
+
+    private final Cache<String, CachedResponse> cache;
+
+    RevisionCache(long maxBytes) {
+        cache = CacheBuilder.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, CachedResponse value) -> key.length() + value.content.length)
+            .recordStats()
+            .build();
+    }
+
+    static boolean isImmutable(String path) {
+        return IMMUTABLE_REVISION_RESOURCE.matcher(path).matches();
+    }
+
+    Optional<HttpResponse> get(String key) {
+        CachedResponse cachedResponse = cache.getIfPresent(key);
+        return cachedResponse != null ? Optional.of(cachedResponse.toHttpResponse()) : Optional.<HttpResponse>absent();
+    }
+
+    /**
+     * Reads the response content into the cache.
+     *
+     * @return a response which can be consumed instead of the given one (its content was already read)
+     */
+    HttpResponse put(String key, HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        byte[] content = entity != null ? EntityUtils.toByteArray(entity) : new byte[0];
+        CachedResponse cachedResponse = new CachedResponse(response.getStatusLine(), response.getAllHeaders(),
+            content, entity != null ? entity.getContentType() : null);
+        cache.put(key, cachedResponse);
+        return cachedResponse.toHttpResponse();
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static final class CachedResponse {
+        private final StatusLine statusLine;
+        private final Header[] headers;
+        private final byte[] content;
+        private final Header contentType;
+
+        private CachedResponse(StatusLine statusLine, Header[] headers, byte[] content, Header contentType) {
+            this.statusLine = statusLine;
+            this.headers = headers;
+            this.content = content;
+            this.contentType = contentType;
+        }
+
+        private HttpResponse toHttpResponse() {
+            BasicHttpResponse response = new BasicHttpResponse(statusLine);
+            response.setHeaders(headers);
+            ByteArrayEntity entity = new ByteArrayEntity(content);
+            entity.setContentType(contentType);
+            response.setEntity(entity);
+            return response;
+        }
+    }
+}
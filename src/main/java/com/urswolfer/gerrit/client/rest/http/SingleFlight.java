@@ -0,0 +1,152 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.gerrit.extensions.restapi.RestApiException;
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Coalesces identical concurrent requests: while a request for a key is in flight, further requests for the same key
+ * wait for its result instead of sending their own. Nothing is kept after the request completed.
+ *
+ * The result is shared between all callers as a JSON tree and must not be modified. Requests which can be parsed
+ * without a tree ({@link #execute(String, StreamingRequest, Function)}) close their {@link Flight} before parsing
+ * and only build the tree when callers actually joined.
+ *
+ * @author Urs Wolfer
+ */
+class SingleFlight {
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<String, Flight>();
+
+    interface Request {
+        JsonElement execute() throws IOException, RestApiException;
+    }
+
+    interface StreamingRequest<T> {
+        /**
+         * Must call {@link Flight#close()} before the response is parsed, and {@link Flight#share(JsonElement)} when
+         * callers joined.
+         */
+        T execute(Flight flight) throws IOException, RestApiException;
+    }
+
+    /**
+     * A request in flight which further callers may join until it is closed.
+     */
+    final class Flight {
+        private final String key;
+        private final CompletableFuture<JsonElement> result = new CompletableFuture<JsonElement>();
+        private boolean closed;
+        private int followers;
+
+        private Flight(String key) {
+            this.key = key;
+        }
+
+        private synchronized boolean join() {
+            if (closed) {
+                return false;
+            }
+            followers++;
+            return true;
+        }
+
+        /**
+         * Stops further callers from joining; they send their own request instead.
+         *
+         * @return whether callers joined, which then wait for {@link #share(JsonElement)}
+         */
+        synchronized boolean close() {
+            closed = true;
+            inFlight.remove(key, this);
+            return followers > 0;
+        }
+
+        void share(JsonElement jsonElement) {
+            result.complete(jsonElement);
+        }
+    }
+
+    JsonElement execute(String key, Request request) throws IOException, RestApiException {
+        return execute(key, flight -> {
+            JsonElement result = request.execute();
+            flight.share(result);
+            return result;
+        }, jsonElement -> jsonElement);
+    }
+
+    /**
+     * @param fromShared converts the result shared by another caller
+     */
+    <T> T execute(String key, StreamingRequest<T> request, Function<JsonElement, T> fromShared)
+        throws IOException, RestApiException {
+        while (true) {
+            Flight flight = new Flight(key);
+            Flight runningFlight = inFlight.putIfAbsent(key, flight);
+            if (runningFlight == null) {
+                return execute(flight, request);
+            }
+            if (runningFlight.join()) {
+                return fromShared.apply(await(runningFlight.result));
+            }
+            // the running request does not share its result anymore
+        }
+    }
+
+    private static <T> T execute(Flight flight, StreamingRequest<T> request) throws IOException, RestApiException {
+        try {
+            return request.execute(flight);
+        } catch (IOException | RestApiException | RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (flight.close()) {
+                // no-op when the result was shared
+                flight.result.completeExceptionally(new IllegalStateException("Result of request was not shared."));
+            }
+        }
+    }
+
+    private static JsonElement await(CompletableFuture<JsonElement> future) throws IOException, RestApiException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for identical request.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RestApiException) {
+                throw (RestApiException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+}
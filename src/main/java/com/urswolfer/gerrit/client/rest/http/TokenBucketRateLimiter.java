@@ -0,0 +1,201 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.urswolfer.gerrit.client.rest.RestClient.HttpVerb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * {@link RateLimiter} with token buckets: one for reading (GET) and one for writing (all other verbs) requests,
+ * and optionally further buckets for families of endpoints (e.g. posting reviews). A request takes one token from
+ * its read / write bucket and from every endpoint bucket whose pattern matches its path. Buckets refill at their
+ * rate and allow bursts up to their capacity.
+ *
+ * @author Urs Wolfer
+ */
+public class TokenBucketRateLimiter implements RateLimiter {
+    private final Ticker ticker;
+    private Optional<Bucket> readBucket = Optional.absent();
+    private Optional<Bucket> writeBucket = Optional.absent();
+    private final List<EndpointBucket> endpointBuckets = new ArrayList<EndpointBucket>();
+
+    private long waitCount;
+    private long totalWaitNanos;
+    private long rejectedCount;
+
+    public TokenBucketRateLimiter() {
+        this(Ticker.systemTicker());
+    }
+
+    TokenBucketRateLimiter(Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * @param permitsPerSecond rate of GET requests
+     * @param burst maximum number of GET requests which can be sent at once after idling
+     */
+    public synchronized TokenBucketRateLimiter withReadRate(double permitsPerSecond, int burst) {
+        readBucket = Optional.of(new Bucket(permitsPerSecond, burst, ticker.read()));
+        return this;
+    }
+
+    /**
+     * @param permitsPerSecond rate of mutating (POST, PUT, DELETE) requests
+     * @param burst maximum number of mutating requests which can be sent at once after idling
+     */
+    public synchronized TokenBucketRateLimiter withWriteRate(double permitsPerSecond, int burst) {
+        writeBucket = Optional.of(new Bucket(permitsPerSecond, burst, ticker.read()));
+        return this;
+    }
+
+    /**
+     * Adds a bucket for a family of endpoints, e.g. {@code "/changes/[^/]+/revisions/[^/]+/review"}.
+     *
+     * @param pathPattern regular expression which must match the beginning of the request path
+     */
+    public synchronized TokenBucketRateLimiter withEndpointRate(String pathPattern, double permitsPerSecond, int burst) {
+        endpointBuckets.add(new EndpointBucket(Pattern.compile(pathPattern),
+            new Bucket(permitsPerSecond, burst, ticker.read())));
+        return this;
+    }
+
+    @Override
+    public void acquire(String path, HttpVerb verb) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = ticker.read();
+            waitNanos = 0;
+            for (Bucket bucket : getBuckets(path, verb)) {
+                waitNanos = Math.max(waitNanos, bucket.reserve(now));
+            }
+            if (waitNanos > 0) {
+                waitCount++;
+                totalWaitNanos += waitNanos;
+            }
+        }
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+
+    @Override
+    public synchronized boolean tryAcquire(String path, HttpVerb verb) {
+        long now = ticker.read();
+        List<Bucket> buckets = getBuckets(path, verb);
+        for (Bucket bucket : buckets) {
+            if (!bucket.hasToken(now)) {
+                rejectedCount++;
+                return false;
+            }
+        }
+        for (Bucket bucket : buckets) {
+            bucket.reserve(now);
+        }
+        return true;
+    }
+
+    /**
+     * @return number of requests which had to wait in {@link #acquire(String, HttpVerb)}
+     */
+    public synchronized long getWaitCount() {
+        return waitCount;
+    }
+
+    /**
+     * @return total time requests waited in {@link #acquire(String, HttpVerb)}
+     */
+    public synchronized long getTotalWaitTime(TimeUnit timeUnit) {
+        return timeUnit.convert(totalWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return number of requests rejected by {@link #tryAcquire(String, HttpVerb)}
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    private List<Bucket> getBuckets(String path, HttpVerb verb) {
+        List<Bucket> buckets = new ArrayList<Bucket>(1 + endpointBuckets.size());
+        Optional<Bucket> verbBucket = verb == HttpVerb.GET ? readBucket : writeBucket;
+        if (verbBucket.isPresent()) {
+            buckets.add(verbBucket.get());
+        }
+        for (EndpointBucket endpointBucket : endpointBuckets) {
+            if (endpointBucket.pathPattern.matcher(path).lookingAt()) {
+                buckets.add(endpointBucket.bucket);
+            }
+        }
+        return buckets;
+    }
+
+    private static final class EndpointBucket {
+        private final Pattern pathPattern;
+        private final Bucket bucket;
+
+        private EndpointBucket(Pattern pathPattern, Bucket bucket) {
+            this.pathPattern = pathPattern;
+            this.bucket = bucket;
+        }
+    }
+
+    /**
+     * Not thread-safe; guarded by the limiter.
+     */
+    private static final class Bucket {
+        private final double permitsPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefillNanos;
+
+        private Bucket(double permitsPerSecond, int burst, long nowNanos) {
+            Preconditions.checkArgument(permitsPerSecond > 0, "permitsPerSecond must be positive");
+            Preconditions.checkArgument(burst > 0, "burst must be positive");
+            this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = burst;
+            this.tokens = burst;
+            this.lastRefillNanos = nowNanos;
+        }
+
+        private boolean hasToken(long nowNanos) {
+            refill(nowNanos);
+            return tokens >= 1;
+        }
+
+        /**
+         * Takes a token, even when the bucket is empty (later requests wait longer then).
+         *
+         * @return time until the token is actually available
+         */
+        private long reserve(long nowNanos) {
+            refill(nowNanos);
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+        }
+
+        private void refill(long nowNanos) {
+            tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
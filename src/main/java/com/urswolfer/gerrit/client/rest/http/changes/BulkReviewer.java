@@ -0,0 +1,187 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.gerrit.extensions.api.changes.ReviewInput;
+import com.google.gerrit.extensions.api.changes.ReviewResult;
+import com.google.gerrit.extensions.restapi.RestApiException;
+import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Posts reviews (votes, comments, ...) to many revisions concurrently. Every item is posted independently; the
+ * result of each item (review result or error) is reported in {@link #review(List)}.
+ *
+ * Retries and pacing are those of the {@link GerritRestClient} which posts the reviews: failed requests are retried
+ * according to its {@link com.urswolfer.gerrit.client.rest.http.RetryPolicy} (reviews are not idempotent, so only
+ * when the server certainly did not apply them, e.g. on 429 or 503, but not on 502 or 504 where a gateway may answer
+ * after Gerrit has applied the review) and the request rate is limited by its
+ * {@link com.urswolfer.gerrit.client.rest.http.RateLimiter} (e.g. with
+ * {@link com.urswolfer.gerrit.client.rest.http.TokenBucketRateLimiter#withWriteRate(double, int)}).
+ *
+ * @author Urs Wolfer
+ */
+public class BulkReviewer {
+    private final GerritRestClient gerritRestClient;
+    private final ChangesRestClient changesRestClient;
+
+    private int parallelism = 4;
+
+    BulkReviewer(GerritRestClient gerritRestClient, ChangesRestClient changesRestClient) {
+        this.gerritRestClient = gerritRestClient;
+        this.changesRestClient = changesRestClient;
+    }
+
+    /**
+     * @param parallelism maximum number of concurrent requests (default: 4)
+     */
+    public BulkReviewer withParallelism(int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Posts all reviews. The calling thread takes part in posting; further requests run on the background threads of
+     * {@link GerritRestClient} (and share its session).
+     *
+     * @return the results in the order of the items
+     * @throws RestApiException only when interrupted; failures of single items are reported in their result
+     */
+    public List<ItemResult> review(final List<Item> items) throws RestApiException {
+        final ItemResult[] results = new ItemResult[items.size()];
+        final AtomicInteger nextIndex = new AtomicInteger();
+        final AtomicBoolean stopped = new AtomicBoolean();
+        Callable<Void> worker = () -> {
+            int index;
+            while (!stopped.get() && (index = nextIndex.getAndIncrement()) < items.size()) {
+                results[index] = review(items.get(index));
+            }
+            return null;
+        };
+
+        int workerCount = Math.min(parallelism, items.size());
+        List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 1; i < workerCount; i++) {
+            futures.add(gerritRestClient.executeInBackground(worker));
+        }
+        try {
+            if (workerCount > 0) {
+                worker.call();
+            }
+            for (CompletableFuture<Void> future : futures) {
+                future.get();
+            }
+            return Arrays.asList(results);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw RestApiException.wrap("Interrupted while posting reviews.", e);
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            Throwables.throwIfUnchecked(cause);
+            throw RestApiException.wrap("Failed to post reviews.", (Exception) cause);
+        } finally {
+            // the other workers do not take further items when the caller stops waiting for them
+            stopped.set(true);
+            for (CompletableFuture<Void> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private ItemResult review(Item item) {
+        try {
+            ReviewResult reviewResult = changesRestClient.id(item.changeId).revision(item.revisionId)
+                .review(item.reviewInput);
+            return new ItemResult(item, reviewResult, null);
+        } catch (RestApiException e) {
+            return new ItemResult(item, null, e);
+        } catch (RuntimeException e) {
+            // e.g. an unexpected response; must not abort the other items
+            return new ItemResult(item, null, RestApiException.wrap("Failed to post review.", e));
+        }
+    }
+
+    /**
+     * A review to post to a revision.
+     */
+    public static final class Item {
+        private final String changeId;
+        private final String revisionId;
+        private final ReviewInput reviewInput;
+
+        public Item(String changeId, String revisionId, ReviewInput reviewInput) {
+            this.changeId = changeId;
+            this.revisionId = revisionId;
+            this.reviewInput = reviewInput;
+        }
+
+        public String getChangeId() {
+            return changeId;
+        }
+
+        public String getRevisionId() {
+            return revisionId;
+        }
+
+        public ReviewInput getReviewInput() {
+            return reviewInput;
+        }
+    }
+
+    /**
+     * Outcome of posting the review of an {@link Item}.
+     */
+    public static final class ItemResult {
+        private final Item item;
+        private final ReviewResult reviewResult;
+        private final RestApiException error;
+
+        private ItemResult(Item item, ReviewResult reviewResult, RestApiException error) {
+            this.item = item;
+            this.reviewResult = reviewResult;
+            this.error = error;
+        }
+
+        public Item getItem() {
+            return item;
+        }
+
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        public Optional<ReviewResult> getReviewResult() {
+            return Optional.fromNullable(reviewResult);
+        }
+
+        public Optional<RestApiException> getError() {
+            return Optional.fromNullable(error);
+        }
+    }
+}
@@ -32,6 +32,7 @@ import com.urswolfer.gerrit.client.rest.http.config.parsers.ServerConfigParser;
 import com.urswolfer.gerrit.client.rest.http.util.UrlUtils;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @author Urs Wolfer
@@ -53,6 +54,29 @@ public class ChangeApiRestClient extends ChangeApi.NotImplemented implements Cha
     private final String id;
     private final ServerRestClient serverRestClient;
 
+    /**
+     * @deprecated Creates its own {@link ServerRestClient}, so the server version is not shared with other clients.
+     * Use the constructor which takes the shared {@link ServerRestClient} instead.
+     */
+    @Deprecated
+    public ChangeApiRestClient(GerritRestClient gerritRestClient,
+                               ChangesRestClient changesRestClient,
+                               ChangeInfosParser changeInfosParser,
+                               CommentsParser commentsParser,
+                               FileInfoParser fileInfoParser,
+                               ReviewResultParser reviewResultParser,
+                               ReviewerInfosParser reviewerInfosParser,
+                               CommitInfosParser commitInfosParser,
+                               AccountsParser accountsParser,
+                               MergeableInfoParser mergeableInfoParser,
+                               ReviewInfoParser reviewInfoParser,
+                               ServerConfigParser serverConfigParser,
+                               String id) {
+        this(gerritRestClient, changesRestClient, changeInfosParser, commentsParser, fileInfoParser,
+            reviewResultParser, reviewerInfosParser, commitInfosParser, accountsParser, mergeableInfoParser,
+            reviewInfoParser, serverConfigParser, new ServerRestClient(gerritRestClient, serverConfigParser), id);
+    }
+
     public ChangeApiRestClient(GerritRestClient gerritRestClient,
                                ChangesRestClient changesRestClient,
                                ChangeInfosParser changeInfosParser,
@@ -65,6 +89,7 @@ public class ChangeApiRestClient extends ChangeApi.NotImplemented implements Cha
                                MergeableInfoParser mergeableInfoParser,
                                ReviewInfoParser reviewInfoParser,
                                ServerConfigParser serverConfigParser,
+                               ServerRestClient serverRestClient,
                                String id) {
         this.gerritRestClient = gerritRestClient;
         this.changesRestClient = changesRestClient;
@@ -79,7 +104,7 @@ public class ChangeApiRestClient extends ChangeApi.NotImplemented implements Cha
         this.reviewInfoParser = reviewInfoParser;
         this.serverConfigParser = serverConfigParser;
         this.id = id;
-        this.serverRestClient = new ServerRestClient(gerritRestClient,serverConfigParser);
+        this.serverRestClient = serverRestClient;
     }
 
     @Override
@@ -163,6 +188,7 @@ public class ChangeApiRestClient extends ChangeApi.NotImplemented implements Cha
             mergeableInfoParser,
             reviewInfoParser,
             serverConfigParser,
+            serverRestClient,
             newChangeInfo.id);
     }
 
@@ -270,6 +296,67 @@ public class ChangeApiRestClient extends ChangeApi.NotImplemented implements Cha
 
     @Override
     public ChangeInfo get(EnumSet<ListChangesOption> options) throws RestApiException {
+        ChangeFetchListener listener = getFetchListener();
+        long start = System.nanoTime();
+        ChangeInfo changeInfo = gerritRestClient.getRequest(getUrl(options), ChangeInfo.class);
+        if (listener != null) {
+            listener.onFetch(ChangeFetch.of(getCallSite(), options, System.nanoTime() - start, changeInfo));
+        }
+        return changeInfo;
+    }
+
+    /**
+     * Like {@link #get(EnumSet)}, but only the fields of the projection are parsed.
+     */
+    public ChangeInfo get(EnumSet<ListChangesOption> options, ChangeInfoProjection projection) throws RestApiException {
+        ChangeFetchListener listener = getFetchListener();
+        long start = System.nanoTime();
+        ChangeInfo changeInfo = gerritRestClient.getRequest(getUrl(options), ChangeInfo.class, projection.getGson());
+        if (listener != null) {
+            listener.onFetch(ChangeFetch.of(getCallSite(), options, System.nanoTime() - start, changeInfo));
+        }
+        return changeInfo;
+    }
+
+    /**
+     * Fetches the change with the options of the given profile.
+     */
+    public ChangeInfo get(ListChangesOptionProfile profile) throws RestApiException {
+        return get(getOptions(profile));
+    }
+
+    /**
+     * Like {@link #get(EnumSet)}, but labels, messages, revisions and reviewer updates are only decoded when they are
+     * accessed.
+     */
+    public LazyChangeInfo getLazy(EnumSet<ListChangesOption> options) throws RestApiException {
+        ChangeFetchListener listener = getFetchListener();
+        long start = System.nanoTime();
+        LazyChangeInfo lazyChangeInfo = gerritRestClient.getRequest(getUrl(options), LazyChangeInfo.class,
+            LazyChangeInfoTypeAdapter.GSON);
+        if (listener != null) {
+            listener.onFetch(ChangeFetch.of(getCallSite(), options, System.nanoTime() - start, lazyChangeInfo));
+        }
+        return lazyChangeInfo;
+    }
+
+    /**
+     * Like {@link #get(ListChangesOptionProfile)}, but labels, messages, revisions and reviewer updates are only
+     * decoded when they are accessed.
+     */
+    public LazyChangeInfo getLazy(ListChangesOptionProfile profile) throws RestApiException {
+        return getLazy(getOptions(profile));
+    }
+
+    /**
+     * Like {@link #get()}, but labels, messages, revisions and reviewer updates are only decoded when they are
+     * accessed.
+     */
+    public LazyChangeInfo getLazy() throws RestApiException {
+        return getLazy(getDefaultProfile());
+    }
+
+    private String getUrl(EnumSet<ListChangesOption> options) {
         String query = "";
         for (ListChangesOption option : options) {
             query = UrlUtils.appendToUrlQuery(query, "o=" + option);
@@ -278,13 +365,64 @@ public class ChangeApiRestClient extends ChangeApi.NotImplemented implements Cha
         if (!Strings.isNullOrEmpty(query)) {
             url += '?' + query;
         }
-        JsonElement jsonElement = gerritRestClient.getRequest(url);
-        return changeInfosParser.parseSingleChangeInfo(jsonElement);
+        return url;
+    }
+
+    private EnumSet<ListChangesOption> getOptions(ListChangesOptionProfile profile) throws RestApiException {
+        if (profile == ListChangesOptionProfile.FULL && changesRestClient != null) {
+            changesRestClient.fullFetch();
+        }
+        return profile.getOptions(serverRestClient.getVersionCached());
     }
 
+    private ListChangesOptionProfile getDefaultProfile() {
+        return changesRestClient != null ? changesRestClient.getDefaultProfile() : ListChangesOptionProfile.FULL;
+    }
+
+    private ChangeFetchListener getFetchListener() {
+        return changesRestClient != null ? changesRestClient.getFetchListener() : null;
+    }
+
+    /**
+     * @return the first stack frame outside of the classes of this client which fetch changes
+     */
+    static String getCallSite() {
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if (!isClassOf(element, ChangeApiRestClient.class) && !isClassOf(element, ChangesRestClient.class)) {
+                return element.toString();
+            }
+        }
+        return "unknown";
+    }
+
+    private static boolean isClassOf(StackTraceElement element, Class<?> clazz) {
+        String className = element.getClassName();
+        // also nested classes and lambdas
+        return className.equals(clazz.getName()) || className.startsWith(clazz.getName() + '$');
+    }
+
+    /**
+     * Fetches the change with the options of the default profile (see
+     * {@link ChangesRestClient#setDefaultProfile(ListChangesOptionProfile)}); by default, all options supported by
+     * the server are requested.
+     */
     @Override
     public ChangeInfo get() throws RestApiException {
-        return get(ListChangesOptionByVersion.allSupported(serverRestClient.getVersionCached()));
+        return get(getDefaultProfile());
+    }
+
+    /**
+     * Runs {@link #get(EnumSet)} on a background thread (see {@link GerritRestClient#executeInBackground}).
+     */
+    public CompletableFuture<ChangeInfo> getInBackground(final EnumSet<ListChangesOption> options) {
+        return gerritRestClient.executeInBackground(() -> get(options));
+    }
+
+    /**
+     * Runs {@link #get()} on a background thread (see {@link GerritRestClient#executeInBackground}).
+     */
+    public CompletableFuture<ChangeInfo> getInBackground() {
+        return gerritRestClient.executeInBackground(() -> get());
     }
 
     @Override
@@ -379,22 +517,19 @@ public class ChangeApiRestClient extends ChangeApi.NotImplemented implements Cha
     @Override
     public Map<String, List<CommentInfo>> comments() throws RestApiException {
       String request = getRequestPath() + "/comments";
-      JsonElement jsonElement = gerritRestClient.getRequest(request);
-      return commentsParser.parseCommentInfos(jsonElement);
+      return commentsParser.requestCommentInfos(gerritRestClient, request);
     }
 
     @Override
     public Map<String, List<RobotCommentInfo>> robotComments() throws RestApiException {
         String request = getRequestPath() + "/robotcomments";
-        JsonElement jsonElement = gerritRestClient.getRequest(request);
-        return commentsParser.parseRobotCommentInfos(jsonElement);
+        return commentsParser.requestRobotCommentInfos(gerritRestClient, request);
     }
 
     @Override
     public Map<String, List<CommentInfo>> drafts() throws RestApiException {
         String request = getRequestPath() + "/drafts";
-        JsonElement jsonElement = gerritRestClient.getRequest(request);
-        return commentsParser.parseCommentInfos(jsonElement);
+        return commentsParser.requestCommentInfos(gerritRestClient, request);
     }
 
     @Override
@@ -413,8 +548,7 @@ public class ChangeApiRestClient extends ChangeApi.NotImplemented implements Cha
     @Override
     public List<ChangeMessageInfo> messages() throws RestApiException {
         String request = getRequestPath() + "/messages";
-        JsonElement jsonElement = gerritRestClient.getRequest(request);
-        return commentsParser.parseChangeMessageInfos(jsonElement);
+        return commentsParser.requestChangeMessageInfos(gerritRestClient, request);
     }
 
     @Override
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.gerrit.extensions.client.ListChangesOption;
+import com.google.gerrit.extensions.common.ChangeInfo;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fetched change: where and with which options it was requested, how long it took and which of the heavy
+ * sections (labels, messages, revisions and reviewer updates) were received and read.
+ *
+ * Reads can only be tracked for changes fetched with {@link ChangeApiRestClient#getLazy(EnumSet)}; they are
+ * recorded when they happen, so listeners which keep the fetch see later reads too. For completely decoded changes,
+ * reads are unknown.
+ *
+ * @author Urs Wolfer
+ */
+public class ChangeFetch {
+    /**
+     * The section of the response each option adds data to (only options adding to heavy sections).
+     */
+    private static final Map<ListChangesOption, String> SECTION_BY_OPTION = ImmutableMap.<ListChangesOption, String>builder()
+        .put(ListChangesOption.LABELS, "labels")
+        .put(ListChangesOption.DETAILED_LABELS, "labels")
+        .put(ListChangesOption.MESSAGES, "messages")
+        .put(ListChangesOption.CURRENT_REVISION, "revisions")
+        .put(ListChangesOption.ALL_REVISIONS, "revisions")
+        .put(ListChangesOption.CURRENT_COMMIT, "revisions")
+        .put(ListChangesOption.ALL_COMMITS, "revisions")
+        .put(ListChangesOption.CURRENT_FILES, "revisions")
+        .put(ListChangesOption.ALL_FILES, "revisions")
+        .put(ListChangesOption.DOWNLOAD_COMMANDS, "revisions")
+        .put(ListChangesOption.WEB_LINKS, "revisions")
+        .put(ListChangesOption.COMMIT_FOOTERS, "revisions")
+        .put(ListChangesOption.PUSH_CERTIFICATES, "revisions")
+        .put(ListChangesOption.REVIEWER_UPDATES, "reviewer_updates")
+        .build();
+
+    private final String callSite;
+    private final Set<ListChangesOption> options;
+    private final long latencyNanos;
+    private final Set<String> sections;
+    private final LazyChangeInfo lazyChangeInfo;
+
+    private ChangeFetch(String callSite, EnumSet<ListChangesOption> options, long latencyNanos, Set<String> sections,
+                        LazyChangeInfo lazyChangeInfo) {
+        this.callSite = callSite;
+        this.options = ImmutableSet.copyOf(options);
+        this.latencyNanos = latencyNanos;
+        this.sections = sections;
+        this.lazyChangeInfo = lazyChangeInfo;
+    }
+
+    static ChangeFetch of(String callSite, EnumSet<ListChangesOption> options, long latencyNanos,
+                          ChangeInfo changeInfo) {
+        ImmutableSet.Builder<String> sections = ImmutableSet.builder();
+        if (changeInfo != null) {
+            if (changeInfo.labels != null) {
+                sections.add("labels");
+            }
+            if (changeInfo.messages != null) {
+                sections.add("messages");
+            }
+            if (changeInfo.revisions != null) {
+                sections.add("revisions");
+            }
+            if (changeInfo.reviewerUpdates != null) {
+                sections.add("reviewer_updates");
+            }
+        }
+        return new ChangeFetch(callSite, options, latencyNanos, sections.build(), null);
+    }
+
+    static ChangeFetch of(String callSite, EnumSet<ListChangesOption> options, long latencyNanos,
+                          LazyChangeInfo lazyChangeInfo) {
+        Set<String> sections = lazyChangeInfo == null ? ImmutableSet.<String>of() : lazyChangeInfo.getSections();
+        return new ChangeFetch(callSite, options, latencyNanos, sections, lazyChangeInfo);
+    }
+
+    /**
+     * @return the first stack frame outside of this client which fetched the change, e.g.
+     *         "com.example.Bot.check(Bot.java:42)"
+     */
+    public String getCallSite() {
+        return callSite;
+    }
+
+    public Set<ListChangesOption> getOptions() {
+        return options;
+    }
+
+    /**
+     * @return time from sending the request until the change was parsed
+     */
+    public long getLatency(TimeUnit unit) {
+        return unit.convert(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return JSON names of the heavy sections contained in the response ("labels", "messages", "revisions" and
+     *         "reviewer_updates")
+     */
+    public Set<String> getSectionsReceived() {
+        return sections;
+    }
+
+    /**
+     * @return JSON names of the heavy sections which were read so far; absent unless the change was fetched lazily
+     */
+    public Optional<Set<String>> getSectionsRead() {
+        if (lazyChangeInfo == null) {
+            return Optional.absent();
+        }
+        return Optional.of(lazyChangeInfo.getDecodedSections());
+    }
+
+    /**
+     * @return requested options which only add data to sections which were not read (so far); absent unless the
+     *         change was fetched lazily
+     */
+    public Optional<Set<ListChangesOption>> getUnusedOptions() {
+        Optional<Set<String>> sectionsRead = getSectionsRead();
+        if (!sectionsRead.isPresent()) {
+            return Optional.absent();
+        }
+        ImmutableSet.Builder<ListChangesOption> unused = ImmutableSet.builder();
+        for (ListChangesOption option : options) {
+            String section = SECTION_BY_OPTION.get(option);
+            if (section != null && !sectionsRead.get().contains(section)) {
+                unused.add(option);
+            }
+        }
+        return Optional.<Set<ListChangesOption>>of(unused.build());
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+/**
+ * Is notified about every change fetched through {@link ChangeApiRestClient} (e.g. for finding call sites which
+ * request more options than they use). Must be thread-safe and fast; it is called on the requesting thread.
+ *
+ * @author Urs Wolfer
+ */
+public interface ChangeFetchListener {
+
+    void onFetch(ChangeFetch fetch);
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.urswolfer.gerrit.client.rest.gson.GsonFactory;
+import com.urswolfer.gerrit.client.rest.gson.ModelTypeAdapter;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Set;
+
+/**
+ * Declares which fields of {@link ChangeInfo} are needed. All other fields are skipped while the response is parsed
+ * (without creating objects for them) and stay unset; this makes parsing much cheaper when a request needs
+ * options like {@code CURRENT_REVISION} or {@code LABELS} but only a few (top-level) fields are used.
+ *
+ * {@code _moreChanges} is always read, so that projected results can be paged (e.g. with
+ * {@link ChangesRestClient#queryIterator(com.google.gerrit.extensions.api.changes.Changes.QueryRequest,
+ * ChangeInfoProjection, int)}).
+ *
+ * Create a projection once and reuse it; creating one is much more expensive than using it.
+ *
+ * @author Urs Wolfer
+ */
+public class ChangeInfoProjection {
+    // needed to page through results
+    private static final String MORE_CHANGES = "_more_changes";
+
+    private final Set<String> fieldNames;
+    private final Gson gson;
+
+    private ChangeInfoProjection(Set<String> fieldNames, Set<String> jsonNames) {
+        this.fieldNames = fieldNames;
+        this.gson = createProjectedGson(jsonNames);
+    }
+
+    /**
+     * @param fieldNames names of the {@link ChangeInfo} fields, e.g. "_number", "status", "updated" and
+     *                   "currentRevision"
+     * @throws IllegalArgumentException when {@link ChangeInfo} has no such field
+     */
+    public static ChangeInfoProjection of(String... fieldNames) {
+        ImmutableSet.Builder<String> jsonNames = ImmutableSet.builder();
+        jsonNames.add(MORE_CHANGES);
+        for (String fieldName : fieldNames) {
+            jsonNames.add(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES.translateName(getField(fieldName)));
+        }
+        return new ChangeInfoProjection(ImmutableSet.copyOf(fieldNames), jsonNames.build());
+    }
+
+    /**
+     * @return names of the fields which are read
+     */
+    public Set<String> getFieldNames() {
+        return fieldNames;
+    }
+
+    Gson getGson() {
+        return gson;
+    }
+
+    /**
+     * @return a {@link Gson} which reads only the fields of {@link ChangeInfo} with the given JSON names
+     */
+    private static Gson createProjectedGson(final Set<String> jsonNames) {
+        Gson gson = GsonFactory.getBuilder().registerTypeAdapterFactory(new TypeAdapterFactory() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                if (type.getRawType() != ChangeInfo.class) {
+                    return null;
+                }
+                return ((ModelTypeAdapter<T>) gson.getDelegateAdapter(this, type)).projected(jsonNames);
+            }
+        }).create();
+        gson.getAdapter(ChangeInfo.class);
+        return gson;
+    }
+
+    private static Field getField(String fieldName) {
+        try {
+            Field field = ChangeInfo.class.getField(fieldName);
+            if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                return field;
+            }
+        } catch (NoSuchFieldException e) {
+            // handled below
+        }
+        throw new IllegalArgumentException("Unknown field of ChangeInfo: " + fieldName);
+    }
+}
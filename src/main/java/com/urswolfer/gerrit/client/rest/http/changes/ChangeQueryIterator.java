@@ -0,0 +1,234 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gerrit.extensions.restapi.RestApiException;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Iterates lazily over the results of a change query. Pages are requested from the server only when the
+ * previous page is consumed and only the current page is kept in memory.
+ *
+ * With a prefetch depth greater than 0, up to that many following pages are requested in the background while
+ * the current page is consumed. {@link #close()} cancels pending requests when the consumer stops early. Nothing
+ * is prefetched while the executor would run requests on the consuming thread (e.g. on a background thread of
+ * {@link com.urswolfer.gerrit.client.rest.http.GerritRestClient}): the consumer would wait for pages it has not
+ * asked for yet.
+ *
+ * Failing requests (also of prefetched pages) are thrown as {@link RuntimeException} with the
+ * {@link RestApiException} as cause. No changes are skipped: when iterating further, the failed page is requested
+ * again.
+ *
+ * @author Urs Wolfer
+ */
+public class ChangeQueryIterator implements Iterator<ChangeInfo>, Closeable {
+
+    interface PageLoader {
+        List<ChangeInfo> load(int start, int limit) throws RestApiException;
+    }
+
+    interface BackgroundExecutor {
+        CompletableFuture<List<ChangeInfo>> executeInBackground(Callable<List<ChangeInfo>> call);
+
+        /**
+         * @return whether calls made on the current thread run immediately instead of in the background
+         */
+        boolean runsInline();
+    }
+
+    private final PageLoader pageLoader;
+    private final BackgroundExecutor backgroundExecutor;
+    private final int prefetchDepth;
+    private final long end;
+
+    private final Deque<PendingPage> pendingPages = new ArrayDeque<PendingPage>();
+    // lowered to the size of the pages the server actually returns when it caps the requested limit
+    private int pageSize;
+    private Iterator<ChangeInfo> page = Collections.emptyIterator();
+    private int nextStart;
+    private int remaining;
+    private boolean moreChanges = true;
+
+    /**
+     * @param start offset of the first change
+     * @param pageSize number of changes requested per page
+     * @param limit maximum total number of changes; 0 for all changes
+     * @param prefetchDepth number of pages which are requested in advance; 0 disables prefetching
+     */
+    ChangeQueryIterator(PageLoader pageLoader, BackgroundExecutor backgroundExecutor,
+                        int start, int pageSize, int limit, int prefetchDepth) {
+        Preconditions.checkArgument(pageSize > 0, "pageSize must be positive");
+        Preconditions.checkArgument(prefetchDepth >= 0, "prefetchDepth must not be negative");
+        this.pageLoader = pageLoader;
+        this.backgroundExecutor = backgroundExecutor;
+        this.nextStart = start;
+        this.pageSize = pageSize;
+        this.prefetchDepth = prefetchDepth;
+        this.end = limit > 0 ? (long) start + limit : Long.MAX_VALUE;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (remaining == 0 && moreChanges) {
+            try {
+                fetchNextPage();
+            } catch (RestApiException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return remaining > 0;
+    }
+
+    @Override
+    public ChangeInfo next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        remaining--;
+        return page.next();
+    }
+
+    /**
+     * Cancels pending prefetch requests and ends the iteration.
+     */
+    @Override
+    public void close() {
+        cancelPendingPages();
+        moreChanges = false;
+        page = Collections.emptyIterator();
+        remaining = 0;
+    }
+
+    private void fetchNextPage() throws RestApiException {
+        int pageStart;
+        int requestLimit;
+        List<ChangeInfo> changes;
+        PendingPage pendingPage = pendingPages.peek();
+        if (pendingPage != null) {
+            pageStart = pendingPage.start;
+            requestLimit = pendingPage.limit;
+            try {
+                changes = getPage(pendingPage.future);
+            } catch (RestApiException | RuntimeException e) {
+                // the failed page and the following ones are requested again when the iteration is continued
+                cancelPendingPages();
+                nextStart = pageStart;
+                throw e;
+            }
+            pendingPages.poll();
+        } else {
+            pageStart = nextStart;
+            requestLimit = requestLimit(pageStart);
+            if (requestLimit <= 0) {
+                moreChanges = false;
+                return;
+            }
+            changes = pageLoader.load(pageStart, requestLimit);
+            nextStart = pageStart + requestLimit;
+        }
+
+        // Gerrit sets "_more_changes" on the last change of a page when further results are available
+        moreChanges = !changes.isEmpty() && Boolean.TRUE.equals(changes.get(changes.size() - 1)._moreChanges);
+        if (!moreChanges) {
+            cancelPendingPages();
+        } else if (changes.size() < requestLimit) {
+            // the server caps the number of changes per page (index limit); continue with the page size it returns
+            // so that further pages are full pages; pages prefetched with the old page size have wrong offsets
+            pageSize = changes.size();
+            cancelPendingPages();
+            nextStart = pageStart + changes.size();
+        }
+
+        int size = (int) Math.min(changes.size(), end - pageStart);
+        page = changes.subList(0, size).iterator();
+        remaining = size;
+        if (pageStart + size >= end) {
+            moreChanges = false;
+        }
+
+        if (moreChanges) {
+            prefetch();
+        }
+    }
+
+    private void prefetch() {
+        if (pendingPages.size() >= prefetchDepth || backgroundExecutor.runsInline()) {
+            return;
+        }
+        while (pendingPages.size() < prefetchDepth) {
+            final int start = nextStart;
+            final int requestLimit = requestLimit(start);
+            if (requestLimit <= 0) {
+                return;
+            }
+            nextStart += requestLimit;
+            CompletableFuture<List<ChangeInfo>> future = backgroundExecutor.executeInBackground(
+                () -> pageLoader.load(start, requestLimit));
+            pendingPages.add(new PendingPage(start, requestLimit, future));
+        }
+    }
+
+    /**
+     * Waits for a prefetched page; fails like {@link PageLoader#load(int, int)} when the request failed.
+     */
+    private static List<ChangeInfo> getPage(CompletableFuture<List<ChangeInfo>> future) throws RestApiException {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            Throwables.throwIfInstanceOf(e.getCause(), RestApiException.class);
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private int requestLimit(int start) {
+        return (int) Math.min(pageSize, end - start);
+    }
+
+    private void cancelPendingPages() {
+        for (PendingPage pendingPage : pendingPages) {
+            pendingPage.future.cancel(false);
+        }
+        pendingPages.clear();
+    }
+
+    private static final class PendingPage {
+        private final int start;
+        private final int limit;
+        private final CompletableFuture<List<ChangeInfo>> future;
+
+        private PendingPage(int start, int limit, CompletableFuture<List<ChangeInfo>> future) {
+            this.start = start;
+            this.limit = limit;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.gerrit.extensions.common.ChangeInfo;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of {@link ChangesRestClient#getByIds}.
+ *
+ * @author Urs Wolfer
+ */
+public class ChangesByIdResult {
+    private final Map<Integer, ChangeInfo> changes;
+    private final Set<Integer> missingIds;
+
+    ChangesByIdResult(Map<Integer, ChangeInfo> changes, Set<Integer> missingIds) {
+        this.changes = Collections.unmodifiableMap(changes);
+        this.missingIds = Collections.unmodifiableSet(missingIds);
+    }
+
+    /**
+     * @return found changes by their number, in the order of the requested ids
+     */
+    public Map<Integer, ChangeInfo> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return requested ids which do not exist or are not visible to the user
+     */
+    public Set<Integer> getMissingIds() {
+        return missingIds;
+    }
+}
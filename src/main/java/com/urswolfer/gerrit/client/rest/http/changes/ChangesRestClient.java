@@ -16,7 +16,10 @@
 
 package com.urswolfer.gerrit.client.rest.http.changes;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Sets;
 import com.google.gerrit.extensions.api.changes.ChangeApi;
 import com.google.gerrit.extensions.api.changes.Changes;
 import com.google.gerrit.extensions.client.ListChangesOption;
@@ -28,15 +31,40 @@ import com.google.gson.JsonElement;
 import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
 import com.urswolfer.gerrit.client.rest.http.accounts.AccountsParser;
 import com.urswolfer.gerrit.client.rest.http.changes.parsers.*;
+import com.urswolfer.gerrit.client.rest.http.config.ServerRestClient;
 import com.urswolfer.gerrit.client.rest.http.config.parsers.ServerConfigParser;
 import com.urswolfer.gerrit.client.rest.http.util.UrlUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Urs Wolfer
  */
 public class ChangesRestClient extends Changes.NotImplemented implements Changes {
+    // Gerrit's default query limit is 500; keep the URL well below common limits of 8 KB
+    static final int BULK_QUERY_MAX_IDS = 100;
+    static final int BULK_QUERY_MAX_LENGTH = 4000;
+    private static final String BULK_QUERY_TERM = "change:";
+    private static final String BULK_QUERY_OR = "+OR+";
+    private static final Logger LOGGER = Logger.getLogger(ChangesRestClient.class.getName());
 
     private final GerritRestClient gerritRestClient;
     private final ChangeInfosParser changeInfosParser;
@@ -49,7 +77,17 @@ public class ChangesRestClient extends Changes.NotImplemented implements Changes
     private final MergeableInfoParser mergeableInfoParser;
     private final ReviewInfoParser reviewInfoParser;
     private final ServerConfigParser serverConfigParser;
+    private final ServerRestClient serverRestClient;
+    private final Set<String> warnedCallSites = Sets.newConcurrentHashSet();
+    private volatile ListChangesOptionProfile defaultProfile = ListChangesOptionProfile.FULL;
+    private volatile boolean fullFetchWarning;
+    private volatile ChangeFetchListener fetchListener;
 
+    /**
+     * @deprecated Creates its own {@link ServerRestClient}, so the server version is not shared with other clients.
+     * Use the constructor which takes the shared {@link ServerRestClient} instead.
+     */
+    @Deprecated
     public ChangesRestClient(GerritRestClient gerritRestClient,
                              ChangeInfosParser changeInfosParser,
                              CommentsParser commentsParser,
@@ -62,6 +100,24 @@ public class ChangesRestClient extends Changes.NotImplemented implements Changes
                              ReviewInfoParser reviewInfoParser,
                              ServerConfigParser serverConfigParser
                              ) {
+        this(gerritRestClient, changeInfosParser, commentsParser, fileInfoParser, reviewerInfosParser,
+            reviewResultParser, commitInfosParser, accountsParser, mergeableInfoParser, reviewInfoParser,
+            serverConfigParser, new ServerRestClient(gerritRestClient, serverConfigParser));
+    }
+
+    public ChangesRestClient(GerritRestClient gerritRestClient,
+                             ChangeInfosParser changeInfosParser,
+                             CommentsParser commentsParser,
+                             FileInfoParser fileInfoParser,
+                             ReviewerInfosParser reviewerInfosParser,
+                             ReviewResultParser reviewResultParser,
+                             CommitInfosParser commitInfosParser,
+                             AccountsParser accountsParser,
+                             MergeableInfoParser mergeableInfoParser,
+                             ReviewInfoParser reviewInfoParser,
+                             ServerConfigParser serverConfigParser,
+                             ServerRestClient serverRestClient
+                             ) {
         this.gerritRestClient = gerritRestClient;
         this.changeInfosParser = changeInfosParser;
         this.commentsParser = commentsParser;
@@ -73,6 +129,50 @@ public class ChangesRestClient extends Changes.NotImplemented implements Changes
         this.mergeableInfoParser = mergeableInfoParser;
         this.reviewInfoParser = reviewInfoParser;
         this.serverConfigParser = serverConfigParser;
+        this.serverRestClient = serverRestClient;
+    }
+
+    /**
+     * Sets the profile of the options which are requested when a change is fetched without options (see
+     * {@link ChangeApiRestClient#get()}). The default is {@link ListChangesOptionProfile#FULL}; a smaller profile
+     * downgrades these fetches for applications which do not need all data.
+     */
+    public void setDefaultProfile(ListChangesOptionProfile defaultProfile) {
+        this.defaultProfile = Preconditions.checkNotNull(defaultProfile);
+    }
+
+    /**
+     * @param enabled whether to log a warning (once per call site) when a change is fetched with
+     *                {@link ListChangesOptionProfile#FULL}
+     */
+    public void setFullFetchWarning(boolean enabled) {
+        this.fullFetchWarning = enabled;
+    }
+
+    /**
+     * @param fetchListener notified about each change fetched through {@link ChangeApiRestClient}, or null
+     */
+    public void setFetchListener(ChangeFetchListener fetchListener) {
+        this.fetchListener = fetchListener;
+    }
+
+    ListChangesOptionProfile getDefaultProfile() {
+        return defaultProfile;
+    }
+
+    ChangeFetchListener getFetchListener() {
+        return fetchListener;
+    }
+
+    void fullFetch() {
+        if (!fullFetchWarning) {
+            return;
+        }
+        String callSite = ChangeApiRestClient.getCallSite();
+        if (warnedCallSites.add(callSite)) {
+            LOGGER.warning("Change is fetched with all options at " + callSite
+                + "; use a smaller ListChangesOptionProfile if not all data is needed.");
+        }
     }
 
     @Override
@@ -90,17 +190,281 @@ public class ChangesRestClient extends Changes.NotImplemented implements Changes
         return query().withQuery(query);
     }
 
+    /**
+     * Runs {@code QueryRequest#get} on a background thread (see {@link GerritRestClient#executeInBackground}).
+     */
+    public CompletableFuture<List<ChangeInfo>> queryInBackground(final QueryRequest queryRequest) {
+        return gerritRestClient.executeInBackground(() -> get(queryRequest));
+    }
+
+    /**
+     * Passes each change of the query result to the consumer as soon as it is read from the response. Unlike
+     * {@code QueryRequest#get}, the result list is never materialized, so memory usage stays at a single change
+     * even for huge results (e.g. with {@code withNoLimit()} and many {@link ListChangesOption}s).
+     */
+    public void query(QueryRequest queryRequest, Consumer<? super ChangeInfo> consumer) throws RestApiException {
+        String url = getQueryUrl(queryRequest, queryRequest.getStart(), queryRequest.getLimit());
+        gerritRestClient.getRequestArray(url, ChangeInfo.class, consumer);
+    }
+
+    /**
+     * Like {@link #query(QueryRequest, Consumer)}, but only the fields of the projection are parsed.
+     */
+    public void query(QueryRequest queryRequest, ChangeInfoProjection projection, Consumer<? super ChangeInfo> consumer)
+        throws RestApiException {
+        String url = getQueryUrl(queryRequest, queryRequest.getStart(), queryRequest.getLimit());
+        gerritRestClient.getRequestArray(url, ChangeInfo.class, projection.getGson(), consumer);
+    }
+
+    /**
+     * Like {@code QueryRequest#get}, but only the fields of the projection are parsed.
+     */
+    public List<ChangeInfo> query(QueryRequest queryRequest, ChangeInfoProjection projection) throws RestApiException {
+        return get(queryRequest, queryRequest.getStart(), queryRequest.getLimit(), projection);
+    }
+
+    /**
+     * Lazily iterates over all results of the query. Further pages of {@code pageSize} changes are requested
+     * when the previous page is consumed (based on {@code _more_changes}); only one page is held in memory.
+     * The start and limit of the query request are respected: iteration begins at its start offset and stops
+     * after its limit (if set).
+     *
+     * Since {@link Iterator} methods cannot throw checked exceptions, a failing request is thrown as
+     * {@link RuntimeException} with the {@link RestApiException} as cause.
+     */
+    public ChangeQueryIterator queryIterator(QueryRequest queryRequest, int pageSize) {
+        return queryIterator(queryRequest, pageSize, 0);
+    }
+
+    /**
+     * Like {@link #queryIterator(QueryRequest, int)}, but up to {@code prefetchPages} following pages are
+     * requested in the background (on the background threads of {@link GerritRestClient}) while the current page is
+     * consumed. Close the iterator when stopping early to cancel pending requests.
+     *
+     * Nothing is prefetched while the iterator is consumed on a background thread of {@link GerritRestClient}
+     * (e.g. in a call of {@link GerritRestClient#executeInBackground}): requests run immediately on that thread
+     * there, so prefetching would only delay the current page.
+     */
+    public ChangeQueryIterator queryIterator(final QueryRequest queryRequest, int pageSize, int prefetchPages) {
+        return new ChangeQueryIterator(
+            (start, limit) -> get(queryRequest, start, limit),
+            backgroundExecutor(),
+            queryRequest.getStart(), pageSize, queryRequest.getLimit(), prefetchPages);
+    }
+
+    /**
+     * Like {@link #queryIterator(QueryRequest, int)}, but only the fields of the projection are parsed.
+     */
+    public ChangeQueryIterator queryIterator(QueryRequest queryRequest, ChangeInfoProjection projection, int pageSize) {
+        return queryIterator(queryRequest, projection, pageSize, 0);
+    }
+
+    /**
+     * Like {@link #queryIterator(QueryRequest, int, int)}, but only the fields of the projection are parsed.
+     */
+    public ChangeQueryIterator queryIterator(final QueryRequest queryRequest, final ChangeInfoProjection projection,
+                                             int pageSize, int prefetchPages) {
+        return new ChangeQueryIterator(
+            (start, limit) -> get(queryRequest, start, limit, projection),
+            backgroundExecutor(),
+            queryRequest.getStart(), pageSize, queryRequest.getLimit(), prefetchPages);
+    }
+
+    /**
+     * Lazy {@link Stream} variant of {@link #queryIterator(QueryRequest, int)}.
+     */
+    public Stream<ChangeInfo> queryStream(QueryRequest queryRequest, int pageSize) {
+        return queryStream(queryRequest, pageSize, 0);
+    }
+
+    /**
+     * Lazy {@link Stream} variant of {@link #queryIterator(QueryRequest, int, int)}. Closing the stream cancels
+     * pending requests.
+     */
+    public Stream<ChangeInfo> queryStream(QueryRequest queryRequest, int pageSize, int prefetchPages) {
+        return stream(queryIterator(queryRequest, pageSize, prefetchPages));
+    }
+
+    /**
+     * Lazy {@link Stream} variant of {@link #queryIterator(QueryRequest, ChangeInfoProjection, int)}.
+     */
+    public Stream<ChangeInfo> queryStream(QueryRequest queryRequest, ChangeInfoProjection projection, int pageSize) {
+        return queryStream(queryRequest, projection, pageSize, 0);
+    }
+
+    /**
+     * Lazy {@link Stream} variant of {@link #queryIterator(QueryRequest, ChangeInfoProjection, int, int)}. Closing
+     * the stream cancels pending requests.
+     */
+    public Stream<ChangeInfo> queryStream(QueryRequest queryRequest, ChangeInfoProjection projection, int pageSize,
+                                          int prefetchPages) {
+        return stream(queryIterator(queryRequest, projection, pageSize, prefetchPages));
+    }
+
+    private ChangeQueryIterator.BackgroundExecutor backgroundExecutor() {
+        return new ChangeQueryIterator.BackgroundExecutor() {
+            @Override
+            public CompletableFuture<List<ChangeInfo>> executeInBackground(Callable<List<ChangeInfo>> call) {
+                return gerritRestClient.executeInBackground(call);
+            }
+
+            @Override
+            public boolean runsInline() {
+                return gerritRestClient.isBackgroundThread();
+            }
+        };
+    }
+
+    private static Stream<ChangeInfo> stream(ChangeQueryIterator iterator) {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false).onClose(iterator::close);
+    }
+
+    /**
+     * Like {@link #getByIds(Collection, EnumSet, int)} with up to 4 parallel requests.
+     */
+    public ChangesByIdResult getByIds(Collection<Integer> ids,
+                                      EnumSet<ListChangesOption> options) throws RestApiException {
+        return getByIds(ids, options, 4);
+    }
+
+    /**
+     * Gets many changes by their number with a few queries ({@code change:1 OR change:2 ...}) instead of one request
+     * per change. The ids are split into chunks which keep the URL short; up to {@code parallelism} chunks are
+     * requested concurrently (on the background threads of {@link GerritRestClient}).
+     */
+    public ChangesByIdResult getByIds(Collection<Integer> ids,
+                                      EnumSet<ListChangesOption> options,
+                                      int parallelism) throws RestApiException {
+        Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+        Set<Integer> requestedIds = new LinkedHashSet<Integer>(ids);
+        List<List<Integer>> chunks = bulkQueryChunks(requestedIds);
+
+        int laneCount = Math.min(parallelism, chunks.size());
+        List<Callable<List<ChangeInfo>>> lanes = new ArrayList<Callable<List<ChangeInfo>>>(laneCount);
+        for (int lane = 0; lane < laneCount; lane++) {
+            final List<List<Integer>> laneChunks = new ArrayList<List<Integer>>();
+            for (int i = lane; i < chunks.size(); i += laneCount) {
+                laneChunks.add(chunks.get(i));
+            }
+            lanes.add(() -> {
+                List<ChangeInfo> changes = new ArrayList<ChangeInfo>();
+                for (List<Integer> chunk : laneChunks) {
+                    changes.addAll(query(bulkQuery(chunk)).withLimit(chunk.size()).withOptions(options).get());
+                }
+                return changes;
+            });
+        }
+
+        Map<Integer, ChangeInfo> changesById = new HashMap<Integer, ChangeInfo>();
+        for (ChangeInfo changeInfo : executeLanes(lanes)) {
+            changesById.put(changeInfo._number, changeInfo);
+        }
+
+        Map<Integer, ChangeInfo> changes = new LinkedHashMap<Integer, ChangeInfo>();
+        Set<Integer> missingIds = new LinkedHashSet<Integer>();
+        for (Integer id : requestedIds) {
+            ChangeInfo changeInfo = changesById.get(id);
+            if (changeInfo != null) {
+                changes.put(id, changeInfo);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ChangesByIdResult(changes, missingIds);
+    }
+
+    static List<List<Integer>> bulkQueryChunks(Collection<Integer> ids) {
+        List<List<Integer>> chunks = new ArrayList<List<Integer>>();
+        List<Integer> chunk = new ArrayList<Integer>();
+        int length = 0;
+        for (Integer id : ids) {
+            int termLength = BULK_QUERY_OR.length() + BULK_QUERY_TERM.length() + id.toString().length();
+            if (chunk.size() == BULK_QUERY_MAX_IDS || (!chunk.isEmpty() && length + termLength > BULK_QUERY_MAX_LENGTH)) {
+                chunks.add(chunk);
+                chunk = new ArrayList<Integer>();
+                length = 0;
+            }
+            chunk.add(id);
+            length += termLength;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    static String bulkQuery(List<Integer> ids) {
+        StringBuilder query = new StringBuilder();
+        for (Integer id : ids) {
+            if (query.length() > 0) {
+                query.append(BULK_QUERY_OR);
+            }
+            query.append(BULK_QUERY_TERM).append(id);
+        }
+        return query.toString();
+    }
+
+    /**
+     * Runs the first lane on the calling thread and the others on background threads.
+     */
+    private List<ChangeInfo> executeLanes(List<Callable<List<ChangeInfo>>> lanes) throws RestApiException {
+        List<CompletableFuture<List<ChangeInfo>>> futures = new ArrayList<CompletableFuture<List<ChangeInfo>>>();
+        for (Callable<List<ChangeInfo>> lane : lanes.subList(Math.min(1, lanes.size()), lanes.size())) {
+            futures.add(gerritRestClient.executeInBackground(lane));
+        }
+        List<ChangeInfo> changes = new ArrayList<ChangeInfo>();
+        try {
+            if (!lanes.isEmpty()) {
+                changes.addAll(lanes.get(0).call());
+            }
+            for (CompletableFuture<List<ChangeInfo>> future : futures) {
+                changes.addAll(future.get());
+            }
+            return changes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw RestApiException.wrap("Interrupted while getting changes.", e);
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            Throwables.throwIfInstanceOf(cause, RestApiException.class);
+            Throwables.throwIfUnchecked(cause);
+            throw RestApiException.wrap("Failed to get changes.", (Exception) cause);
+        } finally {
+            for (CompletableFuture<List<ChangeInfo>> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
     private List<ChangeInfo> get(QueryRequest queryRequest) throws RestApiException {
+        return get(queryRequest, queryRequest.getStart(), queryRequest.getLimit());
+    }
+
+    private List<ChangeInfo> get(QueryRequest queryRequest, int start, int limit) throws RestApiException {
+        String url = getQueryUrl(queryRequest, start, limit);
+        // a single change instead of an array is read as a list, see ChangeInfoListTypeAdapterFactory
+        return changeInfosParser.requestChangeInfos(gerritRestClient, url);
+    }
+
+    private List<ChangeInfo> get(QueryRequest queryRequest, int start, int limit, ChangeInfoProjection projection)
+        throws RestApiException {
+        String url = getQueryUrl(queryRequest, start, limit);
+        return changeInfosParser.requestChangeInfos(gerritRestClient, url, projection.getGson());
+    }
+
+    private String getQueryUrl(QueryRequest queryRequest, int start, int limit) {
         String query = "";
 
         if (!Strings.isNullOrEmpty(queryRequest.getQuery())) {
             query = UrlUtils.appendToUrlQuery(query, "q=" + queryRequest.getQuery());
         }
-        if (queryRequest.getLimit() > 0) {
-            query = UrlUtils.appendToUrlQuery(query, "n=" + queryRequest.getLimit());
+        if (limit > 0) {
+            query = UrlUtils.appendToUrlQuery(query, "n=" + limit);
         }
-        if (queryRequest.getStart() > 0) {
-            query = UrlUtils.appendToUrlQuery(query, "S=" + queryRequest.getStart());
+        if (start > 0) {
+            query = UrlUtils.appendToUrlQuery(query, "S=" + start);
         }
         // server version < 2.9, needed for change list paging
         if (!Strings.isNullOrEmpty(queryRequest.getSortkey())) {
@@ -114,9 +478,14 @@ public class ChangesRestClient extends Changes.NotImplemented implements Changes
         if (!Strings.isNullOrEmpty(query)) {
             url += '?' + query;
         }
+        return url;
+    }
 
-        JsonElement jsonElement = gerritRestClient.getRequest(url);
-        return changeInfosParser.parseChangeInfos(jsonElement);
+    /**
+     * @return a new {@link BulkReviewer} for posting reviews to many revisions concurrently
+     */
+    public BulkReviewer bulkReviewer() {
+        return new BulkReviewer(gerritRestClient, this);
     }
 
     @Override
@@ -128,7 +497,7 @@ public class ChangesRestClient extends Changes.NotImplemented implements Changes
     public ChangeApi id(String id) throws RestApiException {
         return new ChangeApiRestClient(gerritRestClient, this, changeInfosParser, commentsParser,
             fileInfoParser, reviewResultParser, reviewerInfosParser, commitInfosParser,
-            accountsParser, mergeableInfoParser, reviewInfoParser, serverConfigParser, id);
+            accountsParser, mergeableInfoParser, reviewInfoParser, serverConfigParser, serverRestClient, id);
     }
 
     @Override
@@ -23,19 +23,14 @@ import com.google.gerrit.extensions.common.DiffInfo;
 import com.google.gerrit.extensions.restapi.BinaryResult;
 import com.google.gerrit.extensions.restapi.RestApiException;
 import com.google.gerrit.extensions.restapi.Url;
-import com.google.gson.JsonElement;
 import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
 import com.urswolfer.gerrit.client.rest.http.changes.parsers.CommitInfosParser;
-import com.urswolfer.gerrit.client.rest.http.util.BinaryResultUtils;
 import com.urswolfer.gerrit.client.rest.http.util.UrlUtils;
 
-import org.apache.http.HttpResponse;
-
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
-import static com.urswolfer.gerrit.client.rest.RestClient.HttpVerb.GET;
-
 /**
  * @author Thomas Forrer
  */
@@ -67,13 +62,19 @@ public class FileApiRestClient extends FileApi.NotImplemented {
     public BinaryResult content() throws RestApiException {
         String request = getRequestPath() + "/content";
         try {
-            HttpResponse response = gerritRestClient.request(request, null, GET);
-            return BinaryResultUtils.createBinaryResult(response);
+            return gerritRestClient.requestBinary(request);
         } catch (IOException e) {
             throw RestApiException.wrap("Failed to get file content.", e);
         }
     }
 
+    /**
+     * Runs {@link #content()} on a background thread (see {@link GerritRestClient#executeInBackground}).
+     */
+    public CompletableFuture<BinaryResult> contentInBackground() {
+        return gerritRestClient.executeInBackground(() -> content());
+    }
+
     @Override
     public DiffInfo diff() throws RestApiException {
         return diffRequest().get();
@@ -89,6 +90,20 @@ public class FileApiRestClient extends FileApi.NotImplemented {
         return diff(diffRequest(), parent);
     }
 
+    /**
+     * Runs {@link #diff()} on a background thread (see {@link GerritRestClient#executeInBackground}).
+     */
+    public CompletableFuture<DiffInfo> diffInBackground() {
+        return gerritRestClient.executeInBackground(() -> diff());
+    }
+
+    /**
+     * Runs {@code DiffRequest#get} on a background thread (see {@link GerritRestClient#executeInBackground}).
+     */
+    public CompletableFuture<DiffInfo> diffInBackground(final DiffRequest diffRequest) {
+        return gerritRestClient.executeInBackground(() -> diff(diffRequest));
+    }
+
     @Override
     public DiffRequest diffRequest() throws RestApiException {
         return new DiffRequest() {
@@ -127,8 +142,7 @@ public class FileApiRestClient extends FileApi.NotImplemented {
             url += '?' + query;
         }
 
-        JsonElement jsonElement = gerritRestClient.getRequest(url);
-        return commitInfosParser.parseDiffInfo(jsonElement);
+        return commitInfosParser.requestDiffInfo(gerritRestClient, url);
     }
 
     protected String getRequestPath() {
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gerrit.extensions.common.ChangeMessageInfo;
+import com.google.gerrit.extensions.common.LabelInfo;
+import com.google.gerrit.extensions.common.ReviewerUpdateInfo;
+import com.google.gerrit.extensions.common.RevisionInfo;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A change whose heavy sections (labels, messages, revisions and reviewer updates) are only decoded when they are
+ * accessed. All other fields are available from {@link #getChangeInfo()} right after parsing.
+ *
+ * Decoded sections are also set on the {@link ChangeInfo} returned by {@link #getChangeInfo()};
+ * {@link #materialize()} decodes all remaining sections.
+ *
+ * @author Urs Wolfer
+ */
+public class LazyChangeInfo {
+    private static final Type LABELS_TYPE = new TypeToken<Map<String, LabelInfo>>() {}.getType();
+    private static final Type MESSAGES_TYPE = new TypeToken<Collection<ChangeMessageInfo>>() {}.getType();
+    private static final Type REVISIONS_TYPE = new TypeToken<Map<String, RevisionInfo>>() {}.getType();
+    private static final Type REVIEWER_UPDATES_TYPE = new TypeToken<Collection<ReviewerUpdateInfo>>() {}.getType();
+
+    private final ChangeInfo changeInfo;
+    private final Map<String, JsonElement> deferred;
+    private final Set<String> sections;
+    private final Gson gson;
+
+    LazyChangeInfo(ChangeInfo changeInfo, Map<String, JsonElement> deferred, Gson gson) {
+        this.changeInfo = changeInfo;
+        this.deferred = deferred;
+        this.gson = gson;
+        ImmutableSet.Builder<String> sections = ImmutableSet.builder();
+        for (Map.Entry<String, JsonElement> entry : deferred.entrySet()) {
+            if (!entry.getValue().isJsonNull()) {
+                sections.add(entry.getKey());
+            }
+        }
+        this.sections = sections.build();
+    }
+
+    /**
+     * @return the change; heavy sections which were not accessed yet are not set
+     */
+    public ChangeInfo getChangeInfo() {
+        return changeInfo;
+    }
+
+    public synchronized Map<String, LabelInfo> getLabels() {
+        JsonElement json = deferred.remove("labels");
+        if (json != null) {
+            changeInfo.labels = gson.fromJson(json, LABELS_TYPE);
+        }
+        return changeInfo.labels;
+    }
+
+    public synchronized Collection<ChangeMessageInfo> getMessages() {
+        JsonElement json = deferred.remove("messages");
+        if (json != null) {
+            changeInfo.messages = gson.fromJson(json, MESSAGES_TYPE);
+        }
+        return changeInfo.messages;
+    }
+
+    public synchronized Map<String, RevisionInfo> getRevisions() {
+        JsonElement json = deferred.remove("revisions");
+        if (json != null) {
+            changeInfo.revisions = gson.fromJson(json, REVISIONS_TYPE);
+        }
+        return changeInfo.revisions;
+    }
+
+    public synchronized Collection<ReviewerUpdateInfo> getReviewerUpdates() {
+        JsonElement json = deferred.remove("reviewer_updates");
+        if (json != null) {
+            changeInfo.reviewerUpdates = gson.fromJson(json, REVIEWER_UPDATES_TYPE);
+        }
+        return changeInfo.reviewerUpdates;
+    }
+
+    /**
+     * @return JSON names of the heavy sections contained in the response (e.g. "revisions")
+     */
+    Set<String> getSections() {
+        return sections;
+    }
+
+    /**
+     * @return JSON names of the heavy sections which were decoded so far
+     */
+    synchronized Set<String> getDecodedSections() {
+        return ImmutableSet.copyOf(Sets.difference(sections, deferred.keySet()));
+    }
+
+    /**
+     * Decodes all heavy sections which were not accessed yet.
+     *
+     * @return the complete change, the same as returned by {@link ChangeApiRestClient#get(java.util.EnumSet)}
+     */
+    public synchronized ChangeInfo materialize() {
+        getLabels();
+        getMessages();
+        getRevisions();
+        getReviewerUpdates();
+        return changeInfo;
+    }
+}
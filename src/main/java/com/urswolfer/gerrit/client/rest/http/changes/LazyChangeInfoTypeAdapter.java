@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.urswolfer.gerrit.client.rest.gson.GsonFactory;
+import com.urswolfer.gerrit.client.rest.gson.ModelTypeAdapter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a {@link LazyChangeInfo}: the heavy sections are kept as {@link JsonElement}s, all other fields are streamed
+ * into the {@link ChangeInfo} by its regular adapter.
+ *
+ * @author Urs Wolfer
+ */
+class LazyChangeInfoTypeAdapter extends TypeAdapter<LazyChangeInfo> {
+    static final Set<String> DEFERRED_FIELDS = ImmutableSet.of("labels", "messages", "revisions", "reviewer_updates");
+
+    static final Gson GSON = GsonFactory.getBuilder().registerTypeAdapterFactory(new TypeAdapterFactory() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (type.getRawType() != LazyChangeInfo.class) {
+                return null;
+            }
+            return (TypeAdapter<T>) new LazyChangeInfoTypeAdapter(gson);
+        }
+    }).create();
+
+    private final Gson gson;
+    private final ModelTypeAdapter<ChangeInfo> changeInfoAdapter;
+    private final TypeAdapter<JsonElement> jsonElementAdapter;
+
+    private LazyChangeInfoTypeAdapter(Gson gson) {
+        this.gson = gson;
+        changeInfoAdapter = (ModelTypeAdapter<ChangeInfo>) gson.getAdapter(ChangeInfo.class);
+        jsonElementAdapter = gson.getAdapter(JsonElement.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, LazyChangeInfo value) throws IOException {
+        changeInfoAdapter.write(out, value == null ? null : value.materialize());
+    }
+
+    @Override
+    public LazyChangeInfo read(JsonReader in) throws IOException {
+        Map<String, JsonElement> deferred = Maps.newHashMap();
+        ChangeInfo changeInfo = changeInfoAdapter.read(in, DEFERRED_FIELDS, jsonElementAdapter, deferred);
+        return changeInfo == null ? null : new LazyChangeInfo(changeInfo, deferred, gson);
+    }
+}
@@ -22,12 +22,16 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 class ListChangesOptionByVersion {
     static final Map<String, ListChangesOption> MAX_CHANGE_OPTION_BY_VERSION = new HashMap<>();
     static final Pattern VERSION_PATTERN = Pattern.compile("(\\d+)\\.(\\d+)\\..*");
+    private static final ConcurrentMap<String, EnumSet<ListChangesOption>> ALL_SUPPORTED_BY_VERSION =
+        new ConcurrentHashMap<>();
 
     static {
         put("2.6", ListChangesOption.DETAILED_ACCOUNTS);
@@ -64,6 +68,16 @@ class ListChangesOptionByVersion {
     }
 
     static EnumSet<ListChangesOption> allSupported(String gerritVersion) {
+        EnumSet<ListChangesOption> changesOptions = ALL_SUPPORTED_BY_VERSION.get(gerritVersion);
+        if (changesOptions == null) {
+            changesOptions = computeAllSupported(gerritVersion);
+            ALL_SUPPORTED_BY_VERSION.putIfAbsent(gerritVersion, changesOptions);
+        }
+        // callers may modify the returned set
+        return EnumSet.copyOf(changesOptions);
+    }
+
+    private static EnumSet<ListChangesOption> computeAllSupported(String gerritVersion) {
         EnumSet<ListChangesOption> changesOptions = EnumSet.noneOf(ListChangesOption.class);
         for (Iterator<ListChangesOption> optionsIter = EnumSet.allOf(ListChangesOption.class).iterator(); optionsIter.hasNext(); ) {
             ListChangesOption option = optionsIter.next();
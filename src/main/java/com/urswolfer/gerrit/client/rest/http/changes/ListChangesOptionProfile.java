@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.gerrit.extensions.client.ListChangesOption;
+
+import java.util.EnumSet;
+
+/**
+ * Named sets of {@link ListChangesOption}s for fetching a change. Each option makes Gerrit compute and send more
+ * data; {@link #FULL} requests everything the server supports and is one of the most expensive requests Gerrit can
+ * serve.
+ *
+ * @author Urs Wolfer
+ */
+public enum ListChangesOptionProfile {
+    /**
+     * Only the top-level fields of the change (status, owner, subject, ...); mergeability and diff statistics are
+     * not computed.
+     */
+    @SuppressWarnings("deprecation") // SKIP_MERGEABLE still avoids the mergeability check on servers which compute it
+    MINIMAL(EnumSet.of(ListChangesOption.SKIP_MERGEABLE, ListChangesOption.SKIP_DIFFSTAT)),
+    /**
+     * What a reviewer looks at: detailed labels and accounts, the current revision with its commit and files,
+     * messages and the actions which can be done.
+     */
+    REVIEW(EnumSet.of(ListChangesOption.DETAILED_LABELS, ListChangesOption.DETAILED_ACCOUNTS,
+        ListChangesOption.CURRENT_REVISION, ListChangesOption.CURRENT_COMMIT, ListChangesOption.CURRENT_FILES,
+        ListChangesOption.MESSAGES, ListChangesOption.CURRENT_ACTIONS, ListChangesOption.SUBMITTABLE)),
+    /**
+     * What a CI system needs: the current revision (with its fetch information) and commit, labels and whether the
+     * change is submittable.
+     */
+    CI(EnumSet.of(ListChangesOption.LABELS, ListChangesOption.CURRENT_REVISION, ListChangesOption.CURRENT_COMMIT,
+        ListChangesOption.SUBMITTABLE)),
+    /**
+     * All options supported by the server (except {@link ListChangesOption#CHECK}).
+     */
+    FULL(null);
+
+    private final EnumSet<ListChangesOption> options;
+
+    ListChangesOptionProfile(EnumSet<ListChangesOption> options) {
+        this.options = options;
+    }
+
+    /**
+     * @return the options of this profile which are supported by the given Gerrit version
+     */
+    public EnumSet<ListChangesOption> getOptions(String gerritVersion) {
+        if (options == null) {
+            return ListChangesOptionByVersion.allSupported(gerritVersion);
+        }
+        EnumSet<ListChangesOption> supported = EnumSet.noneOf(ListChangesOption.class);
+        for (ListChangesOption option : options) {
+            if (ListChangesOptionByVersion.isSupportedOnVersion(option, gerritVersion)) {
+                supported.add(option);
+            }
+        }
+        return supported;
+    }
+}
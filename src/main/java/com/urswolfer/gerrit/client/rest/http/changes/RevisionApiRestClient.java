@@ -35,6 +35,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
 
 import static com.urswolfer.gerrit.client.rest.RestClient.HttpVerb.GET;
 
@@ -91,6 +92,13 @@ public class RevisionApiRestClient extends RevisionApi.NotImplemented implements
         return reviewResultParser.parseReviewResult(reviewResult);
     }
 
+    /**
+     * Runs {@link #review(ReviewInput)} on a background thread (see {@link GerritRestClient#executeInBackground}).
+     */
+    public CompletableFuture<ReviewResult> reviewInBackground(final ReviewInput reviewInput) {
+        return gerritRestClient.executeInBackground(() -> review(reviewInput));
+    }
+
     @Override
     public void submit() throws RestApiException {
         submit(new SubmitInput());
@@ -170,15 +178,13 @@ public class RevisionApiRestClient extends RevisionApi.NotImplemented implements
 
     private SortedMap<String, List<CommentInfo>> comments(String type) throws RestApiException {
         String request = getRequestPath() + '/' + type + '/';
-        JsonElement jsonElement = gerritRestClient.getRequest(request);
-        return commentsParser.parseCommentInfos(jsonElement);
+        return commentsParser.requestCommentInfos(gerritRestClient, request);
     }
 
     @Override
     public Map<String, List<RobotCommentInfo>> robotComments() throws RestApiException {
         String request = getRequestPath() + "/robotcomments/";
-        JsonElement jsonElement = gerritRestClient.getRequest(request);
-        return commentsParser.parseRobotCommentInfos(jsonElement);
+        return commentsParser.requestRobotCommentInfos(gerritRestClient, request);
     }
 
     @Override
@@ -217,8 +223,28 @@ public class RevisionApiRestClient extends RevisionApi.NotImplemented implements
         if (parentNum > 0) {
             request += "?parent=" + parentNum;
         }
-        JsonElement jsonElement = gerritRestClient.getRequest(request);
-        return fileInfoParser.parseFileInfos(jsonElement);
+        return fileInfoParser.requestFileInfos(gerritRestClient, request);
+    }
+
+    /**
+     * Runs {@link #files()} on a background thread (see {@link GerritRestClient#executeInBackground}).
+     */
+    public CompletableFuture<Map<String, FileInfo>> filesInBackground() {
+        return filesInBackground(0);
+    }
+
+    /**
+     * Runs {@link #files(int)} on a background thread (see {@link GerritRestClient#executeInBackground}).
+     */
+    public CompletableFuture<Map<String, FileInfo>> filesInBackground(final int parentNum) {
+        return gerritRestClient.executeInBackground(() -> files(parentNum));
+    }
+
+    /**
+     * @return a new {@link RevisionFilesFetcher} for fetching the diffs and / or contents of all files concurrently
+     */
+    public RevisionFilesFetcher filesFetcher() {
+        return new RevisionFilesFetcher(gerritRestClient, this);
     }
 
     @Override
@@ -237,8 +263,7 @@ public class RevisionApiRestClient extends RevisionApi.NotImplemented implements
     public BinaryResult patch() throws RestApiException {
         String request = getRequestPath() + "/patch";
         try {
-            HttpResponse response = gerritRestClient.request(request, null, GET);
-            return BinaryResultUtils.createBinaryResult(response);
+            return gerritRestClient.requestBinary(request);
         } catch (IOException e) {
             throw RestApiException.wrap("Failed to get patch.", e);
         }
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.gerrit.extensions.api.changes.FileApi;
+import com.google.gerrit.extensions.common.DiffInfo;
+import com.google.gerrit.extensions.common.FileInfo;
+import com.google.gerrit.extensions.restapi.BinaryResult;
+import com.google.gerrit.extensions.restapi.RestApiException;
+import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Fetches the diffs and / or contents of all files of a revision with concurrent requests (instead of one request
+ * after the other). Binary files and files above a size limit are skipped.
+ *
+ * @author Urs Wolfer
+ */
+public class RevisionFilesFetcher {
+    // marks that a worker completed (normally or not)
+    private static final RevisionFile WORKER_DONE = new RevisionFile(null, null);
+
+    private final GerritRestClient gerritRestClient;
+    private final RevisionApiRestClient revisionApiRestClient;
+
+    private boolean diffs = true;
+    private boolean contents;
+    private long maxFileSize = Long.MAX_VALUE;
+    private int parallelism = 8;
+
+    RevisionFilesFetcher(GerritRestClient gerritRestClient, RevisionApiRestClient revisionApiRestClient) {
+        this.gerritRestClient = gerritRestClient;
+        this.revisionApiRestClient = revisionApiRestClient;
+    }
+
+    /**
+     * @param diffs whether diffs are fetched (default: true)
+     */
+    public RevisionFilesFetcher withDiffs(boolean diffs) {
+        this.diffs = diffs;
+        return this;
+    }
+
+    /**
+     * @param contents whether file contents are fetched (default: false)
+     */
+    public RevisionFilesFetcher withContents(boolean contents) {
+        this.contents = contents;
+        return this;
+    }
+
+    /**
+     * @param maxFileSize files which are larger (in this revision) are skipped (default: no limit)
+     */
+    public RevisionFilesFetcher withMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+        return this;
+    }
+
+    /**
+     * @param parallelism maximum number of concurrent requests (default: 8)
+     */
+    public RevisionFilesFetcher withParallelism(int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Requests the file list and then the diffs / contents on the background threads of {@link GerritRestClient}.
+     * Every file is passed to the consumer as soon as it is fetched (in order of completion); the consumer is
+     * always called on the calling thread. Failures of single files are reported in their {@link RevisionFile}; when
+     * the workers stop before all files were fetched (e.g. because of an {@link Error}), a
+     * {@link RestApiException} is thrown.
+     */
+    public void fetch(Consumer<? super RevisionFile> consumer) throws RestApiException {
+        final List<RevisionFile> filesToFetch = new ArrayList<RevisionFile>();
+        for (Map.Entry<String, FileInfo> file : revisionApiRestClient.files().entrySet()) {
+            RevisionFile revisionFile = new RevisionFile(file.getKey(), file.getValue());
+            if (fetchDiff(revisionFile.fileInfo) || fetchContent(revisionFile.fileInfo)) {
+                filesToFetch.add(revisionFile);
+            } else {
+                consumer.accept(revisionFile);
+            }
+        }
+
+        final BlockingQueue<RevisionFile> fetchedFiles = new LinkedBlockingQueue<RevisionFile>();
+        final AtomicInteger nextIndex = new AtomicInteger();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < Math.min(parallelism, filesToFetch.size()); i++) {
+            CompletableFuture<Void> future = gerritRestClient.executeInBackground(() -> {
+                int index;
+                while (!cancelled.get() && (index = nextIndex.getAndIncrement()) < filesToFetch.size()) {
+                    fetchedFiles.add(fetch(filesToFetch.get(index)));
+                }
+                return null;
+            });
+            // queued after all files of this worker
+            future.whenComplete((result, error) -> fetchedFiles.add(WORKER_DONE));
+            futures.add(future);
+        }
+        try {
+            int delivered = 0;
+            int finishedWorkers = 0;
+            while (delivered < filesToFetch.size()) {
+                RevisionFile revisionFile = fetchedFiles.take();
+                if (revisionFile != WORKER_DONE) {
+                    consumer.accept(revisionFile);
+                    delivered++;
+                } else if (++finishedWorkers == futures.size()) {
+                    throw RestApiException.wrap("Failed to fetch files.", getFailure(futures));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw RestApiException.wrap("Interrupted while fetching files.", e);
+        } finally {
+            cancelled.set(true);
+            for (CompletableFuture<Void> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * @return the failure of the first worker which failed (all workers are completed)
+     */
+    private static Exception getFailure(List<CompletableFuture<Void>> futures) {
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.getNow(null);
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                return cause instanceof Exception ? (Exception) cause : new ExecutionException(cause);
+            }
+        }
+        return null;
+    }
+
+    private RevisionFile fetch(RevisionFile revisionFile) {
+        try {
+            FileApi fileApi = revisionApiRestClient.file(revisionFile.path);
+            if (fetchDiff(revisionFile.fileInfo)) {
+                revisionFile.diff = fileApi.diff();
+            }
+            if (fetchContent(revisionFile.fileInfo)) {
+                revisionFile.content = decode(fileApi.content());
+            }
+        } catch (RestApiException e) {
+            revisionFile.error = e;
+        } catch (IOException | RuntimeException e) {
+            revisionFile.error = RestApiException.wrap("Failed to fetch file.", e);
+        }
+        revisionFile.fetched = true;
+        return revisionFile;
+    }
+
+    private boolean fetchDiff(FileInfo fileInfo) {
+        return diffs && isFetchable(fileInfo);
+    }
+
+    private boolean fetchContent(FileInfo fileInfo) {
+        // deleted files have no content in this revision
+        return contents && isFetchable(fileInfo) && !Character.valueOf('D').equals(fileInfo.status);
+    }
+
+    private boolean isFetchable(FileInfo fileInfo) {
+        return !Boolean.TRUE.equals(fileInfo.binary) && fileInfo.size <= maxFileSize;
+    }
+
+    private static byte[] decode(BinaryResult binaryResult) throws IOException {
+        try {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            binaryResult.writeTo(content);
+            return binaryResult.isBase64() ? Base64.getMimeDecoder().decode(content.toByteArray()) : content.toByteArray();
+        } finally {
+            binaryResult.close();
+        }
+    }
+
+    /**
+     * A file of the revision with its fetched diff and / or content.
+     */
+    public static final class RevisionFile {
+        private final String path;
+        private final FileInfo fileInfo;
+        private boolean fetched;
+        private DiffInfo diff;
+        private byte[] content;
+        private RestApiException error;
+
+        private RevisionFile(String path, FileInfo fileInfo) {
+            this.path = path;
+            this.fileInfo = fileInfo;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public FileInfo getFileInfo() {
+            return fileInfo;
+        }
+
+        /**
+         * @return true when nothing was fetched (binary file, too large, or deleted when only content is fetched)
+         */
+        public boolean isSkipped() {
+            return !fetched;
+        }
+
+        public Optional<DiffInfo> getDiff() {
+            return Optional.fromNullable(diff);
+        }
+
+        /**
+         * @return the decoded file content
+         */
+        public Optional<byte[]> getContent() {
+            return Optional.fromNullable(content);
+        }
+
+        public Optional<RestApiException> getError() {
+            return Optional.fromNullable(error);
+        }
+    }
+}
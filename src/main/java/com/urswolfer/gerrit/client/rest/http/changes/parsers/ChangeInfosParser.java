@@ -20,8 +20,11 @@ import com.google.common.reflect.TypeToken;
 import com.google.gerrit.extensions.api.changes.IncludedInInfo;
 import com.google.gerrit.extensions.common.ChangeInfo;
 import com.google.gerrit.extensions.common.ChangeInput;
+import com.google.gerrit.extensions.restapi.RestApiException;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.urswolfer.gerrit.client.rest.RestClient;
+import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
 
 import java.lang.reflect.Type;
 import java.util.Collections;
@@ -36,7 +39,7 @@ import java.util.Set;
  */
 public class ChangeInfosParser {
 
-    private static final Type CHANGEINFO_TYPE = new TypeToken<List<ChangeInfo>>() {}.getType();
+    static final Type CHANGEINFO_TYPE = new TypeToken<List<ChangeInfo>>() {}.getType();
     private static final Type HASHTAG_TYPE = new TypeToken<Set<String>>() {}.getType();
 
     private final Gson gson;
@@ -52,6 +55,22 @@ public class ChangeInfosParser {
         return gson.fromJson(result, CHANGEINFO_TYPE);
     }
 
+    /**
+     * Requests a list of changes and deserializes it directly from the response stream.
+     */
+    public List<ChangeInfo> requestChangeInfos(RestClient restClient, String path) throws RestApiException {
+        return restClient.getRequest(path, CHANGEINFO_TYPE);
+    }
+
+    /**
+     * Like {@link #requestChangeInfos(RestClient, String)}, but deserializes with the given {@link Gson} (e.g. the one
+     * of a {@link com.urswolfer.gerrit.client.rest.http.changes.ChangeInfoProjection}).
+     */
+    public List<ChangeInfo> requestChangeInfos(GerritRestClient gerritRestClient, String path, Gson gson)
+        throws RestApiException {
+        return gerritRestClient.getRequest(path, CHANGEINFO_TYPE, gson);
+    }
+
     public ChangeInfo parseSingleChangeInfo(JsonElement result) {
         return gson.fromJson(result, ChangeInfo.class);
     }
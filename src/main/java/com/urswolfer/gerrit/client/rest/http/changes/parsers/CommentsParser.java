@@ -20,8 +20,10 @@ import com.google.common.reflect.TypeToken;
 import com.google.gerrit.extensions.common.ChangeMessageInfo;
 import com.google.gerrit.extensions.common.CommentInfo;
 import com.google.gerrit.extensions.common.RobotCommentInfo;
+import com.google.gerrit.extensions.restapi.RestApiException;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.urswolfer.gerrit.client.rest.RestClient;
 
 import java.lang.reflect.Type;
 import java.util.List;
@@ -34,9 +36,9 @@ import java.util.TreeMap;
  * @author Thomas Forrer
  */
 public class CommentsParser {
-    private static final Type COMMENT_TYPE = new TypeToken<TreeMap<String, List<CommentInfo>>>() {}.getType();
-    private static final Type ROBOT_COMMENT_TYPE = new TypeToken<TreeMap<String, List<RobotCommentInfo>>>() {}.getType();
-    private static final Type CHANGE_MESSAGE_TYPE = new TypeToken<List<ChangeMessageInfo>>() {}.getType();
+    static final Type COMMENT_TYPE = new TypeToken<TreeMap<String, List<CommentInfo>>>() {}.getType();
+    static final Type ROBOT_COMMENT_TYPE = new TypeToken<TreeMap<String, List<RobotCommentInfo>>>() {}.getType();
+    static final Type CHANGE_MESSAGE_TYPE = new TypeToken<List<ChangeMessageInfo>>() {}.getType();
 
     private final Gson gson;
 
@@ -48,6 +50,14 @@ public class CommentsParser {
         return gson.fromJson(result, COMMENT_TYPE);
     }
 
+    /**
+     * Requests comments (or drafts) and deserializes them directly from the response stream.
+     */
+    public SortedMap<String, List<CommentInfo>> requestCommentInfos(RestClient restClient, String path)
+        throws RestApiException {
+        return restClient.getRequest(path, COMMENT_TYPE);
+    }
+
     public CommentInfo parseSingleCommentInfo(JsonElement result) {
         return gson.fromJson(result, CommentInfo.class);
     }
@@ -56,6 +66,14 @@ public class CommentsParser {
         return gson.fromJson(result, ROBOT_COMMENT_TYPE);
     }
 
+    /**
+     * Requests robot comments and deserializes them directly from the response stream.
+     */
+    public SortedMap<String, List<RobotCommentInfo>> requestRobotCommentInfos(RestClient restClient, String path)
+        throws RestApiException {
+        return restClient.getRequest(path, ROBOT_COMMENT_TYPE);
+    }
+
     public RobotCommentInfo parseSingleRobotCommentInfo(JsonElement result) {
         return gson.fromJson(result, RobotCommentInfo.class);
     }
@@ -64,6 +82,14 @@ public class CommentsParser {
         return gson.fromJson(result, CHANGE_MESSAGE_TYPE);
     }
 
+    /**
+     * Requests change messages and deserializes them directly from the response stream.
+     */
+    public List<ChangeMessageInfo> requestChangeMessageInfos(RestClient restClient, String path)
+        throws RestApiException {
+        return restClient.getRequest(path, CHANGE_MESSAGE_TYPE);
+    }
+
     public ChangeMessageInfo parseSingleChangeMessageInfo(JsonElement result) {
         return gson.fromJson(result, ChangeMessageInfo.class);
     }
@@ -21,9 +21,11 @@ import com.google.gerrit.extensions.common.ActionInfo;
 import com.google.gerrit.extensions.common.CommitInfo;
 import com.google.gerrit.extensions.common.DiffInfo;
 import com.google.gerrit.extensions.common.EditInfo;
+import com.google.gerrit.extensions.restapi.RestApiException;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.urswolfer.gerrit.client.rest.RestClient;
 
 import java.lang.reflect.Type;
 import java.util.Collections;
@@ -57,6 +59,13 @@ public class CommitInfosParser {
         return gson.fromJson(jsonElement, DiffInfo.class);
     }
 
+    /**
+     * Requests a diff and deserializes it directly from the response stream.
+     */
+    public DiffInfo requestDiffInfo(RestClient restClient, String path) throws RestApiException {
+        return restClient.getRequest(path, DiffInfo.class);
+    }
+
     public List<CommitInfo> parseCommitInfos(JsonElement result) {
         if (!result.isJsonArray()) {
             return Collections.singletonList(gson.fromJson(result, CommitInfo.class));
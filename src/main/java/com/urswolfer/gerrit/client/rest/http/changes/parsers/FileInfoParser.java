@@ -18,8 +18,10 @@ package com.urswolfer.gerrit.client.rest.http.changes.parsers;
 
 import com.google.common.reflect.TypeToken;
 import com.google.gerrit.extensions.common.FileInfo;
+import com.google.gerrit.extensions.restapi.RestApiException;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.urswolfer.gerrit.client.rest.RestClient;
 
 import java.lang.reflect.Type;
 import java.util.LinkedHashMap;
@@ -29,7 +31,7 @@ import java.util.Map;
  * @author Thomas Forrer
  */
 public class FileInfoParser {
-    private static final Type TYPE = new TypeToken<LinkedHashMap<String, FileInfo>>() {}.getType();
+    static final Type TYPE = new TypeToken<LinkedHashMap<String, FileInfo>>() {}.getType();
 
     private final Gson gson;
 
@@ -40,4 +42,11 @@ public class FileInfoParser {
     public Map<String, FileInfo> parseFileInfos(JsonElement jsonElement) {
         return gson.fromJson(jsonElement, TYPE);
     }
+
+    /**
+     * Requests the files of a revision and deserializes them directly from the response stream.
+     */
+    public Map<String, FileInfo> requestFileInfos(RestClient restClient, String path) throws RestApiException {
+        return restClient.getRequest(path, TYPE);
+    }
 }
@@ -25,17 +25,23 @@ import com.urswolfer.gerrit.client.rest.http.config.parsers.ServerConfigParser;
  * @author Urs Wolfer
  */
 public class ConfigRestClient extends Config.NotImplemented implements Config {
-    private final GerritRestClient gerritRestClient;
-
-    private final ServerConfigParser serverConfigParser;
+    private final ServerRestClient serverRestClient;
 
+    /**
+     * @deprecated Creates its own {@link ServerRestClient}, so the server version is not shared with other clients.
+     * Use {@link #ConfigRestClient(ServerRestClient)} with the shared instance instead.
+     */
+    @Deprecated
     public ConfigRestClient(GerritRestClient gerritRestClient, ServerConfigParser serverConfigParser) {
-        this.gerritRestClient = gerritRestClient;
-        this.serverConfigParser = serverConfigParser;
+        this(new ServerRestClient(gerritRestClient, serverConfigParser));
+    }
+
+    public ConfigRestClient(ServerRestClient serverRestClient) {
+        this.serverRestClient = serverRestClient;
     }
 
     @Override
     public Server server() {
-        return new ServerRestClient(gerritRestClient, serverConfigParser);
+        return serverRestClient;
     }
 }
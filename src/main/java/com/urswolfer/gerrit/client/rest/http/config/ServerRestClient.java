@@ -16,6 +16,7 @@
 
 package com.urswolfer.gerrit.client.rest.http.config;
 
+import com.google.common.base.Ticker;
 import com.google.gerrit.extensions.api.config.ConsistencyCheckInfo;
 import com.google.gerrit.extensions.api.config.ConsistencyCheckInput;
 import com.google.gerrit.extensions.api.config.Server;
@@ -29,43 +30,69 @@ import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
 import com.urswolfer.gerrit.client.rest.http.HttpStatusException;
 import com.urswolfer.gerrit.client.rest.http.config.parsers.ServerConfigParser;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.apache.http.HttpStatus.SC_NOT_FOUND;
 
 /**
+ * Besides the REST calls, this client caches server capabilities (version and {@link ServerInfo}). One instance
+ * is shared by the change, revision and config clients of a {@link com.urswolfer.gerrit.client.rest.GerritApiImpl}
+ * (the other clients send no version dependent requests), so the version is requested only once and not for every
+ * change.
+ *
  * @author Urs Wolfer
  */
 public class ServerRestClient extends Server.NotImplemented implements Server {
     private final GerritRestClient gerritRestClient;
-    private final AtomicReference<String> version = new AtomicReference<>();
     private final ServerConfigParser serverConfigParser;
+    private final Ticker ticker;
+    private final AtomicReference<CachedValue<String>> version = new AtomicReference<>();
+    private final AtomicReference<CachedValue<ServerInfo>> info = new AtomicReference<>();
+    private volatile long cacheTimeoutNanos = 0;
 
     public ServerRestClient(GerritRestClient gerritRestClient, ServerConfigParser serverConfigParser) {
+        this(gerritRestClient, serverConfigParser, Ticker.systemTicker());
+    }
+
+    ServerRestClient(GerritRestClient gerritRestClient, ServerConfigParser serverConfigParser, Ticker ticker) {
         this.gerritRestClient = gerritRestClient;
         this.serverConfigParser = serverConfigParser;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Cached server version and info are requested again after this timeout (e.g. to notice server upgrades in
+     * long-running applications). With a timeout of 0 (default), they are cached forever.
+     */
+    public void setCacheTimeout(long timeout, TimeUnit timeUnit) {
+        this.cacheTimeoutNanos = Math.max(0, timeUnit.toNanos(timeout));
     }
 
     @Override
     public String getVersion() throws RestApiException {
+        String gerritVersion;
         try {
             JsonElement jsonElement = gerritRestClient.getRequest("/config/server/version");
-            version.set(jsonElement.getAsString());
-            return version.get();
+            gerritVersion = jsonElement.getAsString();
         } catch (HttpStatusException e) {
             int statusCode = e.getStatusCode();
             if (statusCode == SC_NOT_FOUND) { // Gerrit older than 2.8
-                return "<2.8";
+                gerritVersion = "<2.8";
             } else {
                 throw e;
             }
         }
+        version.set(newCachedValue(gerritVersion));
+        return gerritVersion;
     }
 
     @Override
     public ServerInfo getInfo() throws RestApiException {
         JsonElement result = gerritRestClient.getRequest("/config/server/info");
-        return serverConfigParser.parseServerInfo(result);
+        ServerInfo serverInfo = serverConfigParser.parseServerInfo(result);
+        info.set(newCachedValue(serverInfo));
+        return serverInfo;
     }
 
     @Override
@@ -115,7 +142,58 @@ public class ServerRestClient extends Server.NotImplemented implements Server {
     }
 
     public String getVersionCached() throws RestApiException {
-        String gerritVersion = version.get();
-        return gerritVersion == null ? getVersion() : gerritVersion;
+        return getCached(version, this::getVersion);
+    }
+
+    /**
+     * Like {@link #getInfo()}, but the result is cached. The returned instance is shared and must not be modified.
+     */
+    public ServerInfo getInfoCached() throws RestApiException {
+        return getCached(info, this::getInfo);
+    }
+
+    /**
+     * Returns the cached value or loads it; concurrent callers wait for a single load instead of each sending its
+     * own request when the value is missing or expired.
+     */
+    private <T> T getCached(AtomicReference<CachedValue<T>> cache, Loader<T> loader) throws RestApiException {
+        CachedValue<T> cachedValue = cache.get();
+        if (isValid(cachedValue)) {
+            return cachedValue.value;
+        }
+        synchronized (cache) {
+            cachedValue = cache.get();
+            if (isValid(cachedValue)) {
+                return cachedValue.value;
+            }
+            // the loader updates the cache
+            return loader.load();
+        }
+    }
+
+    private <T> CachedValue<T> newCachedValue(T value) {
+        return new CachedValue<T>(value, ticker.read());
+    }
+
+    private boolean isValid(CachedValue<?> cachedValue) {
+        if (cachedValue == null) {
+            return false;
+        }
+        long timeoutNanos = cacheTimeoutNanos;
+        return timeoutNanos == 0 || ticker.read() - cachedValue.createdNanos < timeoutNanos;
+    }
+
+    private interface Loader<T> {
+        T load() throws RestApiException;
+    }
+
+    private static final class CachedValue<T> {
+        private final T value;
+        private final long createdNanos;
+
+        private CachedValue(T value, long createdNanos) {
+            this.value = value;
+            this.createdNanos = createdNanos;
+        }
     }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.common.reflect.TypeToken;
+import com.google.common.truth.Truth;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gson.Gson;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * @author Urs Wolfer
+ */
+public class ChangeInfoListTypeAdapterFactoryTest {
+    private static final Type CHANGE_INFO_LIST_TYPE = new TypeToken<List<ChangeInfo>>() {}.getType();
+
+    private final Gson gson = GsonFactory.create();
+
+    @Test
+    public void testReadsArray() throws Exception {
+        List<ChangeInfo> changeInfos = gson.fromJson("[{\"_number\": 1}, {\"_number\": 2}]",
+            CHANGE_INFO_LIST_TYPE);
+
+        Truth.assertThat(changeInfos).hasSize(2);
+        Truth.assertThat(changeInfos.get(1)._number).isEqualTo(2);
+    }
+
+    @Test
+    public void testReadsSingleChangeAsList() throws Exception {
+        List<ChangeInfo> changeInfos = gson.fromJson("{\"_number\": 1}", CHANGE_INFO_LIST_TYPE);
+
+        Truth.assertThat(changeInfos).hasSize(1);
+        Truth.assertThat(changeInfos.get(0)._number).isEqualTo(1);
+    }
+}
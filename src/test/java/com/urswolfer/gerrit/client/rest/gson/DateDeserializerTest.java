@@ -44,15 +44,23 @@ public class DateDeserializerTest extends DateFormatterTest {
         dateDeserializer.deserialize(jsonElement, null, null);
     }
 
+    @Test(expectedExceptions = JsonParseException.class)
+    public void testInvalidDay() throws Exception {
+        JsonElement jsonElement = getJsonElementForDateString("2015-02-29 12:12:44.123000000");
+        dateDeserializer.deserialize(jsonElement, null, null);
+    }
+
     @DataProvider(name = "TestCases")
     public Iterator<TestCase[]> getTestCases() throws Exception {
         return Lists.newArrayList(
                 forDateString("2013-07-21 14:23:59.207000000")
-                        .utcDate(2013, 7, 21, 14, 23, 59),
+                        .utcDate(2013, 7, 21, 14, 23, 59, 207),
                 forDateString("2014-01-12 07:12:22.090000000")
-                        .utcDate(2014, 1, 12, 7, 12, 22),
+                        .utcDate(2014, 1, 12, 7, 12, 22, 90),
                 forDateString("2015-12-05 23:59:59.000000000")
-                        .utcDate(2015, 12, 5, 23, 59, 59)
+                        .utcDate(2015, 12, 5, 23, 59, 59),
+                forDateString("2016-02-29 00:00:00")
+                        .utcDate(2016, 2, 29, 0, 0, 0)
         ).iterator();
     }
 }
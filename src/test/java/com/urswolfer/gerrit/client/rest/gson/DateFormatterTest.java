@@ -48,9 +48,13 @@ public abstract class DateFormatterTest {
         }
 
         TestCase[] utcDate(int year, int month, int day, int hours, int minutes, int seconds) {
+            return utcDate(year, month, day, hours, minutes, seconds, 0);
+        }
+
+        TestCase[] utcDate(int year, int month, int day, int hours, int minutes, int seconds, int milliseconds) {
             Calendar utc = GregorianCalendar.getInstance(TimeZone.getTimeZone("UTC"));
             utc.set(year, month - 1, day, hours, minutes, seconds);
-            utc.set(Calendar.MILLISECOND, 0);
+            utc.set(Calendar.MILLISECOND, milliseconds);
             this.date = utc.getTime();
             return new TestCase[]{this};
         }
@@ -44,7 +44,9 @@ public class DateSerializerTest extends DateFormatterTest {
                 forDateString("2014-01-12 07:12:22")
                         .utcDate(2014, 1, 12, 7, 12, 22),
                 forDateString("2015-12-05 23:59:59")
-                        .utcDate(2015, 12, 5, 23, 59, 59)
+                        .utcDate(2015, 12, 5, 23, 59, 59),
+                forDateString("1969-12-31 23:59:59.999000000")
+                        .utcDate(1969, 12, 31, 23, 59, 59, 999)
         ).iterator();
     }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.common.truth.Truth;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.testng.annotations.Test;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * @author Urs Wolfer
+ */
+public class DateTypeAdapterTest {
+    private final Gson gson = GsonFactory.create();
+
+    @Test
+    public void testTimestampKeepsNanoseconds() throws Exception {
+        Timestamp timestamp = DateFormatter.parse("2013-02-01 09:59:32.126000123");
+
+        Truth.assertThat(timestamp.getTime()).isEqualTo(1359712772126L);
+        Truth.assertThat(timestamp.getNanos()).isEqualTo(126000123);
+        Truth.assertThat(DateFormatter.format(timestamp)).isEqualTo("2013-02-01 09:59:32.126000123");
+    }
+
+    @Test
+    public void testShortFraction() throws Exception {
+        Truth.assertThat(DateFormatter.parse("2013-02-01 09:59:32.5").getNanos()).isEqualTo(500000000);
+    }
+
+    @Test
+    public void testSameAsJavaTime() throws Exception {
+        for (long millis = -62000000000000L; millis < 253000000000000L; millis += 987654321987L) {
+            Timestamp timestamp = new Timestamp(millis);
+            String formatted = DateFormatter.format(timestamp);
+            String expected = timestamp.toInstant().toString().replace('T', ' ').replace("Z", "");
+
+            Truth.assertThat(formatted.substring(0, 19)).isEqualTo(expected.substring(0, 19));
+            Truth.assertThat(DateFormatter.parse(formatted)).isEqualTo(timestamp);
+        }
+    }
+
+    @Test
+    public void testChangeInfoTimestamps() throws Exception {
+        ChangeInfo changeInfo = gson.fromJson(
+            "{\"created\":\"2013-02-01 09:59:32.126000000\",\"updated\":\"2013-02-21 11:16:36.775123456\"}",
+            ChangeInfo.class);
+
+        Truth.assertThat(changeInfo.created.getTime()).isEqualTo(1359712772126L);
+        Truth.assertThat(changeInfo.updated.getNanos()).isEqualTo(775123456);
+        Truth.assertThat(gson.toJson(changeInfo))
+            .isEqualTo("{\"created\":\"2013-02-01 09:59:32.126000000\",\"updated\":\"2013-02-21 11:16:36.775123456\"," +
+                "\"_number\":0}");
+    }
+
+    @Test
+    public void testDate() throws Exception {
+        Date date = gson.fromJson("\"2013-02-01 09:59:32.126000000\"", Date.class);
+
+        Truth.assertThat(date.getClass()).isEqualTo(Date.class);
+        Truth.assertThat(date.getTime()).isEqualTo(1359712772126L);
+        Truth.assertThat(gson.toJson(date)).isEqualTo("\"2013-02-01 09:59:32.126000000\"");
+        Truth.assertThat(gson.fromJson("null", Date.class)).isNull();
+    }
+
+    @Test
+    public void testInvalidDates() throws Exception {
+        String[] invalidDates = {"", "2013-02-01", "2013-02-01T09:59:32", "2013-02-01 09:59:32.", "2013-13-01 09:59:32",
+            "2013-02-01 24:00:00", "2013-02-01 09:59:32.1234567890", "2013-02-01 09:59:32.12a", "2013-02-01 09:5a:32"};
+        for (String invalidDate : invalidDates) {
+            try {
+                DateFormatter.parse(invalidDate);
+                Truth.assertWithMessage(invalidDate).fail();
+            } catch (JsonParseException e) {
+                Truth.assertThat(e.getMessage()).contains(invalidDate);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.gson;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import com.google.common.truth.Truth;
+import com.google.gerrit.extensions.common.AccountInfo;
+import com.google.gerrit.extensions.common.ApprovalInfo;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gerrit.extensions.common.CommentInfo;
+import com.google.gerrit.extensions.common.DiffInfo;
+import com.google.gerrit.extensions.common.FileInfo;
+import com.google.gerrit.extensions.common.LabelInfo;
+import com.google.gerrit.extensions.common.RevisionInfo;
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Type;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the hand-written adapters with the reflective adapters.
+ *
+ * @author Urs Wolfer
+ */
+public class ModelTypeAdapterFactoryTest {
+    private static final String PARSERS = "com/urswolfer/gerrit/client/rest/http/changes/parsers/";
+
+    private final Gson gson = GsonFactory.create();
+    private final Gson reflectiveGson = new GsonBuilder()
+        .registerTypeAdapter(Date.class, DateTypeAdapter.DATE)
+        .registerTypeAdapter(Timestamp.class, DateTypeAdapter.TIMESTAMP)
+        .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+        .create();
+
+    @DataProvider(name = "Resources")
+    public Object[][] getResources() {
+        return new Object[][]{
+            {"change.json", ChangeInfo.class},
+            {"changes.json", new TypeToken<List<ChangeInfo>>() {}.getType()},
+            {"comments.json", new TypeToken<Map<String, List<CommentInfo>>>() {}.getType()},
+            {"diff.json", DiffInfo.class},
+            {"files.json", new TypeToken<Map<String, FileInfo>>() {}.getType()},
+        };
+    }
+
+    @Test(dataProvider = "Resources")
+    public void testParityWithReflectiveAdapters(String resource, Type type) throws Exception {
+        String json = Resources.toString(Resources.getResource(PARSERS + resource), Charsets.UTF_8);
+        json = json.substring(json.indexOf('\n') + 1); // ")]}'" prefix
+
+        assertSameAsReflective(json, type);
+    }
+
+    @Test
+    public void testParityForAllFields() throws Exception {
+        String account = "{\"_account_id\":1000,\"name\":\"A\",\"display_name\":\"a\",\"email\":\"a@example.com\","
+            + "\"secondary_emails\":[\"b@example.com\"],\"username\":\"a\",\"avatars\":[{\"url\":\"u\",\"height\":16}],"
+            + "\"_more_accounts\":true,\"status\":\"away\",\"inactive\":false}";
+        String approval = "{\"_account_id\":1001,\"value\":-1,\"date\":\"2013-02-01 09:59:32.126000000\","
+            + "\"tag\":\"autogenerated:ci\",\"post_submit\":true,\"permitted_voting_range\":{\"min\":-2,\"max\":2}}";
+        String label = "{\"approved\":" + account + ",\"rejected\":null,\"all\":[" + approval + "],"
+            + "\"values\":{\"-1\":\"No\",\" 0\":\"Maybe\"},\"value\":1,\"default_value\":0,\"optional\":true,"
+            + "\"blocking\":false}";
+        String revision = "{\"kind\":\"REWORK\",\"_number\":2,\"created\":\"2013-02-01 09:59:32.126000000\","
+            + "\"uploader\":" + account + ",\"ref\":\"refs/changes/97/97/2\","
+            + "\"fetch\":{\"http\":{\"url\":\"u\",\"ref\":\"r\"}},\"commit\":{\"subject\":\"s\"},"
+            + "\"files\":{\"a.txt\":{\"status\":\"A\",\"lines_inserted\":\"3\",\"size_delta\":12,\"size\":null}},"
+            + "\"commit_with_footers\":\"c\",\"description\":\"d\",\"unknown\":{\"x\":[1,2]}}";
+        String change = "{\"id\":\"p~master~I1\",\"project\":\"p\",\"branch\":\"master\",\"topic\":null,"
+            + "\"attention_set\":{\"1000\":{\"account\":" + account + ",\"reason\":\"r\"}},"
+            + "\"hashtags\":[\"h\"],\"change_id\":\"I1\",\"subject\":\"s\",\"status\":\"NEW\","
+            + "\"created\":\"2013-02-01 09:59:32.126000000\",\"updated\":\"2013-02-21 11:16:36.775000000\","
+            + "\"submitter\":" + account + ",\"starred\":true,\"stars\":[\"star\"],\"reviewed\":true,"
+            + "\"submit_type\":\"MERGE_IF_NECESSARY\",\"mergeable\":true,\"submittable\":false,\"insertions\":3,"
+            + "\"deletions\":1,\"total_comment_count\":5,\"unresolved_comment_count\":1,\"is_private\":false,"
+            + "\"work_in_progress\":true,\"has_review_started\":true,\"revert_of\":7,\"submission_id\":\"97\","
+            + "\"cherry_pick_of_change\":8,\"cherry_pick_of_patch_set\":1,\"contains_git_conflicts\":false,"
+            + "\"_number\":97,\"owner\":" + account + ",\"labels\":{\"Code-Review\":" + label + "},"
+            + "\"permitted_labels\":{\"Code-Review\":[\"-1\",\"+1\"]},\"removable_reviewers\":[" + account + "],"
+            + "\"reviewers\":{\"REVIEWER\":[" + account + "]},\"pending_reviewers\":{\"CC\":[" + account + "]},"
+            + "\"messages\":[{\"id\":\"m\",\"author\":" + account + ",\"message\":\"msg\"}],"
+            + "\"current_revision\":\"184ebe53805e102605d11f6b143486d15c23a09c\","
+            + "\"revisions\":{\"184ebe53805e102605d11f6b143486d15c23a09c\":" + revision + "},"
+            + "\"_more_changes\":true,\"_sortkey\":\"k\",\"tracking_ids\":[{\"system\":\"s\",\"id\":\"1\"}]}";
+        String comment = "{\"patch_set\":2,\"id\":\"c\",\"path\":\"a.txt\",\"side\":\"PARENT\",\"parent\":1,"
+            + "\"line\":3,\"range\":{\"start_line\":3,\"start_character\":0,\"end_line\":3,\"end_character\":4},"
+            + "\"in_reply_to\":\"b\",\"updated\":\"2013-02-01 09:59:32.126000000\",\"message\":\"m\","
+            + "\"unresolved\":true,\"commit_id\":\"abc\",\"author\":" + account + ",\"tag\":\"t\","
+            + "\"change_message_id\":\"cm\"}";
+        String diff = "{\"meta_a\":{\"name\":\"a.txt\",\"content_type\":\"text/plain\",\"lines\":3},"
+            + "\"meta_b\":{\"name\":\"a.txt\",\"content_type\":\"text/plain\",\"lines\":4},"
+            + "\"intraline_status\":\"OK\",\"change_type\":\"MODIFIED\",\"diff_header\":[\"diff --git\"],"
+            + "\"content\":[{\"ab\":[\"x\"]},{\"a\":[\"y\"],\"b\":[\"z\"],\"edit_a\":[[0,1]]},{\"skip\":4}],"
+            + "\"binary\":false}";
+
+        assertSameAsReflective(account, AccountInfo.class);
+        assertSameAsReflective(approval, ApprovalInfo.class);
+        assertSameAsReflective(label, LabelInfo.class);
+        assertSameAsReflective(revision, RevisionInfo.class);
+        assertSameAsReflective(change, ChangeInfo.class);
+        assertSameAsReflective(comment, CommentInfo.class);
+        assertSameAsReflective(diff, DiffInfo.class);
+        assertSameAsReflective("null", ChangeInfo.class);
+        assertSameAsReflective("{\"_number\":null}", ChangeInfo.class);
+    }
+
+    @Test
+    public void testHandWrittenAdaptersAreUsed() throws Exception {
+        Truth.assertThat(gson.getAdapter(ChangeInfo.class)).isInstanceOf(ChangeInfoTypeAdapter.class);
+        Truth.assertThat(gson.getAdapter(ApprovalInfo.class)).isInstanceOf(ApprovalInfoTypeAdapter.class);
+    }
+
+    @Test
+    public void testWriteIsUnchanged() throws Exception {
+        ChangeInfo changeInfo = new ChangeInfo();
+        changeInfo._number = 97;
+        changeInfo.isPrivate = true;
+        changeInfo.owner = new AccountInfo(1000);
+
+        Truth.assertThat(gson.toJson(changeInfo)).isEqualTo(reflectiveGson.toJson(changeInfo));
+    }
+
+    private void assertSameAsReflective(String json, Type type) {
+        Object parsed = gson.fromJson(json, type);
+        Object parsedReflectively = reflectiveGson.fromJson(json, type);
+        Truth.assertThat(reflectiveGson.toJson(parsed)).isEqualTo(reflectiveGson.toJson(parsedReflectively));
+    }
+}
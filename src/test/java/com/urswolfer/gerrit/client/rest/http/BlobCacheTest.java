@@ -0,0 +1,117 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.truth.Truth;
+import com.google.gerrit.extensions.restapi.BinaryResult;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author Urs Wolfer
+ */
+public class BlobCacheTest {
+    private static final String SHA = "3a6f8b1c2d4e5f60718293a4b5c6d7e8f9012345";
+
+    @Test
+    public void testIsCacheable() throws Exception {
+        Truth.assertThat(BlobCache.isCacheable("/changes/1/revisions/" + SHA + "/files/a%2Fb.txt/content")).isTrue();
+        Truth.assertThat(BlobCache.isCacheable("/changes/1/revisions/" + SHA + "/patch?zip")).isTrue();
+        Truth.assertThat(BlobCache.isCacheable("/changes/1/revisions/current/patch")).isFalse();
+        Truth.assertThat(BlobCache.isCacheable("/projects/p/branches/master/files/a.txt/content")).isFalse();
+    }
+
+    @Test
+    public void testPutAndGetAfterRestart() throws Exception {
+        Path directory = Files.createTempDirectory("blob-cache");
+        BlobCache blobCache = new BlobCache(directory, 1024);
+
+        Truth.assertThat(blobCache.get("key").isPresent()).isFalse();
+        BinaryResult putResult = blobCache.put("key", response("SGVsbG8=", "text/plain"));
+        Truth.assertThat(putResult.asString()).isEqualTo("SGVsbG8=");
+
+        BinaryResult cachedResult = new BlobCache(directory, 1024).get("key").get();
+        Truth.assertThat(cachedResult.asString()).isEqualTo("SGVsbG8=");
+        Truth.assertThat(cachedResult.getContentType()).isEqualTo("text/plain");
+        Truth.assertThat(cachedResult.isBase64()).isTrue();
+        Truth.assertThat(cachedResult.getContentLength()).isEqualTo(8);
+        deleteDirectory(directory);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        Path directory = Files.createTempDirectory("blob-cache");
+        BlobCache blobCache = new BlobCache(directory, 300);
+
+        blobCache.put("key1", response(repeat('a', 100), "text/plain"));
+        blobCache.put("key2", response(repeat('b', 100), "text/plain"));
+        Truth.assertThat(blobCache.get("key1").isPresent()).isTrue();
+        blobCache.put("key3", response(repeat('c', 100), "text/plain"));
+
+        Truth.assertThat(blobCache.get("key1").isPresent()).isTrue();
+        Truth.assertThat(blobCache.get("key2").isPresent()).isFalse();
+        Truth.assertThat(blobCache.get("key3").isPresent()).isTrue();
+        Truth.assertThat(directory.toFile().list()).hasLength(2);
+        deleteDirectory(directory);
+    }
+
+    @Test
+    public void testUsesFilesOfOtherProcesses() throws Exception {
+        Path directory = Files.createTempDirectory("blob-cache");
+        BlobCache blobCache = new BlobCache(directory, 1024);
+        BlobCache otherBlobCache = new BlobCache(directory, 1024);
+
+        otherBlobCache.put("key", response("SGVsbG8=", "text/plain"));
+        Truth.assertThat(blobCache.get("key").get().asString()).isEqualTo("SGVsbG8=");
+
+        // the result of put does not depend on the file, which another process might replace or delete
+        BinaryResult putResult = blobCache.put("key2", response("V29ybGQ=", "text/plain"));
+        deleteDirectory(directory);
+        Truth.assertThat(putResult.asString()).isEqualTo("V29ybGQ=");
+        Truth.assertThat(putResult.isBase64()).isTrue();
+    }
+
+    private static HttpResponse response(String content, String contentType) {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new ByteArrayEntity(content.getBytes(StandardCharsets.UTF_8)));
+        response.setHeader("X-FYI-Content-Type", contentType);
+        response.setHeader("X-FYI-Content-Encoding", "base64");
+        return response;
+    }
+
+    private static String repeat(char c, int count) {
+        return new String(new char[count]).replace('\0', c);
+    }
+
+    private static void deleteDirectory(Path directory) {
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.truth.Truth;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Urs Wolfer
+ */
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void testLimitGrowsWhileUsed() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter().withInitialLimit(2);
+        for (int i = 0; i < 4; i++) {
+            Truth.assertThat(limiter.acquire()).isTrue();
+            Truth.assertThat(limiter.acquire()).isTrue();
+            limiter.release(100, false);
+            limiter.release(100, false);
+        }
+        Truth.assertThat(limiter.getLimit()).isEqualTo(3);
+        Truth.assertThat(limiter.getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void testLimitIsCutOnOverload() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter().withInitialLimit(20).withLimitRange(4, 100);
+
+        limiter.acquire();
+        limiter.release(100, true);
+        Truth.assertThat(limiter.getLimit()).isEqualTo(10);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+            limiter.release(100, true);
+        }
+        Truth.assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    public void testLimitIsCutOnceWhenLatencyIncreases() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter().withInitialLimit(10).withLimitRange(1, 10);
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(100, false);
+        }
+        Truth.assertThat(limiter.getLimit()).isEqualTo(10);
+
+        // the median only rises after half of the recent requests are slow, afterwards the limit is cut once per round
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire();
+            limiter.release(1000, false);
+        }
+        Truth.assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    public void testLimitIsNotCutBySlowRequestsBetweenFastOnes() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter().withInitialLimit(10).withLimitRange(1, 10);
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire();
+            limiter.release(i % 5 == 0 ? 2000 : 20, false);
+        }
+        Truth.assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void testLimitIsCutOnErrors() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter().withInitialLimit(10).withLimitRange(1, 10);
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire();
+            limiter.release(100, false);
+            if (i % 20 == 0) {
+                limiter.acquire();
+                limiter.releaseFailed();
+            }
+        }
+        Truth.assertThat(limiter.getLimit()).isEqualTo(10);
+
+        // the limit is cut once per round while the error rate is high
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+            limiter.releaseFailed();
+        }
+        Truth.assertThat(limiter.getLimit()).isEqualTo(9);
+        Truth.assertThat(limiter.getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void testUnusedSlotDoesNotChangeLimit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter().withInitialLimit(1).withLimitRange(1, 10);
+        for (int i = 0; i < 10; i++) {
+            Truth.assertThat(limiter.acquire()).isTrue();
+            limiter.releaseUnused();
+        }
+        Truth.assertThat(limiter.getLimit()).isEqualTo(1);
+        Truth.assertThat(limiter.getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void testWaitsForFreeSlot() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter().withInitialLimit(1)
+            .withLimitRange(1, 1)
+            .withMaxWait(10, TimeUnit.MILLISECONDS);
+        Truth.assertThat(limiter.acquire()).isTrue();
+        Truth.assertThat(limiter.acquire()).isFalse();
+
+        limiter.withMaxWait(1, TimeUnit.MINUTES);
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(20);
+        Truth.assertThat(waiting.isDone()).isFalse();
+        limiter.release(100, false);
+        Truth.assertThat(waiting.get(10, TimeUnit.SECONDS)).isTrue();
+        Truth.assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+}
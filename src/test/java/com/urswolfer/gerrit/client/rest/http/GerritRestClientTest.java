@@ -17,17 +17,35 @@
 package com.urswolfer.gerrit.client.rest.http;
 
 import com.google.common.base.Charsets;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.truth.Truth;
 import com.google.gerrit.extensions.api.GerritApi;
 import com.google.gerrit.extensions.common.AccountInfo;
 import com.google.gerrit.extensions.common.ChangeInfo;
 import com.google.gerrit.extensions.common.ProjectInfo;
 import com.google.gerrit.extensions.restapi.RestApiException;
+import com.google.gson.JsonElement;
 import com.urswolfer.gerrit.client.rest.GerritAuthData;
 import com.urswolfer.gerrit.client.rest.GerritRestApi;
 import com.urswolfer.gerrit.client.rest.GerritRestApiFactory;
+import com.urswolfer.gerrit.client.rest.http.changes.ChangesRestClient;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
 import org.eclipse.jetty.http.MimeTypes;
 import org.eclipse.jetty.security.ConstraintMapping;
 import org.eclipse.jetty.security.ConstraintSecurityHandler;
@@ -43,6 +61,7 @@ import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.util.resource.FileResource;
 import org.eclipse.jetty.util.security.Constraint;
 import org.eclipse.jetty.util.security.Credential;
+import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
@@ -52,8 +71,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Field;
+import java.net.SocketException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.urswolfer.gerrit.client.rest.RestClient.HttpVerb.GET;
 import static com.urswolfer.gerrit.client.rest.RestClient.HttpVerb.HEAD;
@@ -205,6 +230,199 @@ public class GerritRestClientTest {
         gerritClient.accounts().id("null_json").get();
     }
 
+    @Test
+    public void testTypedRequest() throws Exception {
+        GerritRestApi gerritClient = getGerritApiWithJettyHost();
+        AccountInfo accountInfo = gerritClient.restClient().getRequest("/accounts/self", AccountInfo.class);
+        Truth.assertThat(accountInfo.name).isEqualTo("John Doe");
+    }
+
+    @Test
+    public void testGetChangesStreaming() throws Exception {
+        GerritRestApi gerritClient = getGerritApiWithJettyHost();
+        ChangesRestClient changes = (ChangesRestClient) gerritClient.changes();
+        List<ChangeInfo> changeInfos = Lists.newArrayList();
+        changes.query(changes.query(), changeInfos::add);
+        Truth.assertThat(changeInfos.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void testStreamingRequestWithSingleObject() throws Exception {
+        GerritRestApi gerritClient = getGerritApiWithJettyHost();
+        List<AccountInfo> accountInfos = Lists.newArrayList();
+        gerritClient.restClient().<AccountInfo>getRequestArray("/accounts/self", AccountInfo.class, accountInfos::add);
+        Truth.assertThat(accountInfos).hasSize(1);
+        Truth.assertThat(accountInfos.get(0).name).isEqualTo("John Doe");
+    }
+
+    @Test(expectedExceptions = RestApiException.class)
+    public void testStreamingRequestWithoutArray() throws Exception {
+        GerritRestApi gerritClient = getGerritApiWithJettyHost();
+        gerritClient.restClient().getRequestArray("/accounts/null_json", AccountInfo.class, accountInfo -> {});
+    }
+
+    @Test
+    public void testConditionalRequestUsesCachedResponse() throws Exception {
+        final List<Integer> statusCodes = Lists.newArrayList();
+        HttpRequestExecutor httpRequestExecutor = new HttpRequestExecutor() {
+            @Override
+            public HttpResponse execute(HttpClientBuilder client, HttpRequestBase method, HttpContext context) throws IOException {
+                HttpResponse response = super.execute(client, method, context);
+                if (method.getURI().getPath().equals("/accounts/self")) {
+                    statusCodes.add(response.getStatusLine().getStatusCode());
+                }
+                return response;
+            }
+        };
+        GerritRestClient gerritRestClient = new GerritRestClient(new GerritAuthData.Basic(jettyUrl), httpRequestExecutor);
+        gerritRestClient.setResponseCacheSize(10);
+
+        JsonElement first = gerritRestClient.getRequest("/accounts/self");
+        first.getAsJsonObject().addProperty("name", "modified by caller");
+        AccountInfo second = gerritRestClient.getRequest("/accounts/self", AccountInfo.class);
+        JsonElement third = gerritRestClient.getRequest("/accounts/self");
+
+        Truth.assertThat(statusCodes).containsExactly(200, 304, 304).inOrder();
+        Truth.assertThat(second.name).isEqualTo("John Doe");
+        Truth.assertThat(third.getAsJsonObject().get("name").getAsString()).isEqualTo("John Doe");
+    }
+
+    @Test
+    public void testRevisionCache() throws Exception {
+        final String path = "/changes/1/revisions/3a6f8b1c2d4e5f60718293a4b5c6d7e8f9012345/patch";
+        final List<String> requestedPaths = Lists.newArrayList();
+        HttpRequestExecutor httpRequestExecutor = new HttpRequestExecutor() {
+            @Override
+            public HttpResponse execute(HttpClientBuilder client, HttpRequestBase method, HttpContext context) throws IOException {
+                requestedPaths.add(method.getURI().getPath());
+                return super.execute(client, method, context);
+            }
+        };
+        GerritRestClient gerritRestClient = new GerritRestClient(new GerritAuthData.Basic(jettyUrl), httpRequestExecutor);
+        gerritRestClient.setRevisionCacheSize(1024);
+
+        String first = EntityUtils.toString(gerritRestClient.request(path, null, GET).getEntity());
+        String second = EntityUtils.toString(gerritRestClient.request(path, null, GET).getEntity());
+
+        Truth.assertThat(second).isEqualTo(first);
+        Truth.assertThat(first).startsWith("RnJvbSAz");
+        Truth.assertThat(Collections.frequency(requestedPaths, path)).isEqualTo(1);
+        Truth.assertThat(gerritRestClient.getRevisionCacheStats().hitCount()).isEqualTo(1);
+        Truth.assertThat(gerritRestClient.getRevisionCacheStats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRetryPolicy() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        HttpRequestExecutor httpRequestExecutor = new HttpRequestExecutor() {
+            @Override
+            public HttpResponse execute(HttpClientBuilder client, HttpRequestBase method, HttpContext context) throws IOException {
+                if (method.getURI().getPath().equals("/accounts/self")) {
+                    int attempt = attempts.incrementAndGet();
+                    if (attempt == 1) {
+                        throw new SocketException("Connection reset");
+                    }
+                    if (attempt == 2) {
+                        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 503, "Service Unavailable");
+                        response.setHeader("Retry-After", "0");
+                        return response;
+                    }
+                }
+                return super.execute(client, method, context);
+            }
+        };
+        GerritRestClient gerritRestClient = new GerritRestClient(new GerritAuthData.Basic(jettyUrl), httpRequestExecutor);
+        gerritRestClient.setRetryPolicy(new RetryPolicy().withInitialBackoff(0, TimeUnit.MILLISECONDS));
+
+        AccountInfo accountInfo = gerritRestClient.getRequest("/accounts/self", AccountInfo.class);
+
+        Truth.assertThat(accountInfo.name).isEqualTo("John Doe");
+        Truth.assertThat(attempts.get()).isEqualTo(3);
+        Truth.assertThat(gerritRestClient.getRetryCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRetryPolicyDoesNotRetryPost() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        HttpRequestExecutor httpRequestExecutor = new HttpRequestExecutor() {
+            @Override
+            public HttpResponse execute(HttpClientBuilder client, HttpRequestBase method, HttpContext context) throws IOException {
+                if (method.getURI().getPath().equals("/accounts/self")) {
+                    attempts.incrementAndGet();
+                    // the server may have applied the request behind the gateway
+                    return new BasicHttpResponse(HttpVersion.HTTP_1_1, 502, "Bad Gateway");
+                }
+                return super.execute(client, method, context);
+            }
+        };
+        GerritRestClient gerritRestClient = new GerritRestClient(new GerritAuthData.Basic(jettyUrl), httpRequestExecutor);
+        gerritRestClient.setRetryPolicy(new RetryPolicy().withInitialBackoff(0, TimeUnit.MILLISECONDS));
+
+        try {
+            gerritRestClient.postRequest("/accounts/self", "{}");
+            Assert.fail("Expected HttpStatusException.");
+        } catch (HttpStatusException e) {
+            Truth.assertThat(e.getStatusCode()).isEqualTo(502);
+        }
+        Truth.assertThat(attempts.get()).isEqualTo(1);
+        Truth.assertThat(gerritRestClient.getRetryCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testRetryPolicyRetriesRejectedPost() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        HttpRequestExecutor httpRequestExecutor = new HttpRequestExecutor() {
+            @Override
+            public HttpResponse execute(HttpClientBuilder client, HttpRequestBase method, HttpContext context) throws IOException {
+                if (method.getURI().getPath().equals("/accounts/self/status")) {
+                    if (attempts.incrementAndGet() == 1) {
+                        return new BasicHttpResponse(HttpVersion.HTTP_1_1, 503, "Service Unavailable");
+                    }
+                    BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+                    response.setEntity(new StringEntity(")]}'\n\"away\"", ContentType.APPLICATION_JSON));
+                    return response;
+                }
+                return super.execute(client, method, context);
+            }
+        };
+        GerritRestClient gerritRestClient = new GerritRestClient(new GerritAuthData.Basic(jettyUrl), httpRequestExecutor);
+        gerritRestClient.setRetryPolicy(new RetryPolicy().withInitialBackoff(0, TimeUnit.MILLISECONDS));
+
+        JsonElement result = gerritRestClient.postRequest("/accounts/self/status", "{\"status\": \"away\"}");
+
+        Truth.assertThat(result.getAsString()).isEqualTo("away");
+        Truth.assertThat(attempts.get()).isEqualTo(2);
+        Truth.assertThat(gerritRestClient.getRetryCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConcurrencyLimiterSlotIsHeldUntilEntityIsConsumed() throws Exception {
+        GerritRestClient gerritRestClient = new GerritRestClient(new GerritAuthData.Basic(jettyUrl), new HttpRequestExecutor());
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter();
+        gerritRestClient.setConcurrencyLimiter(limiter);
+
+        HttpResponse response = gerritRestClient.request("/tools/hooks/commit-msg", null, GET);
+        Truth.assertThat(limiter.getInFlight()).isEqualTo(1);
+
+        EntityUtils.consume(response.getEntity());
+        Truth.assertThat(limiter.getInFlight()).isEqualTo(0);
+
+        gerritRestClient.getRequest("/accounts/self", AccountInfo.class);
+        Truth.assertThat(limiter.getInFlight()).isEqualTo(0);
+    }
+
+    @Test(expectedExceptions = RestApiException.class)
+    public void testTypedRequestInvalidJson() throws Exception {
+        GerritRestApi gerritClient = getGerritApiWithJettyHost();
+        gerritClient.restClient().getRequest("/accounts/invalid_json", AccountInfo.class);
+    }
+
+    @Test(expectedExceptions = RestApiException.class)
+    public void testTypedRequestNullJson() throws Exception {
+        GerritRestApi gerritClient = getGerritApiWithJettyHost();
+        gerritClient.restClient().getRequest("/accounts/null_json", AccountInfo.class);
+    }
+
     @Test(expectedExceptions = IllegalStateException.class)
     public void testUnsupportedHttpMethod() throws Exception {
         GerritRestClient gerritRestClient = new GerritRestClient(
@@ -278,6 +496,151 @@ public class GerritRestClientTest {
         Truth.assertThat(extendCredentialProviderCalled[0]).isTrue();
     }
 
+    /**
+     * Tests that a pooled client applies client-builder-extensions only once and works for multiple requests.
+     */
+    @Test
+    public void testPooledHttpClient() throws Exception {
+        final int[] extendCalled = {0};
+        HttpClientBuilderExtension httpClientBuilderExtension = new HttpClientBuilderExtension() {
+            @Override
+            public HttpClientBuilder extend(HttpClientBuilder httpClientBuilder, GerritAuthData authData) {
+                extendCalled[0]++;
+                return super.extend(httpClientBuilder, authData);
+            }
+        };
+
+        GerritRestApiFactory gerritRestApiFactory = new GerritRestApiFactory();
+        ConnectionPoolConfig connectionPoolConfig = new ConnectionPoolConfig().withMaxTotal(2).withMaxPerRoute(1);
+        GerritRestApi gerritClient = gerritRestApiFactory.create(new GerritAuthData.Basic(jettyUrl), connectionPoolConfig,
+            httpClientBuilderExtension);
+        try {
+            for (int i = 0; i < 5; i++) {
+                Truth.assertThat(gerritClient.changes().query().get().size()).isEqualTo(3);
+                Truth.assertThat(gerritClient.accounts().self().get().name).isEqualTo("John Doe");
+            }
+        } finally {
+            gerritClient.close();
+        }
+
+        Truth.assertThat(extendCalled[0]).isEqualTo(1);
+    }
+
+    /**
+     * Tests that a pooled client uses the credentials provider returned by client-builder-extensions per request.
+     */
+    @Test
+    public void testPooledHttpClientUsesExtendedCredentialsProvider() throws Exception {
+        final AuthScope proxyScope = new AuthScope("proxy.example.com", 3128);
+        final Credentials proxyCredentials = new UsernamePasswordCredentials("proxy-user", "proxy-password");
+        HttpClientBuilderExtension httpClientBuilderExtension = new HttpClientBuilderExtension() {
+            @Override
+            public CredentialsProvider extendCredentialProvider(HttpClientBuilder httpClientBuilder,
+                                                                CredentialsProvider credentialsProvider,
+                                                                GerritAuthData authData) {
+                BasicCredentialsProvider extendedProvider = new BasicCredentialsProvider();
+                extendedProvider.setCredentials(proxyScope, proxyCredentials);
+                return extendedProvider;
+            }
+        };
+        final List<CredentialsProvider> credentialsProviders = Lists.newArrayList();
+        HttpRequestExecutor httpRequestExecutor = new HttpRequestExecutor() {
+            @Override
+            public HttpResponse execute(HttpClient client, HttpRequestBase method, HttpContext context) throws IOException {
+                credentialsProviders.add((CredentialsProvider) context.getAttribute(HttpClientContext.CREDS_PROVIDER));
+                return super.execute(client, method, context);
+            }
+        };
+        GerritRestClient gerritRestClient = new GerritRestClient(new GerritAuthData.Basic(jettyUrl, "foo", "bar"),
+            httpRequestExecutor, new ConnectionPoolConfig(), httpClientBuilderExtension);
+        try {
+            requestChanges(gerritRestClient);
+        } finally {
+            gerritRestClient.close();
+        }
+
+        CredentialsProvider credentialsProvider = Iterables.getLast(credentialsProviders);
+        Truth.assertThat(credentialsProvider.getCredentials(proxyScope)).isSameInstanceAs(proxyCredentials);
+        Truth.assertThat(credentialsProvider.getCredentials(new AuthScope("localhost", 80)).getUserPrincipal().getName())
+            .isEqualTo("foo");
+    }
+
+    /**
+     * Tests that HTTP auth works with a pooled client (path: "/a/changes/" isn't mapped -> status 404).
+     */
+    @Test
+    public void testPooledHttpClientUserAuth() throws Exception {
+        GerritRestClient gerritRestClient = new GerritRestClient(
+            new GerritAuthData.Basic(jettyUrl, "foo", "bar"), new HttpRequestExecutor(), new ConnectionPoolConfig());
+        try {
+            requestChanges(gerritRestClient);
+            requestChanges(gerritRestClient);
+        } finally {
+            gerritRestClient.close();
+        }
+    }
+
+    @Test
+    public void testBackgroundRequests() throws Exception {
+        GerritRestApi gerritClient = gerritRestApiFactoryWithPool();
+        try {
+            List<CompletableFuture<List<ChangeInfo>>> futures = Lists.newArrayList();
+            ChangesRestClient changes = (ChangesRestClient) gerritClient.changes();
+            for (int i = 0; i < 10; i++) {
+                futures.add(changes.queryInBackground(changes.query()));
+            }
+            for (CompletableFuture<List<ChangeInfo>> future : futures) {
+                Truth.assertThat(future.get().size()).isEqualTo(3);
+            }
+            GerritRestClient restClient = (GerritRestClient) gerritClient.restClient();
+            Truth.assertThat(restClient.executeInBackground(() -> restClient.getRequest("/accounts/self")).get()
+                .getAsJsonObject().get("name").getAsString()).isEqualTo("John Doe");
+        } finally {
+            gerritClient.close();
+        }
+    }
+
+    @Test
+    public void testBackgroundRequestFailure() throws Exception {
+        GerritRestApi gerritClient = getGerritApiWithJettyHost();
+        boolean catched = false;
+        try {
+            GerritRestClient restClient = (GerritRestClient) gerritClient.restClient();
+            restClient.executeInBackground(() -> restClient.getRequest("/accounts/invalid")).get();
+        } catch (ExecutionException e) {
+            catched = true;
+            Truth.assertThat(e.getCause()).isInstanceOf(HttpStatusException.class);
+            Truth.assertThat(((HttpStatusException) e.getCause()).getStatusCode()).isEqualTo(404);
+        } finally {
+            gerritClient.close();
+        }
+        Truth.assertThat(catched).isTrue();
+    }
+
+    @Test(timeOut = 10000)
+    public void testNestedBackgroundCallsDoNotDeadlock() throws Exception {
+        GerritRestClient gerritRestClient = new GerritRestClient(new GerritAuthData.Basic(jettyUrl),
+            new HttpRequestExecutor());
+        try {
+            List<CompletableFuture<Integer>> futures = Lists.newArrayList();
+            // more outer calls than threads: all threads wait for nested calls
+            for (int i = 0; i < 20; i++) {
+                final int value = i;
+                futures.add(gerritRestClient.executeInBackground(
+                    () -> gerritRestClient.executeInBackground(() -> value).get()));
+            }
+            for (int i = 0; i < 20; i++) {
+                Truth.assertThat(futures.get(i).get()).isEqualTo(i);
+            }
+        } finally {
+            gerritRestClient.close();
+        }
+    }
+
+    private GerritRestApi gerritRestApiFactoryWithPool() {
+        return new GerritRestApiFactory().create(new GerritAuthData.Basic(jettyUrl), new ConnectionPoolConfig());
+    }
+
     @Test
     public void testVersion() throws Exception {
         GerritRestApiFactory gerritRestApiFactory = new GerritRestApiFactory();
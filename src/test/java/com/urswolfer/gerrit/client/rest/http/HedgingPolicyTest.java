@@ -0,0 +1,150 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.base.Supplier;
+import com.google.common.truth.Truth;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.message.BasicHttpResponse;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Urs Wolfer
+ */
+public class HedgingPolicyTest {
+
+    @Test
+    public void testSlowRequestIsHedged() throws Exception {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy().withBudget(0.5).withMinDelay(10, TimeUnit.MILLISECONDS);
+        warmUp(hedgingPolicy);
+
+        HttpGet slowRequest = new HttpGet("http://localhost/a/changes/");
+        HttpResponse response = hedgingPolicy.execute(slowRequest, duplicate(),
+            request -> request == slowRequest ? waitUntilAborted(request) : response(200));
+
+        Truth.assertThat(response.getStatusLine().getStatusCode()).isEqualTo(200);
+        Truth.assertThat(slowRequest.isAborted()).isTrue();
+        Truth.assertThat(hedgingPolicy.getHedgesSent()).isEqualTo(1);
+        Truth.assertThat(hedgingPolicy.getHedgesWon()).isEqualTo(1);
+    }
+
+    @Test
+    public void testNoHedgingWithoutLatencySamples() throws Exception {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy().withBudget(1);
+
+        HttpResponse response = hedgingPolicy.execute(new HttpGet("http://localhost/a/changes/"), duplicate(),
+            request -> {
+                sleep(50);
+                return response(200);
+            });
+
+        Truth.assertThat(response.getStatusLine().getStatusCode()).isEqualTo(200);
+        Truth.assertThat(hedgingPolicy.getHedgesSent()).isEqualTo(0);
+    }
+
+    @Test
+    public void testBudgetLimitsHedges() throws Exception {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy().withBudget(0).withMinDelay(1, TimeUnit.MILLISECONDS);
+        warmUp(hedgingPolicy);
+
+        HttpResponse response = hedgingPolicy.execute(new HttpGet("http://localhost/a/changes/"), duplicate(),
+            request -> {
+                sleep(50);
+                return response(200);
+            });
+
+        Truth.assertThat(response.getStatusLine().getStatusCode()).isEqualTo(200);
+        Truth.assertThat(hedgingPolicy.getHedgesSent()).isEqualTo(0);
+    }
+
+    @Test
+    public void testPrimaryWinsWhenHedgeFails() throws Exception {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy().withBudget(0.5).withMinDelay(10, TimeUnit.MILLISECONDS);
+        warmUp(hedgingPolicy);
+
+        HttpGet request = new HttpGet("http://localhost/a/changes/");
+        HttpResponse response = hedgingPolicy.execute(request, duplicate(), attemptRequest -> {
+            if (attemptRequest != request) {
+                throw new IOException("connection reset");
+            }
+            sleep(100);
+            return response(200);
+        });
+
+        Truth.assertThat(response.getStatusLine().getStatusCode()).isEqualTo(200);
+        Truth.assertThat(hedgingPolicy.getHedgesSent()).isEqualTo(1);
+        Truth.assertThat(hedgingPolicy.getHedgesWon()).isEqualTo(0);
+    }
+
+    @Test
+    public void testNoHedgingWhenAllThreadsAreBusyOrClosed() throws Exception {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy().withBudget(1).withMinDelay(1, TimeUnit.MILLISECONDS)
+            .withMaxThreads(1);
+        warmUp(hedgingPolicy);
+
+        HttpResponse response = hedgingPolicy.execute(new HttpGet("http://localhost/a/changes/"), duplicate(),
+            request -> {
+                sleep(50);
+                return response(200);
+            });
+        Truth.assertThat(response.getStatusLine().getStatusCode()).isEqualTo(200);
+        Truth.assertThat(hedgingPolicy.getHedgesSent()).isEqualTo(0);
+
+        hedgingPolicy.close();
+        Thread caller = Thread.currentThread();
+        response = hedgingPolicy.execute(new HttpGet("http://localhost/a/changes/"), duplicate(), request -> {
+            Truth.assertThat(Thread.currentThread()).isSameInstanceAs(caller);
+            return response(200);
+        });
+        Truth.assertThat(response.getStatusLine().getStatusCode()).isEqualTo(200);
+    }
+
+    private static void warmUp(HedgingPolicy hedgingPolicy) throws IOException {
+        for (int i = 0; i < 20; i++) {
+            hedgingPolicy.execute(new HttpGet("http://localhost/a/changes/"), duplicate(), request -> response(200));
+        }
+    }
+
+    private static Supplier<HttpRequestBase> duplicate() {
+        return () -> new HttpGet("http://localhost/a/changes/");
+    }
+
+    private static HttpResponse waitUntilAborted(HttpRequestBase request) throws IOException {
+        while (!request.isAborted()) {
+            sleep(1);
+        }
+        throw new IOException("Request aborted");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static HttpResponse response(int statusCode) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, "");
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import com.google.common.truth.Truth;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.urswolfer.gerrit.client.rest.GerritAuthData;
+import org.apache.http.impl.client.BasicCookieStore;
+import org.apache.http.impl.cookie.BasicClientCookie;
+import org.testng.annotations.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Urs Wolfer
+ */
+public class LoginCacheTest {
+
+    @Test
+    public void testSessionValidAfterLogin() throws Exception {
+        FakeTicker ticker = new FakeTicker();
+        LoginCache loginCache = new LoginCache(new GerritAuthData.Basic("http://localhost"), new BasicCookieStore(), ticker);
+        BasicClientCookie cookie = new BasicClientCookie("GerritAccount", "value");
+
+        Truth.assertThat(loginCache.isSessionKnownValid(cookie)).isFalse();
+        loginCache.setGerritAuthOptional(Optional.of("xsrf"));
+        Truth.assertThat(loginCache.isSessionKnownValid(cookie)).isTrue();
+
+        ticker.advance(4, TimeUnit.MINUTES);
+        Truth.assertThat(loginCache.isSessionKnownValid(cookie)).isTrue();
+        ticker.advance(2, TimeUnit.MINUTES);
+        Truth.assertThat(loginCache.isSessionKnownValid(cookie)).isFalse();
+
+        loginCache.markSessionValid();
+        Truth.assertThat(loginCache.isSessionKnownValid(cookie)).isTrue();
+    }
+
+    @Test
+    public void testSessionNotValidAfterInvalidate() throws Exception {
+        LoginCache loginCache = new LoginCache(new GerritAuthData.Basic("http://localhost"), new BasicCookieStore(), new FakeTicker());
+        BasicClientCookie cookie = new BasicClientCookie("GerritAccount", "value");
+
+        loginCache.setGerritAuthOptional(Optional.of("xsrf"));
+        loginCache.invalidate();
+        Truth.assertThat(loginCache.isSessionKnownValid(cookie)).isFalse();
+    }
+
+    @Test
+    public void testSessionNotValidWithExpiredCookie() throws Exception {
+        LoginCache loginCache = new LoginCache(new GerritAuthData.Basic("http://localhost"), new BasicCookieStore(), new FakeTicker());
+        BasicClientCookie cookie = new BasicClientCookie("GerritAccount", "value");
+        cookie.setExpiryDate(new Date(System.currentTimeMillis() - 1000));
+
+        loginCache.setGerritAuthOptional(Optional.of("xsrf"));
+        Truth.assertThat(loginCache.isSessionKnownValid(cookie)).isFalse();
+    }
+
+    @Test
+    public void testSessionValidityDisabled() throws Exception {
+        LoginCache loginCache = new LoginCache(new GerritAuthData.Basic("http://localhost"), new BasicCookieStore(), new FakeTicker());
+        BasicClientCookie cookie = new BasicClientCookie("GerritAccount", "value");
+
+        loginCache.setSessionValidity(0, TimeUnit.SECONDS);
+        loginCache.setGerritAuthOptional(Optional.of("xsrf"));
+        Truth.assertThat(loginCache.isSessionKnownValid(cookie)).isFalse();
+    }
+
+    @Test
+    public void testConcurrentLoginIsDoneOnce() throws Exception {
+        final LoginCache loginCache = new LoginCache(new GerritAuthData.Basic("http://localhost"), new BasicCookieStore());
+        final AtomicInteger loginCount = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final LoginCache.Login login = () -> {
+            loginCount.incrementAndGet();
+            Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+            return Optional.of("xsrf");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<Optional<String>>> results = Lists.newArrayList();
+            for (int i = 0; i < 20; i++) {
+                results.add(executor.submit(() -> {
+                    long loginGeneration = loginCache.getLoginGeneration();
+                    start.await();
+                    return loginCache.login(loginGeneration, login);
+                }));
+            }
+            start.countDown();
+            for (Future<Optional<String>> result : results) {
+                Truth.assertThat(result.get()).isEqualTo(Optional.of("xsrf"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Truth.assertThat(loginCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testInvalidateWithOutdatedGeneration() throws Exception {
+        LoginCache loginCache = new LoginCache(new GerritAuthData.Basic("http://localhost"), new BasicCookieStore());
+        long loginGeneration = loginCache.getLoginGeneration();
+        loginCache.setGerritAuthOptional(Optional.of("xsrf"));
+
+        Truth.assertThat(loginCache.invalidate(loginGeneration)).isFalse();
+        Truth.assertThat(loginCache.getGerritAuthOptional()).isEqualTo(Optional.of("xsrf"));
+
+        Truth.assertThat(loginCache.invalidate(loginCache.getLoginGeneration())).isTrue();
+        Truth.assertThat(loginCache.getGerritAuthOptional().isPresent()).isFalse();
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long nanos = 42;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(long duration, TimeUnit timeUnit) {
+            nanos += timeUnit.toNanos(duration);
+        }
+    }
+}
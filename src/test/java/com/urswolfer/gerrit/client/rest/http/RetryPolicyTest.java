@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.collect.Range;
+import com.google.common.truth.Truth;
+import org.apache.http.client.utils.DateUtils;
+import org.testng.annotations.Test;
+
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static com.urswolfer.gerrit.client.rest.RestClient.HttpVerb.DELETE;
+import static com.urswolfer.gerrit.client.rest.RestClient.HttpVerb.GET;
+import static com.urswolfer.gerrit.client.rest.RestClient.HttpVerb.POST;
+import static com.urswolfer.gerrit.client.rest.RestClient.HttpVerb.PUT;
+import static com.urswolfer.gerrit.client.rest.RestClient.HttpVerb.PUT_TEXT_PLAIN;
+
+/**
+ * @author Urs Wolfer
+ */
+public class RetryPolicyTest {
+
+    @Test
+    public void testCanRetry() throws Exception {
+        RetryPolicy retryPolicy = new RetryPolicy().withMaxAttempts(2);
+        Truth.assertThat(retryPolicy.canRetry(GET, "/changes/", 1)).isTrue();
+        Truth.assertThat(retryPolicy.canRetry(GET, "/changes/", 2)).isFalse();
+        Truth.assertThat(retryPolicy.canRetry(POST, "/changes/", 1)).isFalse();
+        Truth.assertThat(retryPolicy.withNonIdempotentRequests(true).canRetry(POST, "/changes/", 1)).isTrue();
+
+        Truth.assertThat(retryPolicy.isRetryable(503)).isTrue();
+        Truth.assertThat(retryPolicy.isRetryable(500)).isFalse();
+        Truth.assertThat(retryPolicy.isRetryable(new SocketException())).isTrue();
+        Truth.assertThat(retryPolicy.isRetryable(new SocketTimeoutException())).isTrue();
+        Truth.assertThat(retryPolicy.isRetryable(new UnknownHostException())).isFalse();
+        Truth.assertThat(retryPolicy.isRetryable(new InterruptedIOException())).isFalse();
+        Truth.assertThat(retryPolicy.isRetryable(new ConcurrencyLimiter.SlotTimeoutException())).isFalse();
+    }
+
+    @Test
+    public void testOnlyIdempotentPutAndDeleteRequestsAreRetried() throws Exception {
+        RetryPolicy retryPolicy = new RetryPolicy();
+        Truth.assertThat(retryPolicy.canRetry(PUT, "/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940/topic", 1))
+            .isTrue();
+        Truth.assertThat(retryPolicy.canRetry(PUT_TEXT_PLAIN, "/changes/1/edit/src%2FMain.java", 1)).isTrue();
+        Truth.assertThat(retryPolicy.canRetry(PUT, "/accounts/self/starred.changes/1?o=x", 1)).isTrue();
+        // creations fail with "409 Conflict" when replayed, deletions with "404 Not Found"
+        Truth.assertThat(retryPolicy.canRetry(PUT, "/projects/myProject", 1)).isFalse();
+        Truth.assertThat(retryPolicy.canRetry(PUT, "/groups/myGroup", 1)).isFalse();
+        Truth.assertThat(retryPolicy.canRetry(DELETE, "/changes/1/topic", 1)).isFalse();
+
+        retryPolicy.withIdempotentRequests(DELETE, "/changes/[^/]+/topic");
+        Truth.assertThat(retryPolicy.canRetry(DELETE, "/changes/1/topic", 1)).isTrue();
+        Truth.assertThat(retryPolicy.canRetry(DELETE, "/changes/1", 1)).isFalse();
+    }
+
+    @Test
+    public void testUnprocessedRequestsAreRetried() throws Exception {
+        RetryPolicy retryPolicy = new RetryPolicy().withMaxAttempts(2);
+        Truth.assertThat(retryPolicy.isUnprocessed(429)).isTrue();
+        Truth.assertThat(retryPolicy.isUnprocessed(503)).isTrue();
+        // a gateway may answer after the server has applied the request
+        Truth.assertThat(retryPolicy.isUnprocessed(502)).isFalse();
+        Truth.assertThat(retryPolicy.isUnprocessed(new ConnectException())).isTrue();
+        Truth.assertThat(retryPolicy.isUnprocessed(new SocketException("Connection reset"))).isFalse();
+
+        Truth.assertThat(retryPolicy.canRetry(POST, "/changes/1/revisions/current/review", 1, true)).isTrue();
+        Truth.assertThat(retryPolicy.canRetry(POST, "/changes/1/revisions/current/review", 2, true)).isFalse();
+        Truth.assertThat(retryPolicy.canRetry(POST, "/changes/1/revisions/current/review", 1, false)).isFalse();
+
+        retryPolicy.withUnprocessedStatusCodes();
+        Truth.assertThat(retryPolicy.isUnprocessed(503)).isFalse();
+    }
+
+    @Test
+    public void testDelay() throws Exception {
+        RetryPolicy retryPolicy = new RetryPolicy()
+            .withInitialBackoff(100, TimeUnit.MILLISECONDS)
+            .withMaxBackoff(1, TimeUnit.SECONDS);
+
+        Truth.assertThat(retryPolicy.getDelayMillis(1, null).get()).isIn(Range.closed(50L, 100L));
+        Truth.assertThat(retryPolicy.getDelayMillis(3, null).get()).isIn(Range.closed(200L, 400L));
+        Truth.assertThat(retryPolicy.getDelayMillis(20, null).get()).isAtMost(1000L);
+        Truth.assertThat(retryPolicy.getDelayMillis(1, "1").get()).isEqualTo(1000L);
+        Truth.assertThat(retryPolicy.getDelayMillis(1, "5").isPresent()).isFalse();
+        String httpDate = DateUtils.formatDate(new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(5)));
+        Truth.assertThat(retryPolicy.getDelayMillis(1, httpDate).isPresent()).isFalse();
+    }
+}
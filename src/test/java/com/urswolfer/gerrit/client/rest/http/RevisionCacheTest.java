@@ -0,0 +1,47 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.truth.Truth;
+import org.testng.annotations.Test;
+
+/**
+ * @author Urs Wolfer
+ */
+public class RevisionCacheTest {
+    private static final String SHA = "3a6f8b1c2d4e5f60718293a4b5c6d7e8f9012345";
+
+    @Test
+    public void testIsImmutable() throws Exception {
+        Truth.assertThat(RevisionCache.isImmutable("/changes/myProject~master~I1/revisions/" + SHA + "/files/")).isTrue();
+        Truth.assertThat(RevisionCache.isImmutable("/changes/1/revisions/" + SHA + "/files/?parent=1")).isTrue();
+        Truth.assertThat(RevisionCache.isImmutable("/changes/1/revisions/" + SHA + "/files/a%2Fb.txt/diff?context=5")).isTrue();
+        Truth.assertThat(RevisionCache.isImmutable("/changes/1/revisions/" + SHA + "/files/a%2Fb.txt/content")).isTrue();
+        Truth.assertThat(RevisionCache.isImmutable("/changes/1/revisions/" + SHA + "/commit?links")).isTrue();
+        Truth.assertThat(RevisionCache.isImmutable("/changes/1/revisions/" + SHA + "/patch?zip")).isTrue();
+    }
+
+    @Test
+    public void testIsNotImmutable() throws Exception {
+        Truth.assertThat(RevisionCache.isImmutable("/changes/1/revisions/current/files/")).isFalse();
+        Truth.assertThat(RevisionCache.isImmutable("/changes/1/revisions/3/patch")).isFalse();
+        Truth.assertThat(RevisionCache.isImmutable("/changes/1/revisions/" + SHA.substring(1) + "/patch")).isFalse();
+        Truth.assertThat(RevisionCache.isImmutable("/changes/1/revisions/" + SHA + "/files/?reviewed")).isFalse();
+        Truth.assertThat(RevisionCache.isImmutable("/changes/1/revisions/" + SHA + "/review")).isFalse();
+        Truth.assertThat(RevisionCache.isImmutable("/changes/1/revisions/" + SHA + "/comments/")).isFalse();
+    }
+}
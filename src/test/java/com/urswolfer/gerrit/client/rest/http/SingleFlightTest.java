@@ -0,0 +1,183 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.truth.Truth;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Urs Wolfer
+ */
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentRequestsShareResult() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlight.Request request = () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            Uninterruptibles.awaitUninterruptibly(release);
+            return new JsonPrimitive("result");
+        };
+
+        CompletableFuture<JsonElement> leader = execute(singleFlight, "key", request);
+        started.await();
+        Thread follower = new Thread(() -> {
+            try {
+                Truth.assertThat(singleFlight.execute("key", request).getAsString()).isEqualTo("result");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        follower.start();
+        awaitWaiting(follower);
+        release.countDown();
+        follower.join();
+
+        Truth.assertThat(leader.get().getAsString()).isEqualTo("result");
+        Truth.assertThat(executions.get()).isEqualTo(1);
+
+        // completed requests are not kept
+        singleFlight.execute("key", request);
+        Truth.assertThat(executions.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testFailureIsShared() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SingleFlight.Request request = () -> {
+            started.countDown();
+            Uninterruptibles.awaitUninterruptibly(release);
+            throw new IOException("failed");
+        };
+
+        CompletableFuture<JsonElement> leader = execute(singleFlight, "key", request);
+        started.await();
+        CompletableFuture<JsonElement> follower = new CompletableFuture<JsonElement>();
+        Thread followerThread = new Thread(() -> {
+            try {
+                follower.complete(singleFlight.execute("key", () -> new JsonPrimitive("not shared")));
+            } catch (Exception e) {
+                follower.completeExceptionally(e);
+            }
+        });
+        followerThread.start();
+        awaitWaiting(followerThread);
+        release.countDown();
+
+        assertFailure(leader);
+        assertFailure(follower);
+    }
+
+    @Test
+    public void testStreamingRequestSharesOnlyWithJoinedCallers() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> shared = new CompletableFuture<Boolean>();
+        SingleFlight.StreamingRequest<String> request = flight -> {
+            started.countDown();
+            Uninterruptibles.awaitUninterruptibly(release);
+            boolean hasFollowers = flight.close();
+            shared.complete(hasFollowers);
+            if (hasFollowers) {
+                flight.share(new JsonPrimitive("tree"));
+                return "tree";
+            }
+            return "streamed";
+        };
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return singleFlight.execute("key", request, JsonElement::getAsString);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        started.await();
+        CompletableFuture<String> follower = new CompletableFuture<String>();
+        Thread followerThread = new Thread(() -> {
+            try {
+                follower.complete(singleFlight.execute("key", flight -> "not shared", JsonElement::getAsString));
+            } catch (Exception e) {
+                follower.completeExceptionally(e);
+            }
+        });
+        followerThread.start();
+        awaitWaiting(followerThread);
+        release.countDown();
+
+        Truth.assertThat(shared.get()).isTrue();
+        Truth.assertThat(leader.get()).isEqualTo("tree");
+        Truth.assertThat(follower.get()).isEqualTo("tree");
+
+        // without joined callers nothing is shared
+        Truth.assertThat(singleFlight.execute("key", flight -> {
+            Truth.assertThat(flight.close()).isFalse();
+            // callers arriving now send their own request
+            try {
+                Truth.assertThat(singleFlight.execute("key", other -> "own", JsonElement::getAsString))
+                    .isEqualTo("own");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            return "streamed";
+        }, JsonElement::getAsString)).isEqualTo("streamed");
+    }
+
+    private static CompletableFuture<JsonElement> execute(SingleFlight singleFlight, String key,
+                                                          SingleFlight.Request request) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return singleFlight.execute(key, request);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void assertFailure(CompletableFuture<JsonElement> future) throws InterruptedException {
+        try {
+            future.get();
+            throw new AssertionError("Expected failure.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof RuntimeException ? e.getCause().getCause() : e.getCause();
+            Truth.assertThat(cause).isInstanceOf(IOException.class);
+            Truth.assertThat(cause).hasMessageThat().isEqualTo("failed");
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http;
+
+import com.google.common.base.Ticker;
+import com.google.common.truth.Truth;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.urswolfer.gerrit.client.rest.RestClient.HttpVerb.GET;
+import static com.urswolfer.gerrit.client.rest.RestClient.HttpVerb.POST;
+
+/**
+ * @author Urs Wolfer
+ */
+public class TokenBucketRateLimiterTest {
+    private static final String REVIEW_PATH = "/changes/1/revisions/current/review";
+
+    @Test
+    public void testSeparateReadAndWriteBuckets() throws Exception {
+        final AtomicLong nanos = new AtomicLong();
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(ticker(nanos))
+            .withReadRate(10, 2)
+            .withWriteRate(1, 1);
+
+        Truth.assertThat(rateLimiter.tryAcquire("/changes/", GET)).isTrue();
+        Truth.assertThat(rateLimiter.tryAcquire("/changes/", GET)).isTrue();
+        Truth.assertThat(rateLimiter.tryAcquire("/changes/", GET)).isFalse();
+        Truth.assertThat(rateLimiter.tryAcquire(REVIEW_PATH, POST)).isTrue();
+        Truth.assertThat(rateLimiter.tryAcquire(REVIEW_PATH, POST)).isFalse();
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        Truth.assertThat(rateLimiter.tryAcquire("/changes/", GET)).isTrue();
+        Truth.assertThat(rateLimiter.tryAcquire(REVIEW_PATH, POST)).isFalse();
+        Truth.assertThat(rateLimiter.getRejectedCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testEndpointBucket() throws Exception {
+        final AtomicLong nanos = new AtomicLong();
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(ticker(nanos))
+            .withEndpointRate("/changes/[^/]+/revisions/[^/]+/review", 1, 1);
+
+        Truth.assertThat(rateLimiter.tryAcquire(REVIEW_PATH, POST)).isTrue();
+        Truth.assertThat(rateLimiter.tryAcquire(REVIEW_PATH, POST)).isFalse();
+        Truth.assertThat(rateLimiter.tryAcquire("/changes/1/revisions/current/submit", POST)).isTrue();
+    }
+
+    @Test
+    public void testAcquireWaits() throws Exception {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter().withReadRate(100, 1);
+
+        rateLimiter.acquire("/changes/", GET);
+        Truth.assertThat(rateLimiter.getWaitCount()).isEqualTo(0);
+        long start = System.nanoTime();
+        rateLimiter.acquire("/changes/", GET);
+        rateLimiter.acquire("/changes/", GET);
+
+        Truth.assertThat(rateLimiter.getWaitCount()).isEqualTo(2);
+        Truth.assertThat(rateLimiter.getTotalWaitTime(TimeUnit.MILLISECONDS)).isAtLeast(15L);
+        Truth.assertThat(System.nanoTime() - start).isAtLeast(TimeUnit.MILLISECONDS.toNanos(15));
+    }
+
+    private static Ticker ticker(final AtomicLong nanos) {
+        return new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.collect.Lists;
+import com.google.common.truth.Truth;
+import com.google.gerrit.extensions.api.changes.ReviewInput;
+import com.google.gson.JsonObject;
+import com.urswolfer.gerrit.client.rest.gson.GsonFactory;
+import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
+import com.urswolfer.gerrit.client.rest.http.HttpStatusException;
+import com.urswolfer.gerrit.client.rest.http.changes.parsers.ReviewResultParser;
+import org.easymock.EasyMock;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+/**
+ * @author Urs Wolfer
+ */
+public class BulkReviewerTest {
+
+    @Test
+    public void testReview() throws Exception {
+        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
+        EasyMock.expect(gerritRestClient.getGson()).andStubReturn(GsonFactory.create());
+        EasyMock.expect(gerritRestClient.postRequest(EasyMock.eq("/changes/1/revisions/current/review"), EasyMock.anyString()))
+            .andReturn(new JsonObject()).once();
+        EasyMock.expect(gerritRestClient.postRequest(EasyMock.eq("/changes/2/revisions/abc/review"), EasyMock.anyString()))
+            .andThrow(new HttpStatusException(409, "Conflict", "Request not successful.")).once();
+        EasyMock.expect(gerritRestClient.postRequest(EasyMock.eq("/changes/3/revisions/current/review"), EasyMock.anyString()))
+            .andThrow(new IllegalStateException("Unexpected response.")).once();
+        EasyMock.expect(gerritRestClient.postRequest(EasyMock.eq("/changes/4/revisions/current/review"), EasyMock.anyString()))
+            .andReturn(new JsonObject()).once();
+        EasyMock.replay(gerritRestClient);
+
+        ChangesRestClient changes = new ChangesRestClient(gerritRestClient, null, null, null, null,
+            new ReviewResultParser(GsonFactory.create()), null, null, null, null, null);
+        ReviewInput reviewInput = new ReviewInput().label("Verified", 1);
+        List<BulkReviewer.ItemResult> results = changes.bulkReviewer()
+            .withParallelism(1)
+            .review(Lists.newArrayList(
+                new BulkReviewer.Item("1", "current", reviewInput),
+                new BulkReviewer.Item("2", "abc", reviewInput),
+                new BulkReviewer.Item("3", "current", reviewInput),
+                new BulkReviewer.Item("4", "current", reviewInput)));
+
+        Truth.assertThat(results).hasSize(4);
+        Truth.assertThat(results.get(0).isSuccessful()).isTrue();
+        Truth.assertThat(results.get(0).getReviewResult().isPresent()).isTrue();
+        Truth.assertThat(results.get(1).isSuccessful()).isFalse();
+        Truth.assertThat(((HttpStatusException) results.get(1).getError().get()).getStatusCode()).isEqualTo(409);
+        // an unexpected failure of one item does not abort the others
+        Truth.assertThat(results.get(2).isSuccessful()).isFalse();
+        Truth.assertThat(results.get(2).getError().get().getCause()).isInstanceOf(IllegalStateException.class);
+        Truth.assertThat(results.get(3).isSuccessful()).isTrue();
+        EasyMock.verify(gerritRestClient);
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.urswolfer.gerrit.client.rest.http.changes;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.truth.Truth;
@@ -29,11 +30,15 @@ import com.urswolfer.gerrit.client.rest.http.accounts.AccountsParser;
 import com.urswolfer.gerrit.client.rest.http.accounts.AccountsParserBuilder;
 import com.urswolfer.gerrit.client.rest.http.changes.parsers.*;
 import com.urswolfer.gerrit.client.rest.http.common.GerritRestClientBuilder;
+import com.urswolfer.gerrit.client.rest.http.config.ServerRestClient;
 import com.urswolfer.gerrit.client.rest.http.config.parsers.ServerConfigParser;
 import org.easymock.EasyMock;
 import org.testng.annotations.Test;
 
 import java.util.*;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
 
 /**
  * @author Thomas Forrer
@@ -117,6 +122,121 @@ public class ChangeApiRestClientTest {
         EasyMock.verify(gerritRestClient);
     }
 
+    @Test
+    public void testGetLazy() throws Exception {
+        LazyChangeInfo lazyChangeInfo = new LazyChangeInfo(new ChangeInfo(), Maps.newHashMap(), null);
+        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
+        EasyMock.expect(gerritRestClient.getRequest(
+                EasyMock.eq("/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940?o=LABELS&o=MESSAGES"),
+                EasyMock.eq(LazyChangeInfo.class), EasyMock.same(LazyChangeInfoTypeAdapter.GSON)))
+            .andReturn(lazyChangeInfo).once();
+        EasyMock.replay(gerritRestClient);
+        ChangesRestClient changesRestClient = getChangesRestClient(gerritRestClient);
+
+        LazyChangeInfo result = ((ChangeApiRestClient) changesRestClient.id("myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940"))
+            .getLazy(EnumSet.of(ListChangesOption.LABELS, ListChangesOption.MESSAGES));
+
+        Truth.assertThat(result).isSameInstanceAs(lazyChangeInfo);
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test
+    public void testGetWithDefaultProfile() throws Exception {
+        ChangeInfo changeInfo = new ChangeInfo();
+        changeInfo.revisions = Maps.newHashMap();
+        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
+        EasyMock.expect(gerritRestClient.getRequest(
+                "/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940?o=SKIP_MERGEABLE&o=SKIP_DIFFSTAT",
+                ChangeInfo.class))
+            .andReturn(changeInfo).once();
+        EasyMock.replay(gerritRestClient);
+        ChangesRestClient changesRestClient = getChangesRestClient(gerritRestClient, getServerRestClient("3.9.1"));
+        changesRestClient.setDefaultProfile(ListChangesOptionProfile.MINIMAL);
+        List<ChangeFetch> fetches = new ArrayList<>();
+        changesRestClient.setFetchListener(fetches::add);
+
+        ChangeInfo result = changesRestClient.id("myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940").get();
+
+        Truth.assertThat(result).isSameInstanceAs(changeInfo);
+        Truth.assertThat(fetches).hasSize(1);
+        Truth.assertThat(fetches.get(0).getCallSite()).startsWith(ChangeApiRestClientTest.class.getName());
+        Truth.assertThat(fetches.get(0).getOptions())
+            .containsExactly(ListChangesOption.SKIP_MERGEABLE, ListChangesOption.SKIP_DIFFSTAT);
+        Truth.assertThat(fetches.get(0).getSectionsReceived()).containsExactly("revisions");
+        // reads are only tracked for lazily decoded changes
+        Truth.assertThat(fetches.get(0).getSectionsRead().isPresent()).isFalse();
+        Truth.assertThat(fetches.get(0).getUnusedOptions().isPresent()).isFalse();
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test
+    public void testGetLazyTracksReads() throws Exception {
+        LazyChangeInfo lazyChangeInfo = LazyChangeInfoTypeAdapter.GSON.fromJson(
+            "{\"_number\":1,\"labels\":{\"Verified\":{}},\"revisions\":{\"abc\":{\"_number\":1}}}",
+            LazyChangeInfo.class);
+        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
+        EasyMock.expect(gerritRestClient.getRequest(EasyMock.eq(
+                "/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940"
+                    + "?o=LABELS&o=CURRENT_REVISION&o=CURRENT_COMMIT&o=SUBMITTABLE"),
+                EasyMock.eq(LazyChangeInfo.class), EasyMock.same(LazyChangeInfoTypeAdapter.GSON)))
+            .andReturn(lazyChangeInfo).once();
+        EasyMock.replay(gerritRestClient);
+        ChangesRestClient changesRestClient = getChangesRestClient(gerritRestClient, getServerRestClient("3.9.1"));
+        List<ChangeFetch> fetches = new ArrayList<>();
+        changesRestClient.setFetchListener(fetches::add);
+
+        ((ChangeApiRestClient) changesRestClient.id("myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940"))
+            .getLazy(ListChangesOptionProfile.CI);
+
+        ChangeFetch fetch = Iterables.getOnlyElement(fetches);
+        Truth.assertThat(fetch.getSectionsReceived()).containsExactly("labels", "revisions");
+        Truth.assertThat(fetch.getSectionsRead().get()).isEmpty();
+        Truth.assertThat(fetch.getUnusedOptions().get()).containsExactly(ListChangesOption.LABELS,
+            ListChangesOption.CURRENT_REVISION, ListChangesOption.CURRENT_COMMIT);
+
+        lazyChangeInfo.getLabels();
+
+        Truth.assertThat(fetch.getSectionsRead().get()).containsExactly("labels");
+        Truth.assertThat(fetch.getUnusedOptions().get()).containsExactly(ListChangesOption.CURRENT_REVISION,
+            ListChangesOption.CURRENT_COMMIT);
+    }
+
+    @Test
+    public void testFullFetchWarning() throws Exception {
+        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
+        EasyMock.expect(gerritRestClient.getRequest(EasyMock.anyString(), EasyMock.eq(ChangeInfo.class)))
+            .andReturn(new ChangeInfo()).times(2);
+        EasyMock.replay(gerritRestClient);
+        ChangesRestClient changesRestClient = getChangesRestClient(gerritRestClient, getServerRestClient("3.9.1"));
+        changesRestClient.setFullFetchWarning(true);
+        final List<LogRecord> records = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void flush() {}
+
+            @Override
+            public void close() {}
+        };
+        Logger logger = Logger.getLogger(ChangesRestClient.class.getName());
+        logger.addHandler(handler);
+        try {
+            for (int i = 0; i < 2; i++) {
+                changesRestClient.id("myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940").get();
+            }
+        } finally {
+            logger.removeHandler(handler);
+        }
+
+        Truth.assertThat(records).hasSize(1);
+        Truth.assertThat(records.get(0).getMessage()).contains(ChangeApiRestClientTest.class.getName());
+        EasyMock.verify(gerritRestClient);
+    }
+
     @Test
     public void testGetTopic() throws Exception {
         JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
@@ -439,14 +559,13 @@ public class ChangeApiRestClientTest {
 
     @Test
     public void testComments() throws Exception {
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
-        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-                .expectGet("/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940/comments", jsonElement)
-                .get();
-
         TreeMap<String, List<CommentInfo>> expectedCommentInfos = Maps.newTreeMap();
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder().get();
+
         CommentsParser commentsParser = EasyMock.createMock(CommentsParser.class);
-        EasyMock.expect(commentsParser.parseCommentInfos(jsonElement)).andReturn(expectedCommentInfos).once();
+        EasyMock.expect(commentsParser.requestCommentInfos(gerritRestClient,
+            "/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940/comments"))
+            .andReturn(expectedCommentInfos).once();
         EasyMock.replay(commentsParser);
 
         ChangeApiRestClient changeApiRestClient = new ChangeApiRestClient(gerritRestClient, null, null, commentsParser,
@@ -462,14 +581,13 @@ public class ChangeApiRestClientTest {
 
     @Test
     public void testRobotComments() throws Exception {
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
-        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-            .expectGet("/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940/robotcomments", jsonElement)
-            .get();
-
         TreeMap<String, List<RobotCommentInfo>> expectedRobotCommentInfos = Maps.newTreeMap();
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder().get();
+
         CommentsParser commentsParser = EasyMock.createMock(CommentsParser.class);
-        EasyMock.expect(commentsParser.parseRobotCommentInfos(jsonElement)).andReturn(expectedRobotCommentInfos).once();
+        EasyMock.expect(commentsParser.requestRobotCommentInfos(gerritRestClient,
+            "/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940/robotcomments"))
+            .andReturn(expectedRobotCommentInfos).once();
         EasyMock.replay(commentsParser);
 
         ChangeApiRestClient changeApiRestClient = new ChangeApiRestClient(gerritRestClient, null, null, commentsParser,
@@ -485,14 +603,13 @@ public class ChangeApiRestClientTest {
 
     @Test
     public void testDrafts() throws Exception {
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
-        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-            .expectGet("/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940/drafts", jsonElement)
-            .get();
-
         TreeMap<String, List<CommentInfo>> expectedDraftInfos = Maps.newTreeMap();
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder().get();
+
         CommentsParser commentsParser = EasyMock.createMock(CommentsParser.class);
-        EasyMock.expect(commentsParser.parseCommentInfos(jsonElement)).andReturn(expectedDraftInfos).once();
+        EasyMock.expect(commentsParser.requestCommentInfos(gerritRestClient,
+            "/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940/drafts"))
+            .andReturn(expectedDraftInfos).once();
         EasyMock.replay(commentsParser);
 
         ChangeApiRestClient changeApiRestClient = new ChangeApiRestClient(gerritRestClient, null, null, commentsParser,
@@ -508,14 +625,13 @@ public class ChangeApiRestClientTest {
 
     @Test
     public void testMessages() throws Exception {
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
-        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-            .expectGet("/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940/messages", jsonElement)
-            .get();
-
         List<ChangeMessageInfo> expectedMessageInfos = new ArrayList<>();
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder().get();
+
         CommentsParser commentsParser = EasyMock.createMock(CommentsParser.class);
-        EasyMock.expect(commentsParser.parseChangeMessageInfos(jsonElement)).andReturn(expectedMessageInfos).once();
+        EasyMock.expect(commentsParser.requestChangeMessageInfos(gerritRestClient,
+            "/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940/messages"))
+            .andReturn(expectedMessageInfos).once();
         EasyMock.replay(commentsParser);
 
         ChangeApiRestClient changeApiRestClient = new ChangeApiRestClient(gerritRestClient, null, null, commentsParser,
@@ -698,13 +814,11 @@ public class ChangeApiRestClientTest {
 
     @Test
     public void testChangeGet() throws Exception {
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
+        ChangeInfo expectedChangeInfo = EasyMock.createMock(ChangeInfo.class);
         GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-            .expectGet("/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940?o=LABELS&o=DETAILED_LABELS", jsonElement)
+            .expectGet("/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940?o=LABELS&o=DETAILED_LABELS", ChangeInfo.class, expectedChangeInfo)
             .get();
         ChangeInfosParser changeInfosParser = EasyMock.createMock(ChangeInfosParser.class);
-        ChangeInfo expectedChangeInfo = EasyMock.createMock(ChangeInfo.class);
-        EasyMock.expect(changeInfosParser.parseSingleChangeInfo(jsonElement)).andReturn(expectedChangeInfo).once();
         EasyMock.replay(changeInfosParser);
 
         ChangeApiRestClient changeApiRestClient = new ChangeApiRestClient(gerritRestClient, null, changeInfosParser,
@@ -721,7 +835,7 @@ public class ChangeApiRestClientTest {
     @Test
     public void testChangeGetOnGerrit214() throws Exception {
         String expectedChangeId = "myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940";
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
+        ChangeInfo expectedChangeInfo = EasyMock.createMock(ChangeInfo.class);
         String listOptions =
             String.join("&o=", Arrays.asList("LABELS", "DETAILED_LABELS",
                 "CURRENT_REVISION",
@@ -743,12 +857,10 @@ public class ChangeApiRestClientTest {
                 "REVIEWER_UPDATES",
                 "SUBMITTABLE"));
         GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-            .expectGet("/changes/" + expectedChangeId + "?o=" + listOptions, jsonElement)
+            .expectGet("/changes/" + expectedChangeId + "?o=" + listOptions, ChangeInfo.class, expectedChangeInfo)
             .expectGet("/config/server/version", new JsonPrimitive("2.14.20-102-g0b53142"))
             .get();
         ChangeInfosParser changeInfosParser = EasyMock.createMock(ChangeInfosParser.class);
-        ChangeInfo expectedChangeInfo = EasyMock.createMock(ChangeInfo.class);
-        EasyMock.expect(changeInfosParser.parseSingleChangeInfo(jsonElement)).andReturn(expectedChangeInfo).once();
         EasyMock.replay(changeInfosParser);
 
         ChangeApiRestClient changeApiRestClient = new ChangeApiRestClient(gerritRestClient, null, changeInfosParser,
@@ -763,7 +875,7 @@ public class ChangeApiRestClientTest {
     @Test
     public void testChangeGetShouldUseAllOptionsOnLatestGerrit() throws Exception {
         String expectedChangeId = "myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940";
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
+        ChangeInfo expectedChangeInfo = EasyMock.createMock(ChangeInfo.class);
         List<String> allOptions = new ArrayList<>();
         for(Iterator<ListChangesOption> optionIterator = EnumSet.allOf(ListChangesOption.class).iterator(); optionIterator.hasNext(); ) {
             ListChangesOption option = optionIterator.next();
@@ -774,12 +886,10 @@ public class ChangeApiRestClientTest {
         String listOptions =
             String.join("&o=", allOptions);
         GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-            .expectGet("/changes/" + expectedChangeId + "?o=" + listOptions, jsonElement)
+            .expectGet("/changes/" + expectedChangeId + "?o=" + listOptions, ChangeInfo.class, expectedChangeInfo)
             .expectGet("/config/server/version", new JsonPrimitive("99.99"))
             .get();
         ChangeInfosParser changeInfosParser = EasyMock.createMock(ChangeInfosParser.class);
-        ChangeInfo expectedChangeInfo = EasyMock.createMock(ChangeInfo.class);
-        EasyMock.expect(changeInfosParser.parseSingleChangeInfo(jsonElement)).andReturn(expectedChangeInfo).once();
         EasyMock.replay(changeInfosParser);
 
         ChangeApiRestClient changeApiRestClient = new ChangeApiRestClient(gerritRestClient, null, changeInfosParser,
@@ -793,13 +903,11 @@ public class ChangeApiRestClientTest {
 
     @Test
     public void testChangeInfo() throws Exception {
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
+        ChangeInfo expectedChangeInfo = EasyMock.createMock(ChangeInfo.class);
         GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-            .expectGet("/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940", jsonElement)
+            .expectGet("/changes/myProject~master~I8473b95934b5732ac55d26311a706c9c2bde9940", ChangeInfo.class, expectedChangeInfo)
             .get();
         ChangeInfosParser changeInfosParser = EasyMock.createMock(ChangeInfosParser.class);
-        ChangeInfo expectedChangeInfo = EasyMock.createMock(ChangeInfo.class);
-        EasyMock.expect(changeInfosParser.parseSingleChangeInfo(jsonElement)).andReturn(expectedChangeInfo).once();
         EasyMock.replay(changeInfosParser);
 
         ChangeApiRestClient changeApiRestClient = new ChangeApiRestClient(gerritRestClient, null, changeInfosParser, null,
@@ -907,6 +1015,19 @@ public class ChangeApiRestClientTest {
               .get();
   }
 
+    private ChangesRestClient getChangesRestClient(GerritRestClient gerritRestClient,
+                                                   ServerRestClient serverRestClient) {
+        return new ChangesRestClient(gerritRestClient, null, null, null, null, null, null, null, null, null, null,
+            serverRestClient);
+    }
+
+    private ServerRestClient getServerRestClient(String version) throws Exception {
+        ServerRestClient serverRestClient = EasyMock.createMock(ServerRestClient.class);
+        EasyMock.expect(serverRestClient.getVersionCached()).andReturn(version).anyTimes();
+        EasyMock.replay(serverRestClient);
+        return serverRestClient;
+    }
+
     private ChangesRestClient getChangesRestClient(GerritRestClient gerritRestClient) {
         return new ChangesRestClient(
                 gerritRestClient,
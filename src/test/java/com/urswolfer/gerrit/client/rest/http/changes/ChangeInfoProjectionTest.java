@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import com.google.common.reflect.TypeToken;
+import com.google.common.truth.Truth;
+import com.google.gerrit.extensions.client.ChangeStatus;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * @author Urs Wolfer
+ */
+public class ChangeInfoProjectionTest {
+    private static final Type CHANGE_INFO_LIST_TYPE = new TypeToken<List<ChangeInfo>>() {}.getType();
+    private static final ChangeInfoProjection PROJECTION =
+        ChangeInfoProjection.of("_number", "status", "updated", "currentRevision");
+
+    @Test
+    public void testOnlyProjectedFieldsAreRead() throws Exception {
+        String json = "{\"_number\":7,\"status\":\"MERGED\",\"updated\":\"2013-07-29 06:55:14.214000000\","
+            + "\"current_revision\":\"184ebe53805e102605d11f6b143486d15c23a09c\",\"subject\":\"s\","
+            + "\"owner\":{\"_account_id\":1000},\"labels\":{\"Code-Review\":{\"all\":[{\"value\":2}]}},"
+            + "\"revisions\":{\"184ebe53805e102605d11f6b143486d15c23a09c\":{\"_number\":1,\"files\":{\"a\":{}}}}}";
+
+        ChangeInfo changeInfo = PROJECTION.getGson().fromJson(json, ChangeInfo.class);
+
+        Truth.assertThat(changeInfo._number).isEqualTo(7);
+        Truth.assertThat(changeInfo.status).isEqualTo(ChangeStatus.MERGED);
+        Truth.assertThat(changeInfo.updated.getTime()).isEqualTo(1375080914214L);
+        Truth.assertThat(changeInfo.currentRevision).isEqualTo("184ebe53805e102605d11f6b143486d15c23a09c");
+        Truth.assertThat(changeInfo.subject).isNull();
+        Truth.assertThat(changeInfo.owner).isNull();
+        Truth.assertThat(changeInfo.labels).isNull();
+        Truth.assertThat(changeInfo.revisions).isNull();
+    }
+
+    @Test
+    public void testChangeList() throws Exception {
+        String json = Resources.toString(
+            Resources.getResource("com/urswolfer/gerrit/client/rest/http/changes/parsers/changes.json"), Charsets.UTF_8);
+        json = json.substring(json.indexOf('\n') + 1); // ")]}'" prefix
+
+        List<ChangeInfo> changeInfos = PROJECTION.getGson().fromJson(json, CHANGE_INFO_LIST_TYPE);
+
+        Truth.assertThat(changeInfos).hasSize(3);
+        Truth.assertThat(changeInfos.get(0)._number).isEqualTo(9);
+        Truth.assertThat(changeInfos.get(0).status).isEqualTo(ChangeStatus.NEW);
+        Truth.assertThat(changeInfos.get(0).project).isNull();
+        Truth.assertThat(changeInfos.get(0).owner).isNull();
+    }
+
+    @Test
+    public void testMoreChangesIsAlwaysRead() throws Exception {
+        ChangeInfo changeInfo = ChangeInfoProjection.of("_number").getGson()
+            .fromJson("{\"_number\":7,\"_more_changes\":true}", ChangeInfo.class);
+
+        Truth.assertThat(changeInfo._moreChanges).isTrue();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownField() throws Exception {
+        ChangeInfoProjection.of("current_revision");
+    }
+}
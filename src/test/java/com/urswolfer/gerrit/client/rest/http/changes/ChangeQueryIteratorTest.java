@@ -0,0 +1,248 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.truth.Truth;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gerrit.extensions.restapi.RestApiException;
+import com.urswolfer.gerrit.client.rest.http.HttpStatusException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author Urs Wolfer
+ */
+public class ChangeQueryIteratorTest {
+
+    @Test
+    public void testPrefetch() throws Exception {
+        FakePageLoader pageLoader = new FakePageLoader(5);
+        ManualBackgroundExecutor backgroundExecutor = new ManualBackgroundExecutor();
+        ChangeQueryIterator iterator = new ChangeQueryIterator(pageLoader, backgroundExecutor, 0, 2, 0, 2);
+
+        Truth.assertThat(iterator.next()._number).isEqualTo(1);
+        Truth.assertThat(pageLoader.starts).containsExactly(0);
+        Truth.assertThat(backgroundExecutor.calls).hasSize(2);
+
+        backgroundExecutor.run(0);
+        backgroundExecutor.run(1);
+        Truth.assertThat(pageLoader.starts).containsExactly(0, 2, 4).inOrder();
+
+        Truth.assertThat(iterator.next()._number).isEqualTo(2);
+        Truth.assertThat(iterator.next()._number).isEqualTo(3);
+        Truth.assertThat(backgroundExecutor.calls).hasSize(3);
+        Truth.assertThat(iterator.next()._number).isEqualTo(4);
+        Truth.assertThat(iterator.next()._number).isEqualTo(5);
+        Truth.assertThat(iterator.hasNext()).isFalse();
+
+        // last page has no "_more_changes", so the request for the page after it is cancelled
+        Truth.assertThat(backgroundExecutor.futures.get(2).isCancelled()).isTrue();
+        Truth.assertThat(pageLoader.starts).containsExactly(0, 2, 4).inOrder();
+    }
+
+    @Test
+    public void testCloseCancelsPrefetch() throws Exception {
+        FakePageLoader pageLoader = new FakePageLoader(10);
+        ManualBackgroundExecutor backgroundExecutor = new ManualBackgroundExecutor();
+        ChangeQueryIterator iterator = new ChangeQueryIterator(pageLoader, backgroundExecutor, 0, 2, 0, 2);
+
+        Truth.assertThat(iterator.next()._number).isEqualTo(1);
+        iterator.close();
+
+        Truth.assertThat(iterator.hasNext()).isFalse();
+        Truth.assertThat(backgroundExecutor.futures.get(0).isCancelled()).isTrue();
+        Truth.assertThat(backgroundExecutor.futures.get(1).isCancelled()).isTrue();
+        Truth.assertThat(pageLoader.starts).containsExactly(0);
+    }
+
+    @Test
+    public void testNoPrefetchWhenRequestsRunInline() throws Exception {
+        FakePageLoader pageLoader = new FakePageLoader(5);
+        ManualBackgroundExecutor backgroundExecutor = new ManualBackgroundExecutor();
+        backgroundExecutor.inline = true;
+        ChangeQueryIterator iterator = new ChangeQueryIterator(pageLoader, backgroundExecutor, 0, 2, 0, 2);
+
+        Truth.assertThat(numbers(iterator)).containsExactly(1, 2, 3, 4, 5).inOrder();
+        Truth.assertThat(backgroundExecutor.calls).isEmpty();
+        Truth.assertThat(pageLoader.starts).containsExactly(0, 2, 4).inOrder();
+    }
+
+    @Test
+    public void testPrefetchRespectsLimit() throws Exception {
+        FakePageLoader pageLoader = new FakePageLoader(10);
+        ManualBackgroundExecutor backgroundExecutor = new ManualBackgroundExecutor();
+        ChangeQueryIterator iterator = new ChangeQueryIterator(pageLoader, backgroundExecutor, 0, 2, 3, 5);
+
+        Truth.assertThat(iterator.next()._number).isEqualTo(1);
+        Truth.assertThat(backgroundExecutor.calls).hasSize(1);
+        backgroundExecutor.run(0);
+
+        List<Integer> numbers = Lists.newArrayList();
+        while (iterator.hasNext()) {
+            numbers.add(iterator.next()._number);
+        }
+        Truth.assertThat(numbers).containsExactly(2, 3).inOrder();
+        Truth.assertThat(pageLoader.limits).containsExactly(2, 1).inOrder();
+    }
+
+    @Test
+    public void testPrefetchAdaptsToPageSizeCappedByServer() throws Exception {
+        FakePageLoader pageLoader = new FakePageLoader(10, 2);
+        ManualBackgroundExecutor backgroundExecutor = new ManualBackgroundExecutor();
+        ChangeQueryIterator iterator = new ChangeQueryIterator(pageLoader, backgroundExecutor, 0, 4, 0, 2);
+
+        List<Integer> numbers = Lists.newArrayList();
+        while (iterator.hasNext()) {
+            numbers.add(iterator.next()._number);
+            backgroundExecutor.runPending();
+        }
+        Truth.assertThat(numbers).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10).inOrder();
+        Truth.assertThat(pageLoader.starts).containsExactly(0, 2, 4, 6, 8, 10).inOrder();
+        Truth.assertThat(pageLoader.limits).containsExactly(4, 2, 2, 2, 2, 2).inOrder();
+    }
+
+    @Test
+    public void testFailedPageIsRequestedAgain() throws Exception {
+        FakePageLoader pageLoader = new FakePageLoader(5);
+        pageLoader.failingStarts.add(2);
+        ChangeQueryIterator iterator = new ChangeQueryIterator(pageLoader, null, 0, 2, 0, 0);
+
+        Truth.assertThat(iterator.next()._number).isEqualTo(1);
+        Truth.assertThat(iterator.next()._number).isEqualTo(2);
+        assertFailsWithRestApiException(iterator);
+        Truth.assertThat(numbers(iterator)).containsExactly(3, 4, 5).inOrder();
+        Truth.assertThat(pageLoader.starts).containsExactly(0, 2, 2, 4).inOrder();
+    }
+
+    @Test
+    public void testFailedPrefetchedPageIsRequestedAgain() throws Exception {
+        FakePageLoader pageLoader = new FakePageLoader(5);
+        pageLoader.failingStarts.add(2);
+        ManualBackgroundExecutor backgroundExecutor = new ManualBackgroundExecutor();
+        ChangeQueryIterator iterator = new ChangeQueryIterator(pageLoader, backgroundExecutor, 0, 2, 0, 1);
+
+        Truth.assertThat(iterator.next()._number).isEqualTo(1);
+        Truth.assertThat(iterator.next()._number).isEqualTo(2);
+        backgroundExecutor.run(0);
+        assertFailsWithRestApiException(iterator);
+
+        backgroundExecutor.runPending();
+        List<Integer> numbers = Lists.newArrayList();
+        while (iterator.hasNext()) {
+            numbers.add(iterator.next()._number);
+            backgroundExecutor.runPending();
+        }
+        Truth.assertThat(numbers).containsExactly(3, 4, 5).inOrder();
+        Truth.assertThat(pageLoader.starts).containsExactly(0, 2, 2, 4).inOrder();
+    }
+
+    private static void assertFailsWithRestApiException(ChangeQueryIterator iterator) {
+        try {
+            iterator.hasNext();
+            Assert.fail("Expected RuntimeException.");
+        } catch (RuntimeException e) {
+            Truth.assertThat(e.getCause()).isInstanceOf(RestApiException.class);
+        }
+    }
+
+    private static List<Integer> numbers(ChangeQueryIterator iterator) {
+        List<Integer> numbers = Lists.newArrayList();
+        while (iterator.hasNext()) {
+            numbers.add(iterator.next()._number);
+        }
+        return numbers;
+    }
+
+    private static class FakePageLoader implements ChangeQueryIterator.PageLoader {
+        private final int total;
+        private final int maxLimit;
+        private final Set<Integer> failingStarts = Sets.newHashSet();
+        private final List<Integer> starts = Lists.newArrayList();
+        private final List<Integer> limits = Lists.newArrayList();
+
+        private FakePageLoader(int total) {
+            this(total, Integer.MAX_VALUE);
+        }
+
+        private FakePageLoader(int total, int maxLimit) {
+            this.total = total;
+            this.maxLimit = maxLimit;
+        }
+
+        @Override
+        public synchronized List<ChangeInfo> load(int start, int requestedLimit) throws RestApiException {
+            starts.add(start);
+            limits.add(requestedLimit);
+            if (failingStarts.remove(start)) {
+                throw new HttpStatusException(503, "Service Unavailable", "Request not successful.");
+            }
+            int limit = Math.min(requestedLimit, maxLimit);
+            List<ChangeInfo> changes = Lists.newArrayList();
+            for (int i = start; i < Math.min(start + limit, total); i++) {
+                ChangeInfo changeInfo = new ChangeInfo();
+                changeInfo._number = i + 1;
+                changes.add(changeInfo);
+            }
+            if (start + limit < total) {
+                changes.get(changes.size() - 1)._moreChanges = true;
+            }
+            return changes;
+        }
+    }
+
+    private static class ManualBackgroundExecutor implements ChangeQueryIterator.BackgroundExecutor {
+        private final List<Callable<List<ChangeInfo>>> calls = Lists.newArrayList();
+        private final List<CompletableFuture<List<ChangeInfo>>> futures = Lists.newArrayList();
+        private boolean inline;
+
+        @Override
+        public CompletableFuture<List<ChangeInfo>> executeInBackground(Callable<List<ChangeInfo>> call) {
+            CompletableFuture<List<ChangeInfo>> future = new CompletableFuture<List<ChangeInfo>>();
+            calls.add(call);
+            futures.add(future);
+            return future;
+        }
+
+        @Override
+        public boolean runsInline() {
+            return inline;
+        }
+
+        void run(int index) {
+            try {
+                futures.get(index).complete(calls.get(index).call());
+            } catch (Exception e) {
+                futures.get(index).completeExceptionally(e);
+            }
+        }
+
+        void runPending() {
+            for (int i = 0; i < futures.size(); i++) {
+                if (!futures.get(i).isDone()) {
+                    run(i);
+                }
+            }
+        }
+    }
+}
@@ -17,8 +17,10 @@
 package com.urswolfer.gerrit.client.rest.http.changes;
 
 import com.google.common.base.Function;
+import com.google.common.base.Joiner;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.reflect.TypeToken;
 import com.google.common.truth.Truth;
 import com.google.gerrit.extensions.api.changes.ChangeApi;
 import com.google.gerrit.extensions.api.changes.Changes;
@@ -26,6 +28,8 @@ import com.google.gerrit.extensions.client.ListChangesOption;
 import com.google.gerrit.extensions.common.ChangeInfo;
 import com.google.gerrit.extensions.common.ChangeInput;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.urswolfer.gerrit.client.rest.gson.GsonFactory;
 import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
 import com.urswolfer.gerrit.client.rest.http.changes.parsers.ChangeInfosParser;
 import com.urswolfer.gerrit.client.rest.http.changes.parsers.CommentsParser;
@@ -34,15 +38,19 @@ import org.easymock.EasyMock;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.lang.reflect.Type;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * @author Thomas Forrer
  */
 public class ChangesRestClientTest {
     private static final JsonElement MOCK_JSON_ELEMENT = EasyMock.createMock(JsonElement.class);
+    private static final Type CHANGE_INFO_LIST_TYPE = new TypeToken<List<ChangeInfo>>() {}.getType();
+    private static final ChangeInfosParser CHANGE_INFOS_PARSER = new ChangeInfosParser(GsonFactory.create());
 
     private static final Function<ChangesQueryTestCase, ChangesQueryTestCase[]> WRAP_IN_ARRAY_FUNCTION =
         testCase -> new ChangesQueryTestCase[]{testCase};
@@ -85,8 +93,8 @@ public class ChangesRestClientTest {
 
     @Test(dataProvider = "ChangesQueryTestCases")
     public void testQueryWithParameter(ChangesQueryTestCase testCase) throws Exception {
-        GerritRestClient gerritRestClient = setupGerritRestClient(testCase);
-        ChangeInfosParser changeInfosParser = setupChangesParser();
+        GerritRestClient gerritRestClient = setupGerritRestClient();
+        ChangeInfosParser changeInfosParser = setupChangesParser(gerritRestClient, testCase.expectedUrl);
 
         ChangesRestClient changes = new ChangesRestClient(gerritRestClient, changeInfosParser, null, null,
             null, null, null,
@@ -100,10 +108,8 @@ public class ChangesRestClientTest {
 
     @Test
     public void testQueryWithString() throws Exception {
-        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-                .expectGet("/changes/?q=is:open", MOCK_JSON_ELEMENT)
-                .get();
-        ChangeInfosParser changeInfosParser = setupChangesParser();
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder().get();
+        ChangeInfosParser changeInfosParser = setupChangesParser(gerritRestClient, "/changes/?q=is:open");
         CommentsParser commentsParser = EasyMock.createMock(CommentsParser.class);
 
         ChangesRestClient changesRestClient = new ChangesRestClient(gerritRestClient, changeInfosParser, commentsParser, null,
@@ -111,7 +117,7 @@ public class ChangesRestClientTest {
             null, null, null, null);
         changesRestClient.query("is:open").get();
 
-        EasyMock.verify(gerritRestClient);
+        EasyMock.verify(gerritRestClient, changeInfosParser);
     }
 
     @Test
@@ -162,8 +168,8 @@ public class ChangesRestClientTest {
     @Test
     public void testQuery() throws Exception {
         ChangesQueryTestCase testCase = new ChangesQueryTestCase().expectUrl("/changes/");
-        GerritRestClient gerritRestClient = setupGerritRestClient(testCase);
-        ChangeInfosParser changeInfosParser = setupChangesParser();
+        GerritRestClient gerritRestClient = setupGerritRestClient();
+        ChangeInfosParser changeInfosParser = setupChangesParser(gerritRestClient, testCase.expectedUrl);
 
         ChangesRestClient changes = new ChangesRestClient(gerritRestClient, changeInfosParser,null,
             null, null, null, null,
@@ -174,6 +180,173 @@ public class ChangesRestClientTest {
         EasyMock.verify(gerritRestClient, changeInfosParser);
     }
 
+    @Test
+    public void testQueryIterator() throws Exception {
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
+            .expectGet("/changes/?q=is:open&n=2", CHANGE_INFO_LIST_TYPE,
+                Lists.newArrayList(changeInfo(1, false), changeInfo(2, true)))
+            .expectGet("/changes/?q=is:open&n=2&S=2", CHANGE_INFO_LIST_TYPE,
+                Lists.newArrayList(changeInfo(3, false), changeInfo(4, true)))
+            .expectGet("/changes/?q=is:open&n=2&S=4", CHANGE_INFO_LIST_TYPE,
+                Lists.newArrayList(changeInfo(5, false)))
+            .get();
+
+        ChangesRestClient changes = new ChangesRestClient(gerritRestClient, CHANGE_INFOS_PARSER, null,
+            null, null, null, null,
+            null, null, null, null);
+
+        Iterator<ChangeInfo> iterator = changes.queryIterator(changes.query("is:open"), 2);
+        List<Integer> numbers = Lists.newArrayList();
+        while (iterator.hasNext()) {
+            numbers.add(iterator.next()._number);
+        }
+
+        Truth.assertThat(numbers).containsExactly(1, 2, 3, 4, 5).inOrder();
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test
+    public void testQueryStreamWithStartAndLimit() throws Exception {
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
+            .expectGet("/changes/?q=is:open&n=2&S=10", CHANGE_INFO_LIST_TYPE,
+                Lists.newArrayList(changeInfo(11, false), changeInfo(12, true)))
+            .expectGet("/changes/?q=is:open&n=1&S=12", CHANGE_INFO_LIST_TYPE,
+                Lists.newArrayList(changeInfo(13, true)))
+            .get();
+
+        ChangesRestClient changes = new ChangesRestClient(gerritRestClient, CHANGE_INFOS_PARSER, null,
+            null, null, null, null,
+            null, null, null, null);
+
+        Changes.QueryRequest queryRequest = changes.query("is:open").withStart(10).withLimit(3);
+        List<Integer> numbers = Lists.newArrayList();
+        changes.queryStream(queryRequest, 2).forEach(changeInfo -> numbers.add(changeInfo._number));
+
+        Truth.assertThat(numbers).containsExactly(11, 12, 13).inOrder();
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test
+    public void testQueryIteratorWithoutResults() throws Exception {
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
+            .expectGet("/changes/?q=is:open&n=2", CHANGE_INFO_LIST_TYPE,
+                Lists.<ChangeInfo>newArrayList())
+            .get();
+
+        ChangesRestClient changes = new ChangesRestClient(gerritRestClient, CHANGE_INFOS_PARSER, null,
+            null, null, null, null,
+            null, null, null, null);
+
+        Iterator<ChangeInfo> iterator = changes.queryIterator(changes.query("is:open"), 2);
+
+        Truth.assertThat(iterator.hasNext()).isFalse();
+        Truth.assertThat(iterator.hasNext()).isFalse();
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test
+    public void testGetByIds() throws Exception {
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
+            .expectGet("/changes/?q=change:3+OR+change:1+OR+change:2&n=3&o=CURRENT_REVISION",
+                CHANGE_INFO_LIST_TYPE, Lists.newArrayList(changeInfo(1, false), changeInfo(3, false)))
+            .get();
+
+        ChangesRestClient changes = new ChangesRestClient(gerritRestClient, CHANGE_INFOS_PARSER, null,
+            null, null, null, null,
+            null, null, null, null);
+
+        ChangesByIdResult result = changes.getByIds(Lists.newArrayList(3, 1, 2, 3),
+            EnumSet.of(ListChangesOption.CURRENT_REVISION), 1);
+
+        Truth.assertThat(result.getChanges().keySet()).containsExactly(3, 1).inOrder();
+        Truth.assertThat(result.getMissingIds()).containsExactly(2);
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test
+    public void testQueryWithProjection() throws Exception {
+        ChangeInfoProjection projection = ChangeInfoProjection.of("_number", "status");
+        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
+        EasyMock.expect(gerritRestClient.getRequest(EasyMock.eq("/changes/?q=is:open&o=LABELS"),
+                EasyMock.eq(CHANGE_INFO_LIST_TYPE), EasyMock.same(projection.getGson())))
+            .andReturn(Lists.newArrayList(changeInfo(1, false))).once();
+        EasyMock.replay(gerritRestClient);
+
+        ChangesRestClient changes = new ChangesRestClient(gerritRestClient, CHANGE_INFOS_PARSER, null,
+            null, null, null, null,
+            null, null, null, null);
+
+        List<ChangeInfo> changeInfos = changes.query(changes.query("is:open").withOption(ListChangesOption.LABELS),
+            projection);
+
+        Truth.assertThat(changeInfos).hasSize(1);
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test
+    public void testQueryIteratorWithProjection() throws Exception {
+        ChangeInfoProjection projection = ChangeInfoProjection.of("_number");
+        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
+        EasyMock.expect(gerritRestClient.getRequest(EasyMock.eq("/changes/?q=is:open&n=2"),
+                EasyMock.eq(CHANGE_INFO_LIST_TYPE), EasyMock.same(projection.getGson())))
+            .andReturn(Lists.newArrayList(changeInfo(1, false), changeInfo(2, true))).once();
+        EasyMock.expect(gerritRestClient.getRequest(EasyMock.eq("/changes/?q=is:open&n=2&S=2"),
+                EasyMock.eq(CHANGE_INFO_LIST_TYPE), EasyMock.same(projection.getGson())))
+            .andReturn(Lists.newArrayList(changeInfo(3, false))).once();
+        EasyMock.replay(gerritRestClient);
+
+        ChangesRestClient changes = new ChangesRestClient(gerritRestClient, CHANGE_INFOS_PARSER, null,
+            null, null, null, null,
+            null, null, null, null);
+
+        List<Integer> numbers = Lists.newArrayList();
+        changes.queryStream(changes.query("is:open"), projection, 2).forEach(changeInfo -> numbers.add(changeInfo._number));
+
+        Truth.assertThat(numbers).containsExactly(1, 2, 3).inOrder();
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test
+    public void testBulkQueryChunks() throws Exception {
+        List<Integer> ids = Lists.newArrayList();
+        for (int i = 1; i <= 250; i++) {
+            ids.add(i);
+        }
+        List<List<Integer>> chunks = ChangesRestClient.bulkQueryChunks(ids);
+        Truth.assertThat(chunks).hasSize(3);
+        Truth.assertThat(chunks.get(0)).hasSize(ChangesRestClient.BULK_QUERY_MAX_IDS);
+        Truth.assertThat(chunks.get(2)).hasSize(50);
+
+        ids.clear();
+        for (int i = 0; i < ChangesRestClient.BULK_QUERY_MAX_IDS; i++) {
+            ids.add(1000000000 + i);
+        }
+        for (List<Integer> chunk : ChangesRestClient.bulkQueryChunks(ids)) {
+            Truth.assertThat(ChangesRestClient.bulkQuery(chunk).length()).isAtMost(ChangesRestClient.BULK_QUERY_MAX_LENGTH);
+        }
+        Truth.assertThat(ChangesRestClient.bulkQuery(Lists.newArrayList(1, 2))).isEqualTo("change:1+OR+change:2");
+    }
+
+    @Test
+    public void testServerVersionIsSharedBetweenChanges() throws Exception {
+        ChangeInfo changeInfo = new ChangeInfo();
+        String options = "?o=" + Joiner.on("&o=").join(ListChangesOptionByVersion.allSupported("3.9.1"));
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
+            .expectGet("/config/server/version", new JsonPrimitive("3.9.1"))
+            .expectGet("/changes/1" + options, ChangeInfo.class, changeInfo)
+            .expectGet("/changes/2" + options, ChangeInfo.class, changeInfo)
+            .get();
+
+        ChangesRestClient changes = new ChangesRestClient(gerritRestClient, CHANGE_INFOS_PARSER, null,
+            null, null, null, null,
+            null, null, null, null);
+
+        changes.id(1).get();
+        changes.id(2).get();
+
+        EasyMock.verify(gerritRestClient);
+    }
+
     @Test
     public void testCreate() throws Exception {
         ChangesCreateTestCase testCase = new ChangesCreateTestCase().expectUrl("/changes/");
@@ -196,14 +369,15 @@ public class ChangesRestClientTest {
         EasyMock.verify(gerritRestClient, changeInfosParser);
     }
 
-    private GerritRestClient setupGerritRestClient(ChangesQueryTestCase testCase) throws Exception {
-        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
-
-        // this test does not care about json parsing, just return a mocked json element...
-        EasyMock.expect(gerritRestClient.getRequest(testCase.expectedUrl))
-                .andReturn(MOCK_JSON_ELEMENT)
-                .once();
+    private static ChangeInfo changeInfo(int number, boolean moreChanges) {
+        ChangeInfo changeInfo = new ChangeInfo();
+        changeInfo._number = number;
+        changeInfo._moreChanges = moreChanges ? true : null;
+        return changeInfo;
+    }
 
+    private GerritRestClient setupGerritRestClient() throws Exception {
+        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
         EasyMock.replay(gerritRestClient);
         return gerritRestClient;
     }
@@ -219,9 +393,10 @@ public class ChangesRestClientTest {
         return gerritRestClient;
     }
 
-    private ChangeInfosParser setupChangesParser() throws Exception {
+    private ChangeInfosParser setupChangesParser(GerritRestClient gerritRestClient, String expectedUrl) throws Exception {
+        // this test does not care about json parsing, just return an empty result...
         ChangeInfosParser changeInfosParser = EasyMock.createMock(ChangeInfosParser.class);
-        EasyMock.expect(changeInfosParser.parseChangeInfos(MOCK_JSON_ELEMENT))
+        EasyMock.expect(changeInfosParser.requestChangeInfos(gerritRestClient, expectedUrl))
                 .andReturn(Lists.<ChangeInfo>newArrayList())
                 .once();
         EasyMock.replay(changeInfosParser);
@@ -23,7 +23,6 @@ import com.google.gerrit.extensions.common.DiffInfo;
 import com.google.gerrit.extensions.restapi.BinaryResult;
 import com.google.gerrit.extensions.restapi.RestApiException;
 import com.google.gerrit.extensions.restapi.Url;
-import com.google.gson.JsonElement;
 import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
 import com.urswolfer.gerrit.client.rest.http.changes.parsers.CommitInfosParser;
 import com.urswolfer.gerrit.client.rest.http.common.GerritRestClientBuilder;
@@ -66,7 +65,7 @@ public class FileApiRestClientTest {
         setupServices();
 
         GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-            .expectRequest(requestUrl, null, GET, httpResponse)
+            .expectBinaryRequest(requestUrl, httpResponse)
             .get();
 
         FileApiRestClient fileApiRestClient = new FileApiRestClient(gerritRestClient, revisionApiRestClient, null, FILE_PATH);
@@ -159,16 +158,15 @@ public class FileApiRestClientTest {
     }
 
     private void testDiff(Function<FileApiRestClient, Void> method, String expectedRequestUrl) throws Exception {
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
         DiffInfo diffInfo = EasyMock.createMock(DiffInfo.class);
 
+        setupServices();
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder().get();
+
         CommitInfosParser commitInfosParser = EasyMock.createMock(CommitInfosParser.class);
-        EasyMock.expect(commitInfosParser.parseDiffInfo(jsonElement)).andReturn(diffInfo).once();
+        EasyMock.expect(commitInfosParser.requestDiffInfo(gerritRestClient, expectedRequestUrl)).andReturn(diffInfo).once();
         EasyMock.replay(commitInfosParser);
 
-        setupServices();
-        GerritRestClient gerritRestClient = new GerritRestClientBuilder().expectGet(expectedRequestUrl, jsonElement).get();
-
         FileApiRestClient fileApiRestClient = new FileApiRestClient(gerritRestClient, revisionApiRestClient, commitInfosParser, FILE_PATH);
         method.apply(fileApiRestClient);
 
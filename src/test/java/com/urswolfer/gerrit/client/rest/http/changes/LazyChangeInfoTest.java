@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.truth.Truth;
+import com.google.gerrit.extensions.client.ChangeStatus;
+import com.google.gerrit.extensions.common.ChangeInfo;
+import com.google.gson.Gson;
+import com.urswolfer.gerrit.client.rest.gson.GsonFactory;
+import org.testng.annotations.Test;
+
+/**
+ * @author Urs Wolfer
+ */
+public class LazyChangeInfoTest {
+    private static final String ACCOUNT = "{\"_account_id\":1000,\"name\":\"A\"}";
+    private static final String JSON = "{\"id\":\"p~master~I1\",\"_number\":97,\"status\":\"NEW\","
+        + "\"updated\":\"2013-02-21 11:16:36.775000000\",\"owner\":" + ACCOUNT + ","
+        + "\"labels\":{\"Code-Review\":{\"all\":[{\"_account_id\":1000,\"value\":2}],\"values\":{\"+2\":\"Ok\"}}},"
+        + "\"messages\":[{\"id\":\"m\",\"author\":" + ACCOUNT + ",\"message\":\"msg\","
+        + "\"date\":\"2013-02-21 11:16:36.775000000\"}],"
+        + "\"current_revision\":\"184ebe53805e102605d11f6b143486d15c23a09c\","
+        + "\"revisions\":{\"184ebe53805e102605d11f6b143486d15c23a09c\":{\"_number\":1,\"files\":{\"a\":{}}}},"
+        + "\"reviewer_updates\":[{\"state\":\"REVIEWER\",\"reviewer\":" + ACCOUNT + ",\"updated_by\":" + ACCOUNT + "}]}";
+
+    private final Gson gson = GsonFactory.create();
+
+    @Test
+    public void testHeavySectionsAreDeferred() throws Exception {
+        LazyChangeInfo lazyChangeInfo = LazyChangeInfoTypeAdapter.GSON.fromJson(JSON, LazyChangeInfo.class);
+
+        ChangeInfo changeInfo = lazyChangeInfo.getChangeInfo();
+        Truth.assertThat(changeInfo._number).isEqualTo(97);
+        Truth.assertThat(changeInfo.status).isEqualTo(ChangeStatus.NEW);
+        Truth.assertThat(changeInfo.owner.name).isEqualTo("A");
+        Truth.assertThat(changeInfo.currentRevision).isEqualTo("184ebe53805e102605d11f6b143486d15c23a09c");
+        Truth.assertThat(changeInfo.labels).isNull();
+        Truth.assertThat(changeInfo.messages).isNull();
+        Truth.assertThat(changeInfo.revisions).isNull();
+        Truth.assertThat(changeInfo.reviewerUpdates).isNull();
+
+        Truth.assertThat(lazyChangeInfo.getLabels().get("Code-Review").all.get(0).value).isEqualTo(2);
+        Truth.assertThat(changeInfo.labels).isSameInstanceAs(lazyChangeInfo.getLabels());
+        Truth.assertThat(changeInfo.messages).isNull();
+        Truth.assertThat(lazyChangeInfo.getRevisions()).containsKey("184ebe53805e102605d11f6b143486d15c23a09c");
+    }
+
+    @Test
+    public void testMaterializeIsSameAsFullParse() throws Exception {
+        LazyChangeInfo lazyChangeInfo = LazyChangeInfoTypeAdapter.GSON.fromJson(JSON, LazyChangeInfo.class);
+        lazyChangeInfo.getMessages();
+
+        ChangeInfo changeInfo = lazyChangeInfo.materialize();
+
+        Truth.assertThat(gson.toJson(changeInfo)).isEqualTo(gson.toJson(gson.fromJson(JSON, ChangeInfo.class)));
+        Truth.assertThat(LazyChangeInfoTypeAdapter.GSON.toJson(lazyChangeInfo)).isEqualTo(gson.toJson(changeInfo));
+    }
+
+    @Test
+    public void testMissingSections() throws Exception {
+        LazyChangeInfo lazyChangeInfo = LazyChangeInfoTypeAdapter.GSON.fromJson(
+            "{\"_number\":1,\"labels\":null}", LazyChangeInfo.class);
+
+        Truth.assertThat(lazyChangeInfo.getLabels()).isNull();
+        Truth.assertThat(lazyChangeInfo.getMessages()).isNull();
+        Truth.assertThat(lazyChangeInfo.materialize()._number).isEqualTo(1);
+        Truth.assertThat(LazyChangeInfoTypeAdapter.GSON.fromJson("null", LazyChangeInfo.class)).isNull();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.truth.Truth;
+import com.google.gerrit.extensions.client.ListChangesOption;
+import org.testng.annotations.Test;
+
+import java.util.EnumSet;
+
+/**
+ * @author Urs Wolfer
+ */
+public class ListChangesOptionProfileTest {
+
+    @Test
+    public void testOptionsAreSupportedByVersion() throws Exception {
+        Truth.assertThat(ListChangesOptionProfile.MINIMAL.getOptions("3.9.1"))
+            .containsExactly(ListChangesOption.SKIP_MERGEABLE, ListChangesOption.SKIP_DIFFSTAT);
+        Truth.assertThat(ListChangesOptionProfile.MINIMAL.getOptions("2.16.3"))
+            .containsExactly(ListChangesOption.SKIP_MERGEABLE);
+        Truth.assertThat(ListChangesOptionProfile.CI.getOptions("2.13.1"))
+            .containsExactly(ListChangesOption.LABELS, ListChangesOption.CURRENT_REVISION,
+                ListChangesOption.CURRENT_COMMIT);
+        Truth.assertThat(ListChangesOptionProfile.REVIEW.getOptions("3.9.1")).doesNotContain(ListChangesOption.ALL_REVISIONS);
+    }
+
+    @Test
+    public void testFullIsAllSupported() throws Exception {
+        Truth.assertThat(ListChangesOptionProfile.FULL.getOptions("2.14.2"))
+            .isEqualTo(ListChangesOptionByVersion.allSupported("2.14.2"));
+        Truth.assertThat(ListChangesOptionProfile.FULL.getOptions("3.9.1"))
+            .isEqualTo(ListChangesOptionByVersion.allSupported("3.9.1"));
+    }
+
+    @Test
+    public void testReturnedOptionsCanBeModified() throws Exception {
+        EnumSet<ListChangesOption> options = ListChangesOptionProfile.CI.getOptions("3.9.1");
+        options.add(ListChangesOption.MESSAGES);
+
+        Truth.assertThat(ListChangesOptionProfile.CI.getOptions("3.9.1")).doesNotContain(ListChangesOption.MESSAGES);
+    }
+}
@@ -17,6 +17,7 @@
 package com.urswolfer.gerrit.client.rest.http.changes;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.truth.Truth;
 import com.google.gerrit.extensions.api.changes.CherryPickInput;
 import com.google.gerrit.extensions.api.changes.ReviewInput;
@@ -232,16 +233,18 @@ public class RevisionApiRestClientTest extends AbstractParserTest {
 
     @Test(dataProvider = "TestCases")
     public void testGetFiles(RevisionApiTestCase testCase) throws Exception {
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
-        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-                .expectGet(testCase.fileUrl, jsonElement)
-                .get();
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder().get();
 
-        ChangesRestClient changesRestClient = getChangesRestClient(gerritRestClient);
+        FileInfoParser fileInfoParser = EasyMock.createMock(FileInfoParser.class);
+        EasyMock.expect(fileInfoParser.requestFileInfos(gerritRestClient, testCase.fileUrl))
+            .andReturn(Maps.newLinkedHashMap()).once();
+        EasyMock.replay(fileInfoParser);
+
+        ChangesRestClient changesRestClient = getChangesRestClient(gerritRestClient, fileInfoParser);
 
         changesRestClient.id(CHANGE_ID).revision(testCase.revision).files();
 
-        EasyMock.verify(gerritRestClient);
+        EasyMock.verify(gerritRestClient, fileInfoParser);
     }
 
     @Test(dataProvider = "TestCases")
@@ -291,14 +294,13 @@ public class RevisionApiRestClientTest extends AbstractParserTest {
 
     @Test(dataProvider = "TestCases")
     public void testGetCommentsAndDrafts(RevisionApiTestCase testCase) throws Exception {
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
-        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-                .expectGet(testCase.getCommentsUrl, jsonElement)
-                .expectGet(testCase.getDraftsUrl, jsonElement)
-                .get();
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder().get();
 
         CommentsParser commentsParser = EasyMock.createMock(CommentsParser.class);
-        EasyMock.expect(commentsParser.parseCommentInfos(jsonElement)).andReturn(null).times(2);
+        EasyMock.expect(commentsParser.requestCommentInfos(gerritRestClient, testCase.getCommentsUrl))
+            .andReturn(Maps.newTreeMap()).once();
+        EasyMock.expect(commentsParser.requestCommentInfos(gerritRestClient, testCase.getDraftsUrl))
+            .andReturn(Maps.newTreeMap()).once();
         EasyMock.replay(commentsParser);
 
         ChangesRestClient changesRestClient = getChangesRestClient(gerritRestClient, commentsParser);
@@ -326,13 +328,11 @@ public class RevisionApiRestClientTest extends AbstractParserTest {
 
     @Test(dataProvider = "TestCases")
     public void testGetRobotComments(RevisionApiTestCase testCase) throws Exception {
-        JsonElement jsonElement = EasyMock.createMock(JsonElement.class);
-        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-            .expectGet(testCase.robotCommentsUrl, jsonElement)
-            .get();
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder().get();
 
         CommentsParser commentsParser = EasyMock.createMock(CommentsParser.class);
-        EasyMock.expect(commentsParser.parseRobotCommentInfos(jsonElement)).andReturn(null).once();
+        EasyMock.expect(commentsParser.requestRobotCommentInfos(gerritRestClient, testCase.robotCommentsUrl))
+            .andReturn(Maps.newTreeMap()).once();
         EasyMock.replay(commentsParser);
 
         ChangesRestClient changesRestClient = getChangesRestClient(gerritRestClient, commentsParser);
@@ -373,7 +373,7 @@ public class RevisionApiRestClientTest extends AbstractParserTest {
         EasyMock.replay(httpEntity, httpResponse);
 
         GerritRestClient gerritRestClient = new GerritRestClientBuilder()
-            .expectRequest(requestUrl, null, GET, httpResponse)
+            .expectBinaryRequest(requestUrl, httpResponse)
             .get();
 
         ChangesRestClient changesRestClient = getChangesRestClient(gerritRestClient);
@@ -522,6 +522,21 @@ public class RevisionApiRestClientTest extends AbstractParserTest {
                 EasyMock.createMock(ServerConfigParser.class));
     }
 
+    private ChangesRestClient getChangesRestClient(GerritRestClient gerritRestClient, FileInfoParser fileInfoParser) {
+        return new ChangesRestClient(
+            gerritRestClient,
+            EasyMock.createMock(ChangeInfosParser.class),
+            EasyMock.createMock(CommentsParser.class),
+            fileInfoParser,
+            EasyMock.createMock(ReviewerInfosParser.class),
+            EasyMock.createMock(ReviewResultParser.class),
+            EasyMock.createMock(CommitInfosParser.class),
+            EasyMock.createMock(AccountsParser.class),
+            EasyMock.createMock(MergeableInfoParser.class),
+            EasyMock.createMock(ReviewInfoParser.class),
+            EasyMock.createMock(ServerConfigParser.class));
+    }
+
     private ChangesRestClient getChangesRestClient(GerritRestClient gerritRestClient, MergeableInfoParser mergeableInfoParser) {
         return new ChangesRestClient(
             gerritRestClient,
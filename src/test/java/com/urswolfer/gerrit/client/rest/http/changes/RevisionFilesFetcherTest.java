@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013-2026 Urs Wolfer
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.urswolfer.gerrit.client.rest.http.changes;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.reflect.TypeToken;
+import com.google.common.truth.Truth;
+import com.google.gerrit.extensions.common.DiffInfo;
+import com.google.gerrit.extensions.common.FileInfo;
+import com.google.gerrit.extensions.restapi.BinaryResult;
+import com.google.gerrit.extensions.restapi.RestApiException;
+import com.urswolfer.gerrit.client.rest.gson.GsonFactory;
+import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
+import com.urswolfer.gerrit.client.rest.http.changes.parsers.CommitInfosParser;
+import com.urswolfer.gerrit.client.rest.http.changes.parsers.FileInfoParser;
+import org.easymock.EasyMock;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Type;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @author Urs Wolfer
+ */
+public class RevisionFilesFetcherTest {
+    private static final String REVISION_URL = "/changes/1/revisions/abc";
+    private static final Type FILE_INFO_MAP_TYPE = new TypeToken<LinkedHashMap<String, FileInfo>>() {}.getType();
+    private static final FileInfoParser FILE_INFO_PARSER = new FileInfoParser(GsonFactory.create());
+    private static final CommitInfosParser COMMIT_INFOS_PARSER = new CommitInfosParser(GsonFactory.create());
+
+    @Test
+    public void testFetch() throws Exception {
+        Map<String, FileInfo> files = Maps.newLinkedHashMap();
+        files.put("a.txt", fileInfo(null, false, 10));
+        files.put("b.png", fileInfo(null, true, 10));
+        files.put("big.txt", fileInfo(null, false, 1000));
+        files.put("old.txt", fileInfo('D', false, 0));
+
+        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
+        EasyMock.expect(gerritRestClient.getRequest(REVISION_URL + "/files", FILE_INFO_MAP_TYPE))
+            .andReturn(files).once();
+        EasyMock.expect(gerritRestClient.getRequest(REVISION_URL + "/files/a.txt/diff", DiffInfo.class))
+            .andReturn(new DiffInfo()).once();
+        EasyMock.expect(gerritRestClient.requestBinary(REVISION_URL + "/files/a.txt/content"))
+            .andReturn(BinaryResult.create(Base64.getEncoder().encodeToString("hello".getBytes(Charsets.UTF_8))).base64())
+            .once();
+        EasyMock.expect(gerritRestClient.getRequest(REVISION_URL + "/files/old.txt/diff", DiffInfo.class))
+            .andReturn(new DiffInfo()).once();
+        EasyMock.expect(gerritRestClient.executeInBackground(EasyMock.<Callable<Object>>anyObject())).andStubAnswer(() -> {
+            Callable<?> call = (Callable<?>) EasyMock.getCurrentArguments()[0];
+            return CompletableFuture.completedFuture(call.call());
+        });
+        EasyMock.replay(gerritRestClient);
+
+        ChangesRestClient changes = new ChangesRestClient(gerritRestClient, null, null, FILE_INFO_PARSER, null,
+            null, COMMIT_INFOS_PARSER, null, null, null, null);
+        RevisionApiRestClient revision = (RevisionApiRestClient) changes.id("1").revision("abc");
+
+        Map<String, RevisionFilesFetcher.RevisionFile> fetchedFiles = Maps.newLinkedHashMap();
+        revision.filesFetcher()
+            .withContents(true)
+            .withMaxFileSize(100)
+            .withParallelism(2)
+            .fetch(file -> fetchedFiles.put(file.getPath(), file));
+
+        Truth.assertThat(fetchedFiles.keySet()).containsExactly("a.txt", "b.png", "big.txt", "old.txt");
+        Truth.assertThat(fetchedFiles.get("a.txt").getDiff().isPresent()).isTrue();
+        Truth.assertThat(new String(fetchedFiles.get("a.txt").getContent().get(), Charsets.UTF_8)).isEqualTo("hello");
+        Truth.assertThat(fetchedFiles.get("b.png").isSkipped()).isTrue();
+        Truth.assertThat(fetchedFiles.get("big.txt").isSkipped()).isTrue();
+        Truth.assertThat(fetchedFiles.get("old.txt").getDiff().isPresent()).isTrue();
+        Truth.assertThat(fetchedFiles.get("old.txt").getContent().isPresent()).isFalse();
+        Truth.assertThat(fetchedFiles.get("old.txt").getError().isPresent()).isFalse();
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test(timeOut = 10000, expectedExceptions = RestApiException.class)
+    public void testFailingWorkersDoNotBlock() throws Exception {
+        Map<String, FileInfo> files = Maps.newLinkedHashMap();
+        files.put("a.txt", fileInfo(null, false, 10));
+        files.put("b.txt", fileInfo(null, false, 10));
+
+        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
+        EasyMock.expect(gerritRestClient.getRequest(REVISION_URL + "/files", FILE_INFO_MAP_TYPE))
+            .andReturn(files).once();
+        EasyMock.expect(gerritRestClient.getRequest(EasyMock.startsWith(REVISION_URL + "/files/"), EasyMock.eq(DiffInfo.class)))
+            .andThrow(new OutOfMemoryError()).anyTimes();
+        EasyMock.expect(gerritRestClient.executeInBackground(EasyMock.<Callable<Object>>anyObject())).andStubAnswer(() -> {
+            Callable<?> call = (Callable<?>) EasyMock.getCurrentArguments()[0];
+            CompletableFuture<Object> future = new CompletableFuture<Object>();
+            try {
+                future.complete(call.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        });
+        EasyMock.replay(gerritRestClient);
+
+        ChangesRestClient changes = new ChangesRestClient(gerritRestClient, null, null, FILE_INFO_PARSER, null,
+            null, COMMIT_INFOS_PARSER, null, null, null, null);
+        RevisionApiRestClient revision = (RevisionApiRestClient) changes.id("1").revision("abc");
+
+        revision.filesFetcher().withParallelism(2).fetch(file -> {});
+    }
+
+    private static FileInfo fileInfo(Character status, boolean binary, long size) {
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.status = status;
+        fileInfo.binary = binary ? true : null;
+        fileInfo.size = size;
+        return fileInfo;
+    }
+}
@@ -25,7 +25,9 @@ import com.google.gerrit.extensions.common.ChangeInfo;
 import com.google.gerrit.extensions.common.ChangeInput;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
 import com.urswolfer.gerrit.client.rest.http.common.*;
+import org.easymock.EasyMock;
 import org.testng.annotations.Test;
 
 import java.util.LinkedHashSet;
@@ -122,6 +124,19 @@ public class ChangeInfosParserTest extends AbstractParserTest {
         GerritAssert.assertEquals(changeInfos.get(0), CHANGE_INFOS.get(0));
     }
 
+    @Test
+    public void testRequestChangeInfos() throws Exception {
+        List<ChangeInfo> expectedChangeInfos = Lists.newArrayList();
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
+            .expectGet("/changes/?q=is:open", ChangeInfosParser.CHANGEINFO_TYPE, expectedChangeInfos)
+            .get();
+
+        List<ChangeInfo> changeInfos = changeInfosParser.requestChangeInfos(gerritRestClient, "/changes/?q=is:open");
+
+        Truth.assertThat(changeInfos).isSameAs(expectedChangeInfos);
+        EasyMock.verify(gerritRestClient);
+    }
+
     @Test
     public void testParseSingleChangeInfo() throws Exception {
         JsonElement jsonElement = getJsonElement("change.json");
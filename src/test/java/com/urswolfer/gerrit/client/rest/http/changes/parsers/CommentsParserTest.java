@@ -57,7 +57,7 @@ public class CommentsParserTest extends AbstractParserTest {
                         .withId("da33351e_8109fa2e")
                         .withLine(1)
                         .withMessage("is this really needed?")
-                        .withUpdated("2014-05-28 19:14:50")
+                        .withUpdated("2014-05-28 19:14:50.629")
                         .withAuthor(accountInfo)
                         .get()
         ));
@@ -65,13 +65,13 @@ public class CommentsParserTest extends AbstractParserTest {
                 new CommentInfoBuilder()
                         .withId("da33351e_41fff201")
                         .withMessage("looks good to me!")
-                        .withUpdated("2014-05-28 19:14:50")
+                        .withUpdated("2014-05-28 19:14:50.629")
                         .withAuthor(accountInfo)
                         .get(),
                 new CommentInfoBuilder()
                         .withId("da33351e_21046e14")
                         .withMessage("please reformat imports")
-                        .withUpdated("2014-05-28 19:14:50")
+                        .withUpdated("2014-05-28 19:14:50.629")
                         .withLine(4)
                         .withAuthor(accountInfo)
                         .get()
@@ -93,7 +93,7 @@ public class CommentsParserTest extends AbstractParserTest {
                 .withId("TvcXrmjM")
                 .withLine(1)
                 .withMessage("Unused import")
-                .withUpdated("2014-05-28 19:14:50")
+                .withUpdated("2014-05-28 19:14:50.629")
                 .withAuthor(accountInfo)
                 .withRobotId("importChecker")
                 .withRobotRunId("12x1375aa8626ea7149792831fe2ed85e80s1r03")
@@ -104,7 +104,7 @@ public class CommentsParserTest extends AbstractParserTest {
                 .withId("BsaWsvaK")
                 .withLine(4)
                 .withMessage("Reformat imports")
-                .withUpdated("2014-05-28 19:04:21")
+                .withUpdated("2014-05-28 19:04:21.629")
                 .withAuthor(accountInfo)
                 .withRobotId("importChecker")
                 .withRobotRunId("12x1375aa8626ea7149792831fe2ed85e80s1r03")
@@ -113,7 +113,7 @@ public class CommentsParserTest extends AbstractParserTest {
                 .withId("TalZsvaK")
                 .withLine(12)
                 .withMessage("Wrong indentation")
-                .withUpdated("2014-05-28 19:14:50")
+                .withUpdated("2014-05-28 19:14:50.629")
                 .withAuthor(accountInfo)
                 .withRobotId("styleChecker")
                 .withRobotRunId("24x1375aa8626ea7149792831fe2ed85e80bst12")
@@ -134,7 +134,7 @@ public class CommentsParserTest extends AbstractParserTest {
         MESSAGES_INFOS.add(new ChangeMessageInfoBuilder()
             .withId("EAF")
             .withMessage("Patch Set 1: This is the first message.")
-            .withDate("2019-11-28 22:28:50")
+            .withDate("2019-11-28 22:28:50.419")
             .withAuthor(accountInfo)
             .withRevisionNumber(1)
             .get()
@@ -142,7 +142,7 @@ public class CommentsParserTest extends AbstractParserTest {
         MESSAGES_INFOS.add(new ChangeMessageInfoBuilder()
             .withId("YH-egE")
             .withMessage("i think so")
-            .withDate("2019-11-28 22:33:12")
+            .withDate("2019-11-28 22:33:12.332")
             .withAuthor(accountInfo)
             .withRevisionNumber(2)
             .get()
@@ -17,27 +17,17 @@
 package com.urswolfer.gerrit.client.rest.http.common;
 
 import java.sql.Timestamp;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.TimeZone;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 /**
  * @author Thomas Forrer
  */
 public class AbstractBuilder {
-    static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-    static {
-        DATE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
-    }
-
+    /**
+     * @param timestamp UTC date in the format "yyyy-MM-dd HH:mm:ss[.SSSSSSSSS]"
+     */
     static Timestamp timestamp(String timestamp) {
-        try {
-            Date parse = DATE_FORMAT.parse(timestamp);
-            return new Timestamp(parse.getTime());
-        } catch (ParseException e) {
-            throw new RuntimeException(e);
-        }
+        return Timestamp.from(LocalDateTime.parse(timestamp.replace(' ', 'T')).toInstant(ZoneOffset.UTC));
     }
 }
@@ -18,9 +18,12 @@ package com.urswolfer.gerrit.client.rest.http.common;
 
 import com.google.gson.JsonElement;
 import com.urswolfer.gerrit.client.rest.http.GerritRestClient;
+import com.urswolfer.gerrit.client.rest.http.util.BinaryResultUtils;
 import org.apache.http.HttpResponse;
 import org.easymock.EasyMock;
 
+import java.lang.reflect.Type;
+
 /**
  * @author Thomas Forrer
  */
@@ -37,6 +40,11 @@ public final class GerritRestClientBuilder {
         return this;
     }
 
+    public GerritRestClientBuilder expectGet(String url, Type type, Object result) throws Exception {
+        EasyMock.expect(gerritRestClient.getRequest(url, type)).andReturn(result).once();
+        return this;
+    }
+
     public GerritRestClientBuilder expectGet(String url, Throwable throwable) throws Exception {
         EasyMock.expect(gerritRestClient.getRequest(url)).andThrow(throwable).once();
         return this;
@@ -88,6 +96,12 @@ public final class GerritRestClientBuilder {
         return this;
     }
 
+    public GerritRestClientBuilder expectBinaryRequest(String path, HttpResponse result) throws Exception {
+        EasyMock.expect(gerritRestClient.requestBinary(path))
+            .andReturn(BinaryResultUtils.createBinaryResult(result)).once();
+        return this;
+    }
+
     public GerritRestClientBuilder expectJsonRequest(String path, String requestBody, GerritRestClient.HttpVerb verb,
                                                  JsonElement result) throws Exception {
         EasyMock.expect(gerritRestClient.requestJson(path, requestBody, verb)).andReturn(result).once();
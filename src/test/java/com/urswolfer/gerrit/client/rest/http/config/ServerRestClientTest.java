@@ -16,6 +16,7 @@
 
 package com.urswolfer.gerrit.client.rest.http.config;
 
+import com.google.common.base.Ticker;
 import com.google.common.truth.Truth;
 import com.google.gerrit.extensions.client.DiffPreferencesInfo;
 import com.google.gerrit.extensions.client.EditPreferencesInfo;
@@ -30,6 +31,13 @@ import com.urswolfer.gerrit.client.rest.http.config.parsers.ServerConfigParser;
 import org.easymock.EasyMock;
 import org.testng.annotations.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.testng.Assert.assertEquals;
 
 public class ServerRestClientTest {
@@ -70,6 +78,90 @@ public class ServerRestClientTest {
         serverRestClient.getVersion();
     }
 
+    @Test
+    public void testGetVersionCached() throws Exception {
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
+            .expectGet("/config/server/version", new JsonPrimitive("3.9.1"))
+            .get();
+        ServerRestClient serverRestClient = new ServerRestClient(gerritRestClient, null);
+
+        Truth.assertThat(serverRestClient.getVersionCached()).isEqualTo("3.9.1");
+        Truth.assertThat(serverRestClient.getVersionCached()).isEqualTo("3.9.1");
+
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test
+    public void testGetVersionCachedWithTimeout() throws Exception {
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
+            .expectGet("/config/server/version", new JsonPrimitive("3.9.1"))
+            .expectGet("/config/server/version", new JsonPrimitive("3.10.0"))
+            .get();
+        final AtomicLong nanos = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        ServerRestClient serverRestClient = new ServerRestClient(gerritRestClient, null, ticker);
+        serverRestClient.setCacheTimeout(10, TimeUnit.MINUTES);
+
+        Truth.assertThat(serverRestClient.getVersionCached()).isEqualTo("3.9.1");
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(9));
+        Truth.assertThat(serverRestClient.getVersionCached()).isEqualTo("3.9.1");
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        Truth.assertThat(serverRestClient.getVersionCached()).isEqualTo("3.10.0");
+
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test
+    public void testGetVersionCachedLoadsOnceForConcurrentCallers() throws Exception {
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch responseAllowed = new CountDownLatch(1);
+        GerritRestClient gerritRestClient = EasyMock.createMock(GerritRestClient.class);
+        EasyMock.expect(gerritRestClient.getRequest("/config/server/version")).andAnswer(() -> {
+            requestStarted.countDown();
+            responseAllowed.await();
+            return new JsonPrimitive("3.9.1");
+        }).once();
+        EasyMock.replay(gerritRestClient);
+        final ServerRestClient serverRestClient = new ServerRestClient(gerritRestClient, null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(serverRestClient::getVersionCached);
+            requestStarted.await();
+            Future<String> second = executor.submit(serverRestClient::getVersionCached);
+            Thread.sleep(50);
+            responseAllowed.countDown();
+
+            Truth.assertThat(first.get()).isEqualTo("3.9.1");
+            Truth.assertThat(second.get()).isEqualTo("3.9.1");
+        } finally {
+            executor.shutdown();
+        }
+        EasyMock.verify(gerritRestClient);
+    }
+
+    @Test
+    public void testGetInfoCached() throws Exception {
+        GerritRestClient gerritRestClient = new GerritRestClientBuilder()
+            .expectGet("/config/server/info", MOCK_JSON_ELEMENT)
+            .get();
+        ServerConfigParser configParser = EasyMock.createMock(ServerConfigParser.class);
+        ServerInfo info = EasyMock.createMock(ServerInfo.class);
+        EasyMock.expect(configParser.parseServerInfo(MOCK_JSON_ELEMENT)).andReturn(info).once();
+        EasyMock.replay(configParser);
+
+        ServerRestClient serverRestClient = new ServerRestClient(gerritRestClient, configParser);
+
+        Truth.assertThat(serverRestClient.getInfoCached()).isSameAs(info);
+        Truth.assertThat(serverRestClient.getInfoCached()).isSameAs(info);
+        EasyMock.verify(gerritRestClient, configParser);
+    }
+
     @Test
     public void testGetInfo() throws Exception {
         GerritRestClient gerritRestClient = new GerritRestClientBuilder()